@@ -0,0 +1,105 @@
+package com.example.aggregator.config;
+
+import com.example.aggregator.consumer.AggregationListener;
+import com.example.aggregator.window.MerchantWindows;
+import com.example.aggregator.window.WindowCheckpointer;
+import com.example.common.serde.PaymentEventDeserializer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@EnableKafka
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(AggregatorProps.class)
+public class AggregatorConfig {
+
+    @Bean
+    public MerchantWindows merchantWindows(AggregatorProps props, MeterRegistry registry) {
+        var windows = new MerchantWindows(props.getBucket(), props.getBuckets(), props.getExpectedMerchants());
+        Gauge.builder("aggregator.merchants", windows, MerchantWindows::merchants).register(registry);
+        FunctionCounter.builder("aggregator.late.events", windows, MerchantWindows::lateEvents).register(registry);
+        return windows;
+    }
+
+    /** Restaura na subida (antes do listener) e grava um último checkpoint no shutdown. */
+    @Bean(destroyMethod = "checkpoint")
+    public WindowCheckpointer windowCheckpointer(MerchantWindows windows, AggregatorProps props) {
+        var checkpointer = new WindowCheckpointer(windows, Path.of(props.getCheckpoint().getFile()));
+        checkpointer.restore();
+        return checkpointer;
+    }
+
+    /** Depende do checkpointer: as posições restauradas precisam estar lá na atribuição das partições. */
+    @Bean
+    public AggregationListener aggregationListener(MerchantWindows windows, WindowCheckpointer checkpointer) {
+        return new AggregationListener(windows);
+    }
+
+    /**
+     * Um consumidor para os dois tópicos (o estado é de todos os merchants, então uma instância só).
+     * Nada é comitado: quem manda na posição é o checkpoint.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> aggregatorListenerContainerFactory(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers, AggregatorProps props) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        config.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        config.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, props.getMaxPollRecords());
+        config.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        config.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        // binário ou JSON pelo header x-wire-format; rejeições chegam com o type header do gateway
+        config.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, PaymentEventDeserializer.class);
+        config.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.common.event");
+        config.put(JsonDeserializer.TYPE_MAPPINGS, """
+                paymentAuthorizedEvent:com.example.common.event.PaymentAuthorizedEvent,
+                paymentRejectedEvent:com.example.common.event.PaymentRejectedEvent""");
+
+        var f = new ConcurrentKafkaListenerContainerFactory<String, Object>();
+        f.setConsumerFactory(new DefaultKafkaConsumerFactory<>(config));
+        f.setConcurrency(1);
+        f.setBatchListener(true);
+        f.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return f;
+    }
+}
+
+@ConfigurationProperties(prefix = "app.aggregator")
+@Getter @Setter
+class AggregatorProps {
+    private Duration bucket = Duration.ofMinutes(1);
+    private int buckets = 60;
+    private int expectedMerchants = 1024;
+    private int maxPollRecords = 2000;
+    private Checkpoint checkpoint = new Checkpoint();
+
+    @Getter @Setter
+    static class Checkpoint {
+        private String file = "data/aggregates.checkpoint";
+        private Duration interval = Duration.ofSeconds(10);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.aggregator.consumer;
+
+import com.example.aggregator.window.MerchantWindows;
+import com.example.common.event.PaymentEvent;
+import com.example.common.event.PaymentRejectedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Soma payments.persist.in (aprovados) e payments.rejected no {@link MerchantWindows}. Os offsets não
+ * são comitados no Kafka: a posição de cada partição vai no checkpoint junto com o estado, e na
+ * atribuição o consumidor é posicionado nela ou, sem checkpoint, no início da retenção do anel.
+ */
+@Slf4j
+public class AggregationListener extends AbstractConsumerSeekAware {
+
+    private final MerchantWindows windows;
+
+    public AggregationListener(MerchantWindows windows) {
+        this.windows = windows;
+    }
+
+    @KafkaListener(
+            id = "merchant-aggregator",
+            topics = {"${app.aggregator.persist-topic}", "${app.aggregator.rejected-topic}"},
+            groupId = "${app.aggregator.group-id}",
+            containerFactory = "aggregatorListenerContainerFactory"
+    )
+    public void onEvents(List<ConsumerRecord<String, Object>> records) {
+        Map<TopicPartition, Long> next = new HashMap<>();
+        windows.update(w -> {
+            for (ConsumerRecord<String, Object> record : records) {
+                switch (record.value()) {
+                    case PaymentEvent e when e.merchantId() != null ->
+                            w.add(e.merchantId(), millis(e.createdAt(), record), e.amount(), true);
+                    case PaymentRejectedEvent e when e.merchantId() != null ->
+                            w.add(e.merchantId(), millis(e.rejectedAt(), record), e.amount(), false);
+                    // payload ilegível (null do ErrorHandlingDeserializer) ou sem merchant: nada a somar
+                    case null, default -> { }
+                }
+                next.put(new TopicPartition(record.topic(), record.partition()), record.offset() + 1);
+            }
+            next.forEach(w::position);
+        });
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        super.onPartitionsAssigned(assignments, callback);
+        long rebuildFrom = System.currentTimeMillis() - windows.retention().toMillis();
+        for (TopicPartition partition : assignments.keySet()) {
+            long position = windows.position(partition);
+            if (position >= 0) {
+                callback.seek(partition.topic(), partition.partition(), position);
+            } else {
+                log.info("Sem checkpoint para {}: relendo a partir de {}", partition, Instant.ofEpochMilli(rebuildFrom));
+                callback.seekToTimestamp(partition.topic(), partition.partition(), rebuildFrom);
+            }
+        }
+    }
+
+    /** Tempo de evento; sem ele, o timestamp do registro. */
+    private static long millis(Instant eventTime, ConsumerRecord<?, ?> record) {
+        return eventTime != null ? eventTime.toEpochMilli() : record.timestamp();
+    }
+}
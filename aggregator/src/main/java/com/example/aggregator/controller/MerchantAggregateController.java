@@ -0,0 +1,76 @@
+package com.example.aggregator.controller;
+
+import com.example.aggregator.dto.WindowAggregate;
+import com.example.aggregator.window.MerchantWindows;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Agregados por merchant servidos da memória; nenhuma consulta vai ao Postgres. */
+@RestController
+@RequestMapping("/merchants")
+public class MerchantAggregateController {
+
+    private static final int MAX_RESULTS = 1_000;
+
+    private final MerchantWindows windows;
+
+    public MerchantAggregateController(MerchantWindows windows) {
+        this.windows = windows;
+    }
+
+    /** Janelas deslizantes terminando agora, uma por {@code window}; 404 se o merchant nunca apareceu. */
+    @GetMapping("/{merchantId}/aggregates")
+    public ResponseEntity<List<WindowAggregate>> sliding(
+            @PathVariable String merchantId,
+            @RequestParam(name = "window", defaultValue = "PT1M,PT5M,PT1H") List<Duration> windowSizes) {
+        List<WindowAggregate> result = new ArrayList<>(windowSizes.size());
+        for (Duration size : windowSizes) {
+            WindowAggregate aggregate = windows.sliding(merchantId, size);
+            if (aggregate == null) {
+                return ResponseEntity.notFound().build();
+            }
+            result.add(aggregate);
+        }
+        return ResponseEntity.ok(result);
+    }
+
+    /** Últimas {@code count} janelas tumbling de {@code size}, a corrente (parcial) primeiro. */
+    @GetMapping("/{merchantId}/aggregates/tumbling")
+    public ResponseEntity<List<WindowAggregate>> tumbling(
+            @PathVariable String merchantId,
+            @RequestParam(name = "size", defaultValue = "PT1M") Duration size,
+            @RequestParam(name = "count", defaultValue = "10") int count) {
+        List<WindowAggregate> result = windows.tumbling(merchantId, size, limit(count));
+        return result == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(result);
+    }
+
+    /** Merchants com maior valor aprovado na janela deslizante. */
+    @GetMapping("/top")
+    public List<WindowAggregate> top(
+            @RequestParam(name = "window", defaultValue = "PT5M") Duration window,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return windows.top(window, limit(limit));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException ex) {
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+    }
+
+    private static int limit(int requested) {
+        if (requested < 1 || requested > MAX_RESULTS) {
+            throw new IllegalArgumentException("Quantidade deve estar entre 1 e " + MAX_RESULTS + ": " + requested);
+        }
+        return requested;
+    }
+}
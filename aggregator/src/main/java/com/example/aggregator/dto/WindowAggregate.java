@@ -0,0 +1,24 @@
+package com.example.aggregator.dto;
+
+import java.time.Instant;
+
+/** Agregado de um merchant na janela [from, to); valores em centavos. */
+public record WindowAggregate(
+        String merchantId,
+        Instant from,
+        Instant to,
+        long approvedCount,
+        long approvedAmount,
+        long rejectedCount,
+        long rejectedAmount,
+        double approvalRate
+) {
+
+    /** Calcula a taxa de aprovação (aprovados / total; 0 numa janela vazia). */
+    public static WindowAggregate of(String merchantId, Instant from, Instant to, long approvedCount,
+                                     long approvedAmount, long rejectedCount, long rejectedAmount) {
+        long count = approvedCount + rejectedCount;
+        return new WindowAggregate(merchantId, from, to, approvedCount, approvedAmount, rejectedCount,
+                rejectedAmount, count == 0 ? 0.0 : approvedCount / (double) count);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.aggregator.window;
+
+import java.util.Arrays;
+
+/**
+ * merchantId -> linha, endereçamento aberto (sondagem linear) com o hash guardado num int[] para
+ * não chamar equals à toa. Só cresce; não é thread-safe (quem usa é o {@link MerchantWindows}).
+ */
+final class MerchantIndex {
+
+    private String[] keys;
+    private int[] hashes;
+    private int[] rows;
+    private int mask;
+    private int size;
+
+    MerchantIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        rows = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /** Linha de {@code merchantId} ou -1. */
+    int get(String merchantId) {
+        int h = hash(merchantId);
+        int i = h & mask;
+        String k;
+        while ((k = keys[i]) != null) {
+            if (hashes[i] == h && k.equals(merchantId)) {
+                return rows[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /** Chamado só para chaves ausentes. */
+    void put(String merchantId, int row) {
+        int h = hash(merchantId);
+        int i = h & mask;
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = merchantId;
+        hashes[i] = h;
+        rows[i] = row;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        int[] oldRows = rows;
+        keys = new String[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        rows = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldRows[i]);
+            }
+        }
+    }
+
+    private static int hash(String s) {
+        int h = s.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.aggregator.window;
+
+import com.example.aggregator.dto.WindowAggregate;
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Agregados por merchantId em janelas de tempo de evento. Cada merchant é uma linha com um anel de
+ * {@code buckets} baldes de {@code bucketMillis}; cada balde guarda {@value #FIELDS} contadores num
+ * long[] plano, sem objeto por merchant nem por balde. O balde é zerado preguiçosamente quando o
+ * anel dá a volta, então eventos mais velhos que o anel são descartados.
+ *
+ * <p>Janela deslizante = soma dos últimos n baldes até o atual; tumbling = grupos de n baldes
+ * alinhados à época. As duas só existem em múltiplos do balde.
+ *
+ * <p>Lotes do listener entram sob o write lock junto com as posições (próximo offset por partição),
+ * de modo que um checkpoint sempre tem estado e offsets consistentes. Consultas usam o read lock.
+ *
+ * <pre>
+ * célula (linha, balde): epochs[linha * buckets + balde % buckets] = número do balde
+ *                        counters[célula * 4 ..] = aprovados, valor aprovado, rejeitados, valor rejeitado
+ * </pre>
+ */
+public class MerchantWindows {
+
+    static final int APPROVED_COUNT = 0;
+    static final int APPROVED_AMOUNT = 1;
+    static final int REJECTED_COUNT = 2;
+    static final int REJECTED_AMOUNT = 3;
+    static final int FIELDS = 4;
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MAGIC = 0x4D414747; // "MAGG"
+    private static final int VERSION = 1;
+
+    private final long bucketMillis;
+    private final int buckets;
+    private final LongSupplier clock;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Writer writer = new Writer();
+    private final Map<TopicPartition, Long> positions = new HashMap<>();
+    private final MerchantIndex index;
+    private String[] merchants;
+    private long[] epochs;
+    private long[] counters;
+    private int rows;
+    private long late;
+
+    public MerchantWindows(Duration bucket, int buckets, int expectedMerchants) {
+        this(bucket, buckets, expectedMerchants, System::currentTimeMillis);
+    }
+
+    MerchantWindows(Duration bucket, int buckets, int expectedMerchants, LongSupplier clock) {
+        if (bucket.toMillis() < 1 || buckets < 1) {
+            throw new IllegalArgumentException("bucket e buckets devem ser positivos");
+        }
+        this.bucketMillis = bucket.toMillis();
+        this.buckets = buckets;
+        this.clock = clock;
+        int capacity = Math.max(16, expectedMerchants);
+        this.index = new MerchantIndex(capacity);
+        allocate(capacity);
+    }
+
+    /** Aplica um lote sob o write lock. */
+    public void update(Consumer<Writer> batch) {
+        lock.writeLock().lock();
+        try {
+            batch.accept(writer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Escrita; só existe dentro de {@link #update}. */
+    public final class Writer {
+
+        private Writer() {
+        }
+
+        /** Conta o evento no balde de {@code eventMillis}; {@code false} se ele já saiu do anel. */
+        public boolean add(String merchantId, long eventMillis, long amount, boolean approved) {
+            long now = Math.floorDiv(clock.getAsLong(), bucketMillis);
+            // relógio do produtor adiantado: conta no balde atual em vez de sobrescrever um antigo
+            long bucket = Math.min(Math.floorDiv(eventMillis, bucketMillis), now);
+            if (bucket <= now - buckets) {
+                late++;
+                return false;
+            }
+            int cell = cell(rowFor(merchantId), bucket);
+            if (epochs[cell] != bucket) {
+                epochs[cell] = bucket;
+                Arrays.fill(counters, cell * FIELDS, cell * FIELDS + FIELDS, 0L);
+            }
+            int field = cell * FIELDS + (approved ? APPROVED_COUNT : REJECTED_COUNT);
+            counters[field]++;
+            counters[field + 1] += amount; // *_AMOUNT vem logo depois do *_COUNT
+            return true;
+        }
+
+        /** Próximo offset a ler de {@code partition}, gravado junto com o estado no checkpoint. */
+        public void position(TopicPartition partition, long nextOffset) {
+            positions.put(partition, nextOffset);
+        }
+    }
+
+    /** Próximo offset registrado para a partição ou -1. */
+    public long position(TopicPartition partition) {
+        lock.readLock().lock();
+        try {
+            return positions.getOrDefault(partition, -1L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Janela deslizante de {@code window} terminando no balde atual; {@code null} para merchant desconhecido. */
+    public WindowAggregate sliding(String merchantId, Duration window) {
+        int n = bucketsOf(window);
+        lock.readLock().lock();
+        try {
+            int row = index.get(merchantId);
+            if (row < 0) {
+                return null;
+            }
+            long now = nowBucket();
+            return aggregate(row, now - n + 1, now);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Até {@code count} janelas tumbling de {@code size}, da corrente (parcial) para trás, parando na
+     * primeira que não cabe mais no anel; {@code null} para merchant desconhecido.
+     */
+    public List<WindowAggregate> tumbling(String merchantId, Duration size, int count) {
+        int n = bucketsOf(size);
+        lock.readLock().lock();
+        try {
+            int row = index.get(merchantId);
+            if (row < 0) {
+                return null;
+            }
+            long now = nowBucket();
+            long current = Math.floorDiv(now, n) * n;
+            List<WindowAggregate> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long first = current - (long) i * n;
+                if (first <= now - buckets) {
+                    break;
+                }
+                result.add(aggregate(row, first, first + n - 1));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Os {@code limit} merchants com maior valor aprovado na janela deslizante (vazios ficam de fora). */
+    public List<WindowAggregate> top(Duration window, int limit) {
+        int n = bucketsOf(window);
+        List<WindowAggregate> all = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            long now = nowBucket();
+            for (int row = 0; row < rows; row++) {
+                WindowAggregate a = aggregate(row, now - n + 1, now);
+                if (a.approvedCount() + a.rejectedCount() > 0) {
+                    all.add(a);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        all.sort(Comparator.comparingLong(WindowAggregate::approvedAmount).reversed());
+        return all.size() > limit ? all.subList(0, limit) : all;
+    }
+
+    public int merchants() {
+        lock.readLock().lock();
+        try {
+            return rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Eventos descartados por serem mais velhos que o anel. */
+    public long lateEvents() {
+        lock.readLock().lock();
+        try {
+            return late;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Duration bucket() {
+        return Duration.ofMillis(bucketMillis);
+    }
+
+    public Duration retention() {
+        return Duration.ofMillis(bucketMillis * buckets);
+    }
+
+    /**
+     * Grava posições e linhas. O read lock fica preso durante a escrita (o listener espera) para que
+     * os offsets gravados correspondam exatamente ao estado.
+     *
+     * <pre>
+     * magic:i32 | version:i32 | bucketMillis:i64 | buckets:i32
+     * positions:i32 | positions x (topic:utf, partition:i32, next:i64)
+     * rows:i32 | rows x (merchantId:utf, buckets x (bucket:i64 [, 4 x i64 se bucket != vazio]))
+     * </pre>
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(bucketMillis);
+            out.writeInt(buckets);
+            out.writeInt(positions.size());
+            for (Map.Entry<TopicPartition, Long> e : positions.entrySet()) {
+                out.writeUTF(e.getKey().topic());
+                out.writeInt(e.getKey().partition());
+                out.writeLong(e.getValue());
+            }
+            out.writeInt(rows);
+            for (int row = 0; row < rows; row++) {
+                out.writeUTF(merchants[row]);
+                for (int slot = 0; slot < buckets; slot++) {
+                    int cell = row * buckets + slot;
+                    out.writeLong(epochs[cell]);
+                    if (epochs[cell] != EMPTY) {
+                        for (int f = 0; f < FIELDS; f++) {
+                            out.writeLong(counters[cell * FIELDS + f]);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Substitui o estado pelo do checkpoint. Devolve {@code false} (estado vazio) se o formato ou a
+     * geometria dos baldes não batem com a configuração atual.
+     */
+    public boolean readFrom(DataInputStream in) throws IOException {
+        lock.writeLock().lock();
+        try {
+            clear();
+            if (in.readInt() != MAGIC || in.readInt() != VERSION
+                    || in.readLong() != bucketMillis || in.readInt() != buckets) {
+                return false;
+            }
+            int positionCount = in.readInt();
+            for (int i = 0; i < positionCount; i++) {
+                positions.put(new TopicPartition(in.readUTF(), in.readInt()), in.readLong());
+            }
+            int rowCount = in.readInt();
+            for (int i = 0; i < rowCount; i++) {
+                int row = rowFor(in.readUTF());
+                for (int slot = 0; slot < buckets; slot++) {
+                    int cell = row * buckets + slot;
+                    epochs[cell] = in.readLong();
+                    if (epochs[cell] != EMPTY) {
+                        for (int f = 0; f < FIELDS; f++) {
+                            counters[cell * FIELDS + f] = in.readLong();
+                        }
+                    }
+                }
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            clear();
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private WindowAggregate aggregate(int row, long firstBucket, long lastBucket) {
+        long[] sum = new long[FIELDS];
+        for (long b = firstBucket; b <= lastBucket; b++) {
+            int cell = cell(row, b);
+            if (epochs[cell] == b) {
+                for (int f = 0; f < FIELDS; f++) {
+                    sum[f] += counters[cell * FIELDS + f];
+                }
+            }
+        }
+        return WindowAggregate.of(merchants[row],
+                Instant.ofEpochMilli(firstBucket * bucketMillis), Instant.ofEpochMilli((lastBucket + 1) * bucketMillis),
+                sum[APPROVED_COUNT], sum[APPROVED_AMOUNT], sum[REJECTED_COUNT], sum[REJECTED_AMOUNT]);
+    }
+
+    private int rowFor(String merchantId) {
+        int row = index.get(merchantId);
+        if (row >= 0) {
+            return row;
+        }
+        if (rows == merchants.length) {
+            grow();
+        }
+        row = rows++;
+        merchants[row] = merchantId;
+        index.put(merchantId, row);
+        return row;
+    }
+
+    private int cell(int row, long bucket) {
+        return row * buckets + (int) Math.floorMod(bucket, (long) buckets);
+    }
+
+    private long nowBucket() {
+        return Math.floorDiv(clock.getAsLong(), bucketMillis);
+    }
+
+    private int bucketsOf(Duration window) {
+        long millis = window.toMillis();
+        if (millis <= 0 || millis % bucketMillis != 0 || millis / bucketMillis > buckets) {
+            throw new IllegalArgumentException("Janela deve ser múltiplo de " + bucket()
+                    + " e no máximo " + retention() + ": " + window);
+        }
+        return (int) (millis / bucketMillis);
+    }
+
+    private void grow() {
+        int capacity = merchants.length * 2;
+        if ((long) capacity * buckets * FIELDS > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Merchants demais para o anel de " + buckets + " baldes: " + rows);
+        }
+        merchants = Arrays.copyOf(merchants, capacity);
+        int oldCells = epochs.length;
+        epochs = Arrays.copyOf(epochs, capacity * buckets);
+        Arrays.fill(epochs, oldCells, epochs.length, EMPTY);
+        counters = Arrays.copyOf(counters, capacity * buckets * FIELDS);
+    }
+
+    private void clear() {
+        positions.clear();
+        index.clear();
+        allocate(merchants.length);
+        late = 0;
+    }
+
+    private void allocate(int capacity) {
+        merchants = new String[capacity];
+        epochs = new long[capacity * buckets];
+        Arrays.fill(epochs, EMPTY);
+        counters = new long[capacity * buckets * FIELDS];
+        rows = 0;
+    }
+}
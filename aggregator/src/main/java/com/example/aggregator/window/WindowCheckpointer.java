@@ -0,0 +1,70 @@
+package com.example.aggregator.window;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Checkpoint local do {@link MerchantWindows}: estado e offsets no mesmo arquivo, então a subida
+ * retoma do offset gravado sem contar nada duas vezes. Sem arquivo (ou com geometria de baldes
+ * diferente), o listener reconstrói relendo a retenção do anel a partir dos tópicos.
+ */
+@Slf4j
+public class WindowCheckpointer {
+
+    private final MerchantWindows windows;
+    private final Path file;
+
+    public WindowCheckpointer(MerchantWindows windows, Path file) {
+        this.windows = windows;
+        this.file = file;
+    }
+
+    /** Grava num arquivo temporário e troca por move atômico: nunca deixa um checkpoint parcial. */
+    @Scheduled(fixedDelayString = "${app.aggregator.checkpoint.interval:PT10S}")
+    public synchronized void checkpoint() {
+        long start = System.nanoTime();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                windows.writeTo(out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Checkpoint dos agregados gravado: {} merchants em {} ms",
+                    windows.merchants(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException ex) {
+            log.error("Falha ao gravar checkpoint dos agregados em {}", file, ex);
+        }
+    }
+
+    /** Carrega o último checkpoint, se houver; precisa rodar antes de o listener receber partições. */
+    public boolean restore() {
+        if (!Files.isRegularFile(file)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (!windows.readFrom(in)) {
+                log.warn("Checkpoint {} com formato ou baldes diferentes; reconstruindo dos tópicos.", file);
+                return false;
+            }
+            log.info("Agregados restaurados de {}: {} merchants em {} ms",
+                    file, windows.merchants(), (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            log.error("Falha ao restaurar checkpoint dos agregados de {}; reconstruindo dos tópicos.", file, ex);
+            return false;
+        }
+    }
+}
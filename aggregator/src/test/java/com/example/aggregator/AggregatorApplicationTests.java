@@ -0,0 +1,13 @@
+package com.example.aggregator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class AggregatorApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.example.aggregator.window;
+
+import com.example.aggregator.dto.WindowAggregate;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MerchantWindowsTest {
+
+    private static final long MIN = 60_000;
+
+    private final AtomicLong clock = new AtomicLong(100 * MIN);
+    private final MerchantWindows windows = new MerchantWindows(Duration.ofMinutes(1), 10, 2, clock::get);
+
+    @Test
+    void slidingWindowSumsOnlyTheLastBuckets() {
+        windows.update(w -> {
+            w.add("M1", 95 * MIN, 1_000, true);
+            w.add("M1", 99 * MIN + 5, 500, false);
+            w.add("M1", 100 * MIN + 10, 200, true);
+        });
+
+        WindowAggregate last2 = windows.sliding("M1", Duration.ofMinutes(2));
+        assertThat(last2.approvedCount()).isEqualTo(1);
+        assertThat(last2.approvedAmount()).isEqualTo(200);
+        assertThat(last2.rejectedCount()).isEqualTo(1);
+        assertThat(last2.approvalRate()).isEqualTo(0.5);
+        assertThat(last2.from().toEpochMilli()).isEqualTo(99 * MIN);
+        assertThat(last2.to().toEpochMilli()).isEqualTo(101 * MIN);
+
+        WindowAggregate last10 = windows.sliding("M1", Duration.ofMinutes(10));
+        assertThat(last10.approvedAmount()).isEqualTo(1_200);
+        assertThat(windows.sliding("M2", Duration.ofMinutes(1))).isNull();
+    }
+
+    @Test
+    void tumblingWindowsAreAlignedAndNewestFirst() {
+        windows.update(w -> {
+            w.add("M1", 96 * MIN, 10, true);
+            w.add("M1", 97 * MIN, 20, true);
+            w.add("M1", 98 * MIN, 30, true);
+            w.add("M1", 100 * MIN, 40, true);
+        });
+
+        List<WindowAggregate> tumbling = windows.tumbling("M1", Duration.ofMinutes(2), 10);
+        // [100,102) [98,100) [96,98) [94,96) [92,94); [90,92) já começa fora do anel de 10 minutos
+        assertThat(tumbling).extracting(WindowAggregate::approvedAmount).containsExactly(40L, 30L, 30L, 0L, 0L);
+        assertThat(tumbling.get(0).from().toEpochMilli()).isEqualTo(100 * MIN);
+    }
+
+    @Test
+    void ringWrapResetsStaleBucketsAndDropsLateEvents() {
+        windows.update(w -> w.add("M1", 91 * MIN, 100, true));
+        clock.set(105 * MIN);
+        windows.update(w -> {
+            assertThat(w.add("M1", 91 * MIN, 100, true)).isFalse();
+            // mesmo slot do balde 91 (101 % 10): precisa começar do zero
+            assertThat(w.add("M1", 101 * MIN, 7, true)).isTrue();
+        });
+
+        assertThat(windows.sliding("M1", Duration.ofMinutes(10)).approvedAmount()).isEqualTo(7);
+        assertThat(windows.lateEvents()).isEqualTo(1);
+    }
+
+    @Test
+    void futureEventsCountInTheCurrentBucket() {
+        windows.update(w -> w.add("M1", 130 * MIN, 9, true));
+
+        assertThat(windows.sliding("M1", Duration.ofMinutes(1)).approvedAmount()).isEqualTo(9);
+    }
+
+    @Test
+    void growsPastTheExpectedMerchants() {
+        windows.update(w -> {
+            for (int i = 0; i < 100; i++) {
+                w.add("M" + i, 100 * MIN, i, true);
+            }
+        });
+
+        assertThat(windows.merchants()).isEqualTo(100);
+        assertThat(windows.sliding("M42", Duration.ofMinutes(1)).approvedAmount()).isEqualTo(42);
+        assertThat(windows.top(Duration.ofMinutes(1), 3)).extracting(WindowAggregate::merchantId)
+                .containsExactly("M99", "M98", "M97");
+    }
+
+    @Test
+    void checkpointRoundTripKeepsStateAndPositions() throws Exception {
+        TopicPartition partition = new TopicPartition("payments.rejected", 3);
+        windows.update(w -> {
+            w.add("M1", 99 * MIN, 50, false);
+            w.add("M2", 100 * MIN, 70, true);
+            w.position(partition, 1234);
+        });
+        var bytes = new ByteArrayOutputStream();
+        windows.writeTo(new DataOutputStream(bytes));
+
+        var restored = new MerchantWindows(Duration.ofMinutes(1), 10, 2, clock::get);
+        assertThat(restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isTrue();
+
+        assertThat(restored.position(partition)).isEqualTo(1234);
+        assertThat(restored.position(new TopicPartition("payments.rejected", 0))).isEqualTo(-1);
+        assertThat(restored.sliding("M1", Duration.ofMinutes(2)).rejectedAmount()).isEqualTo(50);
+        assertThat(restored.sliding("M2", Duration.ofMinutes(1)).approvedAmount()).isEqualTo(70);
+
+        var otherGeometry = new MerchantWindows(Duration.ofMinutes(1), 20, 2, clock::get);
+        assertThat(otherGeometry.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isFalse();
+        assertThat(otherGeometry.merchants()).isZero();
+    }
+
+    @Test
+    void rejectsWindowsThatAreNotBucketMultiplesOrExceedTheRing() {
+        windows.update(w -> w.add("M1", 100 * MIN, 1, true));
+
+        assertThatThrownBy(() -> windows.sliding("M1", Duration.ofSeconds(90)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> windows.sliding("M1", Duration.ofMinutes(11)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
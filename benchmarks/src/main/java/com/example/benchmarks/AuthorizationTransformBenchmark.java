@@ -0,0 +1,78 @@
+package com.example.benchmarks;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.common.trace.TraceHeaders;
+import com.example.gateway.authorization.AuthorizationDecision;
+import com.example.gateway.service.AuthorizationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+
+import java.time.Instant;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transformação do gateway sem o motor de regras (medido em {@link AuthorizationEngineBenchmark}):
+ * registro de entrada -> decisão fixa -> registro de saída com status, evento de rejeição e
+ * headers de rastreio. ~10% dos eventos viram PaymentRejectedEvent.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar AuthorizationTransformBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthorizationTransformBenchmark {
+
+    private static final int RECORDS = 1 << 12;
+    private static final AuthorizationDecision REJECTED =
+            AuthorizationDecision.reject(RejectCode.INSUFFICIENT_FUNDS, "limite excedido");
+
+    private AuthorizationService service;
+    private ConsumerRecord<String, PaymentEvent>[] records;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        // sem KafkaTemplate: authorize só monta o ProducerRecord, quem envia é o listener
+        service = new AuthorizationService(null,
+                (event, partition) -> event.amount() % 10 == 0 ? REJECTED : AuthorizationDecision.APPROVED,
+                new KafkaListenerEndpointRegistry(), null, new SimpleMeterRegistry(),
+                "payments.persist.in", "payments.rejected", 256, 3, 5);
+
+        var random = new SplittableRandom(42);
+        records = new ConsumerRecord[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            var event = new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-" + random.nextInt(1_000),
+                    "CUST-" + random.nextInt(100_000), "TERM-0001", random.nextLong(1, 60_000), "BRL", "CREDIT",
+                    "CHIP", UUID.randomUUID().toString(), Status.PENDING);
+            var record = new ConsumerRecord<>("payments.authorize.in", i % 6, i, event.txId().toString(), event);
+            TraceHeaders.traceId(record.headers(), UUID.randomUUID());
+            TraceHeaders.stamp(record.headers(), TraceHeaders.API_ACCEPT, TraceHeaders.toMicros(event.createdAt()));
+            records[i] = record;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            return next = (next + 1) & (RECORDS - 1);
+        }
+    }
+
+    @Benchmark
+    public AuthorizationService.Outcome authorize(Cursor cursor) {
+        return service.authorize(records[cursor.advance()]);
+    }
+}
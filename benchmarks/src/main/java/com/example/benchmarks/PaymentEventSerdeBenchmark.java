@@ -0,0 +1,83 @@
+package com.example.benchmarks;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.common.serde.PaymentEventDeserializer;
+import com.example.common.serde.PaymentEventSerializer;
+import com.example.common.serde.WireFormat;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serde do PaymentEvent com as mesmas propriedades do producer do gateway (type headers + type
+ * mapping) e do consumer (trusted packages). Cada operação usa headers novos: o JsonDeserializer
+ * remove os type headers que lê, e o serializer carimba x-wire-format.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar PaymentEventSerdeBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaymentEventSerdeBenchmark {
+
+    private static final String TOPIC = "payments.persist.in";
+    private static final String TYPE_MAPPING = """
+            paymentEvent:com.example.common.event.PaymentEvent,
+            paymentAuthorizedEvent:com.example.common.event.PaymentAuthorizedEvent,
+            paymentRejectedEvent:com.example.common.event.PaymentRejectedEvent""";
+
+    @Param({"json", "binary"})
+    String wireFormat;
+
+    private PaymentEventSerializer serializer;
+    private PaymentEventDeserializer deserializer;
+    private PaymentEvent event;
+    private byte[] payload;
+    private Header[] payloadHeaders;
+
+    @Setup
+    public void setup() {
+        serializer = new PaymentEventSerializer();
+        serializer.configure(Map.of(
+                WireFormat.CONFIG, wireFormat,
+                "spring.json.add.type.headers", true,
+                "spring.json.type.mapping", TYPE_MAPPING), false);
+        deserializer = new PaymentEventDeserializer();
+        deserializer.configure(Map.of(
+                "spring.json.trusted.packages", "com.example.common.event",
+                "spring.json.type.mapping", TYPE_MAPPING), false);
+
+        event = new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-0001", "CUST-0001", "TERM-0001",
+                12_345L, "BRL", "CREDIT", "CHIP", UUID.randomUUID().toString(), Status.AUTHORIZED);
+        var headers = new RecordHeaders();
+        payload = serializer.serialize(TOPIC, headers, event);
+        payloadHeaders = headers.toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(TOPIC, new RecordHeaders(payloadHeaders), payload);
+    }
+}
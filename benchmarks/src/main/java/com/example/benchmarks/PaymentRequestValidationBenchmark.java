@@ -0,0 +1,67 @@
+package com.example.benchmarks;
+
+import com.example.common.dto.PaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho do {@code @Valid @RequestBody} do POST /payments: corpo JSON -> PaymentRequest ->
+ * Bean Validation. O corpo inválido mede o custo extra de montar as violações (interpolação
+ * das mensagens), que é o que um cliente mal configurado gera a cada requisição.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar PaymentRequestValidationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PaymentRequestValidationBenchmark {
+
+    private static final byte[] VALID = """
+            {"merchantId":"MERCH-0001","customerId":"CUST-0001","terminalId":"TERM-0001","amount":12345,
+             "currency":"BRL","method":"CREDIT","entryMode":"CHIP","cardHash":"9f86d081884c7d659a2feaa0c55ad015"}
+            """.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INVALID = """
+            {"merchantId":"","customerId":"CUST-0001","terminalId":"TERM-0001","amount":0,
+             "currency":"BRL","method":"CREDIT","entryMode":"CHIP","cardHash":""}
+            """.getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper objectMapper;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PaymentRequest>> validBody() throws IOException {
+        return validator.validate(objectMapper.readValue(VALID, PaymentRequest.class));
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<PaymentRequest>> invalidBody() throws IOException {
+        return validator.validate(objectMapper.readValue(INVALID, PaymentRequest.class));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.benchmarks;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.persister.config.JacksonConfig;
+import com.example.persister.consumer.PaymentEntityMapper;
+import com.example.persister.entity.PaymentEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem da linha de payment_entity no persister: só os campos ({@code buildEntity}) e com o
+ * payload JSON ({@code buildEntity + serialize}), que é o custo por registro antes do INSERT/COPY.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar PersisterMappingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PersisterMappingBenchmark {
+
+    private PaymentEntityMapper mapper;
+    private PaymentEvent event;
+
+    @Setup
+    public void setup() {
+        mapper = new PaymentEntityMapper(new JacksonConfig().objectMapper());
+        event = new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-0001", "CUST-0001", "TERM-0001",
+                12_345L, "BRL", "CREDIT", "CHIP", UUID.randomUUID().toString(), Status.AUTHORIZED);
+    }
+
+    @Benchmark
+    public PaymentEntity buildEntity() {
+        return mapper.buildEntity(event);
+    }
+
+    @Benchmark
+    public PaymentEntity buildEntityAndSerialize() {
+        return mapper.toEntity(event);
+    }
+}
@@ -1,4 +1,4 @@
-package com.example.payment.dto;
+package com.example.common.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 
@@ -2,6 +2,7 @@ package com.example.common.dto;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 public record PaymentRequest(
         @NotBlank String merchantId,
@@ -11,5 +12,7 @@ public record PaymentRequest(
         @NotBlank String currency,
         @NotBlank String method,
         String entryMode,
-        @NotBlank String cardHash
+        @NotBlank String cardHash,
+        // opcional: chave de idempotência do cliente quando não vier o header Idempotency-Key
+        @Size(max = 128) String clientTxId
 ) {}
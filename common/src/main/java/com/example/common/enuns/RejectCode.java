@@ -5,5 +5,7 @@ public enum RejectCode {
     INSUFFICIENT_FUNDS,
     BLACKLISTED,
     UPSTREAM_UNAVAILABLE,
-    INVALID_REQUEST
+    INVALID_REQUEST,
+    // novos códigos sempre no fim: o ordinal vai em formatos binários (read model do payment)
+    VELOCITY_EXCEEDED
 }
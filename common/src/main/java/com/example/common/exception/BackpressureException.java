@@ -0,0 +1,16 @@
+package com.example.common.exception;
+
+/** Janela de envios em voo cheia: o cliente deve tentar de novo após {@code retryAfterSeconds}. */
+public class BackpressureException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public BackpressureException(long retryAfterSeconds) {
+        super("Muitos pagamentos aguardando confirmação do broker");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
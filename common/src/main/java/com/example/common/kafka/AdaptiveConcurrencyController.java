@@ -0,0 +1,109 @@
+package com.example.common.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * Amostra o lag a cada intervalo e aplica o {@link ConcurrencyPolicy} ao container do listener:
+ * a concorrência de um {@link ConcurrentMessageListenerContainer} só vale num start, então a troca
+ * é stop (espera o lote em andamento e comita) + setConcurrency + start, o que dispara um
+ * rebalance. Pedidos de partição vão para o {@link PartitionScaler}, se houver.
+ *
+ * <p>Com {@code adjust=false} só amostra: as métricas do {@link ConsumerLagMonitor} continuam saindo.
+ */
+public class AdaptiveConcurrencyController {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyController.class);
+
+    /** Aumenta as partições de um tópico (diminuir não é possível). */
+    @FunctionalInterface
+    public interface PartitionScaler {
+        void increaseTo(int partitions) throws Exception;
+    }
+
+    private final ConsumerLagMonitor monitor;
+    private final ConcurrencyPolicy policy;
+    private final KafkaListenerEndpointRegistry registry;
+    private final List<String> listenerIds;
+    private final boolean adjust;
+    private final PartitionScaler partitionScaler;
+    private volatile int concurrency;
+
+    /**
+     * @param listenerIds candidatos; vale o primeiro que estiver rodando (o modo do serviço escolhe)
+     * @param partitionScaler {@code null} = nunca mexe em partições
+     */
+    public AdaptiveConcurrencyController(ConsumerLagMonitor monitor, ConcurrencyPolicy policy,
+                                         KafkaListenerEndpointRegistry registry, List<String> listenerIds,
+                                         boolean adjust, PartitionScaler partitionScaler, MeterRegistry meters) {
+        this.monitor = monitor;
+        this.policy = policy;
+        this.registry = registry;
+        this.listenerIds = List.copyOf(listenerIds);
+        this.adjust = adjust;
+        this.partitionScaler = partitionScaler;
+        Gauge.builder("kafka.consumer.concurrency", this, c -> c.concurrency)
+                .tag("group", monitor.groupId()).register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${app.kafka.autoscale.interval:PT15S}",
+            initialDelayString = "${app.kafka.autoscale.interval:PT15S}")
+    public void tick() {
+        LagSnapshot snapshot;
+        try {
+            snapshot = monitor.sample();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.warn("Falha ao amostrar o lag de {}: {}", monitor.groupId(), e.getMessage());
+            return;
+        }
+        ConcurrentMessageListenerContainer<?, ?> container = runningContainer();
+        if (container == null) {
+            return;
+        }
+        int current = container.getConcurrency();
+        concurrency = current;
+        if (!adjust) {
+            return;
+        }
+        ConcurrencyPolicy.Decision decision = policy.decide(current, snapshot);
+        if (decision.partitions() > snapshot.partitions() && partitionScaler != null) {
+            log.info("Lag de {} = {} com {} consumidores em {} partições: aumentando para {} partições",
+                    monitor.groupId(), snapshot.totalLag(), current, snapshot.partitions(), decision.partitions());
+            try {
+                partitionScaler.increaseTo(decision.partitions());
+            } catch (Exception e) {
+                log.warn("Falha ao aumentar partições de {}: {}", monitor.groupId(), e.getMessage());
+            }
+        }
+        if (decision.concurrency() != current) {
+            log.info("Lag de {} = {} (consumo {}/s, produção {}/s): concorrência {} -> {}",
+                    monitor.groupId(), snapshot.totalLag(), Math.round(snapshot.consumeRate()),
+                    Math.round(snapshot.produceRate()), current, decision.concurrency());
+            container.stop();
+            container.setConcurrency(decision.concurrency());
+            container.start();
+            concurrency = decision.concurrency();
+        }
+    }
+
+    private ConcurrentMessageListenerContainer<?, ?> runningContainer() {
+        for (String id : listenerIds) {
+            MessageListenerContainer container = registry.getListenerContainer(id);
+            if (container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent && concurrent.isRunning()) {
+                return concurrent;
+            }
+        }
+        return null;
+    }
+}
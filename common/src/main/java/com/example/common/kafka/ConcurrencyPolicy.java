@@ -0,0 +1,76 @@
+package com.example.common.kafka;
+
+import java.time.Duration;
+
+/**
+ * Decide a concorrência do listener a partir das amostras de lag. Sobe um consumidor quando o lag
+ * passa de {@code scaleUpLag} e não está caindo (produção acima do consumo ou dreno acima de
+ * {@code maxDrain}) por {@code samples} amostras seguidas; desce um quando o lag fica até
+ * {@code scaleDownLag} pelo dobro disso. O teto é o número de partições: consumidor a mais fica
+ * ocioso. No teto e ainda atrasado, pede mais partições (até {@code maxPartitions}; 0 desliga).
+ *
+ * <p>Não é thread-safe: guarda as sequências de amostras e é chamada só pelo agendador.
+ */
+public class ConcurrencyPolicy {
+
+    private final int min;
+    private final int max;
+    private final long scaleUpLag;
+    private final long scaleDownLag;
+    private final double maxDrainSeconds;
+    private final int samples;
+    private final int maxPartitions;
+    private int behindStreak;
+    private int idleStreak;
+
+    public ConcurrencyPolicy(int min, int max, long scaleUpLag, long scaleDownLag, Duration maxDrain,
+                             int samples, int maxPartitions) {
+        if (min < 1 || max < min || samples < 1) {
+            throw new IllegalArgumentException("min/max/samples inválidos: " + min + "/" + max + "/" + samples);
+        }
+        this.min = min;
+        this.max = max;
+        this.scaleUpLag = scaleUpLag;
+        this.scaleDownLag = scaleDownLag;
+        this.maxDrainSeconds = maxDrain.toMillis() / 1000.0;
+        this.samples = samples;
+        this.maxPartitions = maxPartitions;
+    }
+
+    /** Concorrência e número de partições desejados; iguais aos atuais = nada a fazer. */
+    public record Decision(int concurrency, int partitions) {
+    }
+
+    public Decision decide(int current, LagSnapshot s) {
+        int partitions = s.partitions();
+        int ceiling = Math.max(min, Math.min(max, partitions));
+        boolean behind = s.totalLag() > scaleUpLag
+                && (s.produceRate() >= s.consumeRate() || s.drainSeconds() > maxDrainSeconds);
+        boolean idle = s.totalLag() <= scaleDownLag;
+        behindStreak = behind ? behindStreak + 1 : 0;
+        idleStreak = idle ? idleStreak + 1 : 0;
+
+        if (current > ceiling) {
+            return reset(ceiling, partitions);
+        }
+        if (behindStreak >= samples) {
+            if (current < ceiling) {
+                return reset(current + 1, partitions);
+            }
+            if (current >= partitions && maxPartitions > partitions) {
+                return reset(current, Math.min(maxPartitions, partitions * 2));
+            }
+        }
+        if (idleStreak >= 2 * samples && current > min) {
+            return reset(current - 1, partitions);
+        }
+        return new Decision(current, partitions);
+    }
+
+    /** Depois de uma mudança, as próximas amostras recomeçam do zero (o rebalance distorce o lag). */
+    private Decision reset(int concurrency, int partitions) {
+        behindStreak = 0;
+        idleStreak = 0;
+        return new Decision(concurrency, partitions);
+    }
+}
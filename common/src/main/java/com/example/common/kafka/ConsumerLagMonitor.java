@@ -0,0 +1,130 @@
+package com.example.common.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Lag por partição de um consumer group via AdminClient (offsets comitados contra o fim do log),
+ * o mesmo que {@code kafka-consumer-groups --describe}, sem depender do consumidor. Cada
+ * {@link #sample()} atualiza as métricas que um autoscaler externo pode usar:
+ *
+ * <pre>
+ * kafka.consumer.partition.lag{group,topic,partition}   registros
+ * kafka.consumer.lag{group}                             registros, soma das partições
+ * kafka.consumer.consume.rate / produce.rate{group}     registros/s entre amostras
+ * kafka.consumer.lag.drain{group}                       segundos para zerar no ritmo atual
+ * </pre>
+ *
+ * Partição sem offset comitado conta desde o início do log (auto-offset-reset=earliest).
+ */
+public class ConsumerLagMonitor {
+
+    private final AdminClient admin;
+    private final String groupId;
+    private final Collection<String> topics;
+    private final long timeoutMillis;
+    private final MultiGauge partitionLag;
+    private volatile LagSnapshot last;
+    private long lastCommitted = -1;
+    private long lastEnd = -1;
+
+    public ConsumerLagMonitor(AdminClient admin, String groupId, Collection<String> topics,
+                              Duration timeout, MeterRegistry registry) {
+        this.admin = admin;
+        this.groupId = groupId;
+        this.topics = List.copyOf(topics);
+        this.timeoutMillis = timeout.toMillis();
+        this.last = new LagSnapshot(0, Map.of(), 0, 0, 0);
+        Tags group = Tags.of("group", groupId);
+        this.partitionLag = MultiGauge.builder("kafka.consumer.partition.lag").tags(group).register(registry);
+        Gauge.builder("kafka.consumer.lag", this, m -> m.last.totalLag()).tags(group).register(registry);
+        Gauge.builder("kafka.consumer.consume.rate", this, m -> m.last.consumeRate()).tags(group).register(registry);
+        Gauge.builder("kafka.consumer.produce.rate", this, m -> m.last.produceRate()).tags(group).register(registry);
+        Gauge.builder("kafka.consumer.lag.drain", this, m -> m.last.drainSeconds()).tags(group)
+                .baseUnit("seconds").register(registry);
+    }
+
+    /** Consulta o broker e atualiza as métricas; só a thread do agendador chama. */
+    public LagSnapshot sample() throws InterruptedException, ExecutionException, TimeoutException {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        Map<String, TopicDescription> described = admin.describeTopics(topics)
+                .allTopicNames().get(timeoutMillis, TimeUnit.MILLISECONDS);
+
+        List<TopicPartition> partitions = new ArrayList<>();
+        described.values().forEach(d -> d.partitions()
+                .forEach(p -> partitions.add(new TopicPartition(d.name(), p.partition()))));
+        Map<TopicPartition, Long> end = offsets(partitions, OffsetSpec.latest());
+        List<TopicPartition> uncommitted = partitions.stream()
+                .filter(tp -> committed.get(tp) == null).toList();
+        Map<TopicPartition, Long> start = uncommitted.isEmpty() ? Map.of() : offsets(uncommitted, OffsetSpec.earliest());
+
+        long now = System.currentTimeMillis();
+        Map<TopicPartition, Long> lag = new HashMap<>();
+        long totalLag = 0;
+        long committedSum = 0;
+        long endSum = 0;
+        for (TopicPartition tp : partitions) {
+            OffsetAndMetadata c = committed.get(tp);
+            long position = c != null ? c.offset() : start.getOrDefault(tp, 0L);
+            long e = end.getOrDefault(tp, position);
+            long partitionLag = Math.max(0, e - position);
+            lag.put(tp, partitionLag);
+            totalLag += partitionLag;
+            committedSum += position;
+            endSum += e;
+        }
+
+        LagSnapshot previous = last;
+        double seconds = (now - previous.timestampMillis()) / 1000.0;
+        boolean hasRate = lastCommitted >= 0 && seconds > 0;
+        LagSnapshot snapshot = new LagSnapshot(now, Map.copyOf(lag), totalLag,
+                hasRate ? Math.max(0, committedSum - lastCommitted) / seconds : 0,
+                hasRate ? Math.max(0, endSum - lastEnd) / seconds : 0);
+        lastCommitted = committedSum;
+        lastEnd = endSum;
+        last = snapshot;
+        partitionLag.register(lag.entrySet().stream()
+                .map(e -> MultiGauge.Row.of(Tags.of("topic", e.getKey().topic(),
+                        "partition", Integer.toString(e.getKey().partition())), e.getValue()))
+                .toList(), true);
+        return snapshot;
+    }
+
+    public LagSnapshot last() {
+        return last;
+    }
+
+    public String groupId() {
+        return groupId;
+    }
+
+    private Map<TopicPartition, Long> offsets(List<TopicPartition> partitions, OffsetSpec spec)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        partitions.forEach(tp -> request.put(tp, spec));
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> result = admin.listOffsets(request)
+                .all().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        result.forEach((tp, info) -> offsets.put(tp, info.offset()));
+        return offsets;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.common.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+
+/**
+ * Lag de um consumer group numa amostra: por partição (fim do log - offset comitado) e totais.
+ * As taxas são registros/s entre esta amostra e a anterior (0 na primeira).
+ */
+public record LagSnapshot(
+        long timestampMillis,
+        Map<TopicPartition, Long> lagByPartition,
+        long totalLag,
+        double consumeRate,
+        double produceRate
+) {
+
+    public int partitions() {
+        return lagByPartition.size();
+    }
+
+    /** Segundos para zerar o lag no ritmo de consumo atual; infinito se parado com lag. */
+    public double drainSeconds() {
+        if (totalLag == 0) {
+            return 0;
+        }
+        return consumeRate > 0 ? totalLag / consumeRate : Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.common.pipeline;
+
+/**
+ * Lançada por um {@link EventTransport.BatchListener} que processou parte do lote, no papel do
+ * BatchListenerFailedException do spring-kafka: os eventos antes de {@link #index()} estão
+ * concluídos e a reentrega recomeça no evento que falhou, sem repetir os anteriores.
+ */
+public class BatchFailedException extends RuntimeException {
+
+    private final int index;
+
+    public BatchFailedException(int index, Throwable cause) {
+        super("falha no evento " + index + " do lote", cause);
+        this.index = index;
+    }
+
+    /** Posição, na lista recebida pelo listener, do primeiro evento não concluído. */
+    public int index() {
+        return index;
+    }
+}
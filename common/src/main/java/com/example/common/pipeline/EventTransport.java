@@ -0,0 +1,42 @@
+package com.example.common.pipeline;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Ligação entre dois estágios do pipeline, no papel do par KafkaTemplate / {@code @KafkaListener}
+ * batch: a chave escolhe a partição, cada partição é consumida em ordem por uma thread e o
+ * listener recebe lotes de até {@code maxBatch} eventos.
+ */
+public interface EventTransport<E> extends AutoCloseable {
+
+    /**
+     * Publica o evento. Como o {@code max.block.ms} do producer, espera por espaço até o limite do
+     * transporte e então completa com {@link java.util.concurrent.TimeoutException}.
+     */
+    CompletableFuture<Void> send(String key, E event);
+
+    /**
+     * Publica esperando o tempo que for preciso. Um estágio que repassa eventos usa este: com o
+     * próximo cheio, ele para de consumir, como uma partição pausada.
+     */
+    void put(String key, E event) throws InterruptedException;
+
+    /** Começa a consumir todas as partições; uma assinatura por transporte. */
+    void subscribe(BatchListener<E> listener);
+
+    int partitions();
+
+    /** Eventos à espera de consumo, somando as partições. */
+    long depth();
+
+    /** Para de aceitar envios, entrega o que já está nas partições e encerra os consumidores. */
+    @Override
+    void close();
+
+    /** A lista é reutilizada depois do retorno; copie o que precisar guardar. */
+    @FunctionalInterface
+    interface BatchListener<E> {
+        void onBatch(int partition, List<E> batch) throws Exception;
+    }
+}
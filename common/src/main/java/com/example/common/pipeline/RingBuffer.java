@@ -0,0 +1,87 @@
+package com.example.common.pipeline;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * Fila circular limitada e sem locks para vários produtores e um consumidor. Cada slot guarda a
+ * sequência esperada: o produtor reserva a posição com um CAS no cursor de escrita e publica o
+ * evento gravando {@code posição + 1} na sequência do slot. O consumidor só avança quando vê essa
+ * sequência e devolve o slot com {@code posição + capacidade}. Não há alocação por evento.
+ *
+ * <p>Cheia, {@link #offer} devolve {@code false}. Esperar ou desistir fica com quem chama (ver
+ * {@link RingTransport}).
+ */
+public class RingBuffer<E> {
+
+    // cursores em posições distantes 128 bytes: escrita e leitura não dividem linha de cache
+    private static final int TAIL = 7;
+    private static final int HEAD = 23;
+
+    private final Object[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray cursors = new AtomicLongArray(32);
+    private final int mask;
+
+    public RingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1 || capacity < 2) {
+            throw new IllegalArgumentException("capacity deve ser potência de 2 >= 2: " + capacity);
+        }
+        this.slots = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /** Publica se houver slot livre; seguro entre vários produtores. */
+    public boolean offer(E event) {
+        while (true) {
+            long position = cursors.get(TAIL);
+            int index = (int) position & mask;
+            long diff = sequences.getAcquire(index) - position;
+            if (diff == 0) {
+                if (cursors.compareAndSet(TAIL, position, position + 1)) {
+                    slots[index] = event;
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false; // o consumidor ainda não liberou este slot: cheia
+            }
+            // outro produtor levou a posição; tenta a próxima
+        }
+    }
+
+    /** Entrega até {@code max} eventos na ordem de publicação. Só uma thread pode consumir. */
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> consumer, int max) {
+        long position = cursors.getPlain(HEAD);
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) position & mask;
+            if (sequences.getAcquire(index) != position + 1) {
+                break; // vazia, ou o produtor reservou e ainda não gravou
+            }
+            E event = (E) slots[index];
+            slots[index] = null;
+            sequences.setRelease(index, position + slots.length);
+            position++;
+            drained++;
+            consumer.accept(event);
+        }
+        cursors.setRelease(HEAD, position);
+        return drained;
+    }
+
+    /** Eventos publicados e ainda não consumidos (aproximado com produtores ativos). */
+    public int size() {
+        long size = cursors.get(TAIL) - cursors.getAcquire(HEAD);
+        return (int) Math.max(0, Math.min(size, slots.length));
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.common.pipeline;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * {@link EventTransport} em memória: um {@link RingBuffer} por partição e uma thread consumidora
+ * por partição. Sem broker não há durabilidade: o que está nos buffers se perde se o processo cair.
+ *
+ * <p>A thread ociosa gira um pouco ({@link Thread#onSpinWait()}) e depois dorme em intervalos de
+ * {@value #PARK_NANOS} ns. Um lote cujo listener lança exceção é reentregue com backoff, segurando a
+ * partição como o DefaultErrorHandler. Com {@link BatchFailedException} a reentrega recomeça no evento
+ * que falhou e, depois de {@value #MAX_ATTEMPTS} tentativas nele, só esse evento é descartado. Com
+ * outra exceção o lote inteiro é reentregue e, esgotadas as tentativas, descartado. Descartes contam
+ * em {@link #failed()}.
+ */
+public class RingTransport<E> implements EventTransport<E> {
+
+    private static final Logger log = LoggerFactory.getLogger(RingTransport.class);
+
+    private static final int SPINS = 100;
+    private static final long PARK_NANOS = 50_000;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private final String name;
+    private final RingBuffer<E>[] rings;
+    private final int maxBatch;
+    private final long maxBlockNanos;
+    private final List<Thread> consumers = new ArrayList<>();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * @param capacity slots por partição (potência de 2)
+     * @param maxBlock quanto um {@link #send} espera por espaço antes de falhar
+     */
+    @SuppressWarnings("unchecked")
+    public RingTransport(String name, int partitions, int capacity, int maxBatch, Duration maxBlock) {
+        if (partitions < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException("partitions e maxBatch devem ser >= 1");
+        }
+        this.name = name;
+        this.rings = new RingBuffer[partitions];
+        for (int p = 0; p < partitions; p++) {
+            rings[p] = new RingBuffer<>(capacity);
+        }
+        this.maxBatch = maxBatch;
+        this.maxBlockNanos = maxBlock.toNanos();
+    }
+
+    @Override
+    public CompletableFuture<Void> send(String key, E event) {
+        int partition = partition(key);
+        RingBuffer<E> ring = rings[partition];
+        long deadline = 0;
+        for (int round = 0; !ring.offer(event); round++) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException(name + " fechado"));
+            }
+            if (round == SPINS) {
+                deadline = System.nanoTime() + maxBlockNanos;
+            } else if (round > SPINS && System.nanoTime() - deadline > 0) {
+                timeouts.increment();
+                return CompletableFuture.failedFuture(new TimeoutException(
+                        name + "-" + partition + " cheio por " + TimeUnit.NANOSECONDS.toMillis(maxBlockNanos) + " ms"));
+            }
+            idle(round);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void put(String key, E event) throws InterruptedException {
+        RingBuffer<E> ring = rings[partition(key)];
+        for (int round = 0; !ring.offer(event); round++) {
+            if (closed) {
+                throw new IllegalStateException(name + " fechado");
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            idle(round);
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(BatchListener<E> listener) {
+        if (!consumers.isEmpty()) {
+            throw new IllegalStateException(name + " já tem listener");
+        }
+        for (int p = 0; p < rings.length; p++) {
+            int partition = p;
+            consumers.add(Thread.ofPlatform().name(name + "-" + p).daemon()
+                    .start(() -> consume(partition, listener)));
+        }
+    }
+
+    @Override
+    public int partitions() {
+        return rings.length;
+    }
+
+    @Override
+    public long depth() {
+        long depth = 0;
+        for (RingBuffer<E> ring : rings) {
+            depth += ring.size();
+        }
+        return depth;
+    }
+
+    /** Envios que desistiram por falta de espaço (backpressure). */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    /** Eventos de lotes descartados depois de esgotar as tentativas. */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /** Chamar depois de parar os produtores: um envio concorrente ao close pode ficar sem consumidor. */
+    @Override
+    public void close() {
+        closed = true;
+        List<Thread> threads;
+        synchronized (this) {
+            threads = List.copyOf(consumers);
+        }
+        for (Thread consumer : threads) {
+            try {
+                consumer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void consume(int partition, BatchListener<E> listener) {
+        RingBuffer<E> ring = rings[partition];
+        List<E> batch = new ArrayList<>(maxBatch);
+        Consumer<E> collect = batch::add;
+        int round = 0;
+        while (true) {
+            if (ring.drain(collect, maxBatch) == 0) {
+                if (closed && ring.size() == 0) {
+                    return;
+                }
+                idle(round++);
+                continue;
+            }
+            round = 0;
+            if (!deliver(partition, batch, listener)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /** {@code false} só quando a thread foi interrompida. */
+    private boolean deliver(int partition, List<E> batch, BatchListener<E> listener) {
+        int from = 0;
+        for (int attempt = 1; from < batch.size(); attempt++) {
+            List<E> pending = from == 0 ? batch : batch.subList(from, batch.size());
+            try {
+                listener.onBatch(partition, pending);
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } catch (BatchFailedException e) {
+                if (e.index() > 0) {
+                    from += Math.min(e.index(), pending.size() - 1);
+                    attempt = 1;
+                }
+                if (attempt == MAX_ATTEMPTS) {
+                    failed.increment();
+                    log.error("{}-{}: evento descartado após {} tentativas", name, partition, attempt, e.getCause());
+                    from++;
+                    attempt = 0;
+                    continue;
+                }
+                log.warn("{}-{}: falha no evento {} do lote (tentativa {}): {}",
+                        name, partition, from, attempt, String.valueOf(e.getCause()));
+            } catch (Exception e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    failed.add(pending.size());
+                    log.error("{}-{}: lote de {} eventos descartado após {} tentativas",
+                            name, partition, pending.size(), attempt, e);
+                    return true;
+                }
+                log.warn("{}-{}: falha no lote de {} eventos (tentativa {}): {}",
+                        name, partition, pending.size(), attempt, e.toString());
+            }
+            try {
+                Thread.sleep(RETRY_BACKOFF_MILLIS * attempt);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int partition(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % rings.length;
+    }
+
+    private static void idle(int round) {
+        if (round < SPINS) {
+            Thread.onSpinWait();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.common.serde;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Layout binário versionado do {@link PaymentEvent}.
+ *
+ * <pre>
+ * v1: version:u8 | txId:2xi64 | createdAt:i64 (epoch micros) | merchantId:str | customerId:str
+ *     | terminalId:str | amount:i64 | currency:dict | method:dict | entryMode:dict | cardHash:str
+ *     | status:i8 (ordinal, -1 = null)
+ * str  = i16 tamanho em bytes UTF-8 (-1 = null) + bytes
+ * dict = u8 código (0 = null, 1..n = dicionário, 0xFF = str literal a seguir)
+ * </pre>
+ *
+ * Os dicionários fazem parte do schema: só é permitido acrescentar valores no fim.
+ */
+public final class PaymentEventCodec {
+
+    public static final byte VERSION_1 = 1;
+
+    private static final long NULL_INSTANT = Long.MIN_VALUE;
+    private static final int DICT_NULL = 0;
+    private static final int DICT_LITERAL = 0xFF;
+    private static final int INITIAL_BUFFER_BYTES = 512;
+
+    private static final String[] CURRENCIES = {"BRL", "USD", "EUR", "GBP", "ARS", "CLP", "MXN", "COP", "PEN", "UYU"};
+    private static final String[] METHODS = {"CREDIT", "DEBIT", "PIX", "PREPAID", "VOUCHER", "BOLETO"};
+    private static final String[] ENTRY_MODES = {"CHIP", "CONTACTLESS", "MAGSTRIPE", "ECOMMERCE", "MANUAL", "QRCODE", "FALLBACK"};
+    private static final Status[] STATUSES = Status.values();
+
+    // buffer de rascunho por thread: o único byte[] alocado por evento é o retorno
+    private static final ThreadLocal<ByteBuffer> SCRATCH =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(INITIAL_BUFFER_BYTES));
+
+    private PaymentEventCodec() {
+    }
+
+    public static byte[] encode(PaymentEvent event) {
+        ByteBuffer buf = SCRATCH.get();
+        while (true) {
+            buf.clear();
+            try {
+                write(buf, event);
+                return Arrays.copyOf(buf.array(), buf.position());
+            } catch (BufferOverflowException ex) {
+                buf = ByteBuffer.allocate(buf.capacity() * 2);
+                SCRATCH.set(buf);
+            }
+        }
+    }
+
+    public static PaymentEvent decode(byte[] data) {
+        ByteBuffer buf = ByteBuffer.wrap(data);
+        byte version = buf.get();
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("Versão de PaymentEvent binário não suportada: " + version);
+        }
+        UUID txId = new UUID(buf.getLong(), buf.getLong());
+        long createdMicros = buf.getLong();
+        Instant createdAt = createdMicros == NULL_INSTANT ? null
+                : Instant.ofEpochSecond(Math.floorDiv(createdMicros, 1_000_000L),
+                Math.floorMod(createdMicros, 1_000_000L) * 1_000L);
+        String merchantId = readString(buf);
+        String customerId = readString(buf);
+        String terminalId = readString(buf);
+        long amount = buf.getLong();
+        String currency = readDict(buf, CURRENCIES);
+        String method = readDict(buf, METHODS);
+        String entryMode = readDict(buf, ENTRY_MODES);
+        String cardHash = readString(buf);
+        byte status = buf.get();
+        return new PaymentEvent(txId, createdAt, merchantId, customerId, terminalId, amount,
+                currency, method, entryMode, cardHash, status < 0 ? null : STATUSES[status]);
+    }
+
+    private static void write(ByteBuffer buf, PaymentEvent e) {
+        buf.put(VERSION_1);
+        buf.putLong(e.txId().getMostSignificantBits());
+        buf.putLong(e.txId().getLeastSignificantBits());
+        Instant createdAt = e.createdAt();
+        buf.putLong(createdAt == null ? NULL_INSTANT
+                : Math.addExact(Math.multiplyExact(createdAt.getEpochSecond(), 1_000_000L), createdAt.getNano() / 1_000));
+        writeString(buf, e.merchantId());
+        writeString(buf, e.customerId());
+        writeString(buf, e.terminalId());
+        buf.putLong(e.amount());
+        writeDict(buf, e.currency(), CURRENCIES);
+        writeDict(buf, e.method(), METHODS);
+        writeDict(buf, e.entryMode(), ENTRY_MODES);
+        writeString(buf, e.cardHash());
+        buf.put(e.status() == null ? (byte) -1 : (byte) e.status().ordinal());
+    }
+
+    private static void writeDict(ByteBuffer buf, String value, String[] dict) {
+        if (value == null) {
+            buf.put((byte) DICT_NULL);
+            return;
+        }
+        for (int i = 0; i < dict.length; i++) {
+            if (dict[i].equals(value)) {
+                buf.put((byte) (i + 1));
+                return;
+            }
+        }
+        buf.put((byte) DICT_LITERAL);
+        writeString(buf, value);
+    }
+
+    private static String readDict(ByteBuffer buf, String[] dict) {
+        int code = buf.get() & 0xFF;
+        if (code == DICT_NULL) {
+            return null;
+        }
+        if (code == DICT_LITERAL) {
+            return readString(buf);
+        }
+        return dict[code - 1]; // constante internada: sem alocação na leitura
+    }
+
+    /** Codifica UTF-8 direto no buffer, sem byte[] intermediário. */
+    private static void writeString(ByteBuffer buf, String s) {
+        if (s == null) {
+            buf.putShort((short) -1);
+            return;
+        }
+        int lengthPos = buf.position();
+        buf.putShort((short) 0);
+        int start = buf.position();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf.put((byte) c);
+            } else if (c < 0x800) {
+                buf.put((byte) (0xC0 | (c >> 6)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf.put((byte) (0xF0 | (cp >> 18)));
+                buf.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (cp & 0x3F)));
+            } else {
+                buf.put((byte) (0xE0 | (c >> 12)));
+                buf.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                buf.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        int length = buf.position() - start;
+        if (length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Campo texto excede " + Short.MAX_VALUE + " bytes");
+        }
+        buf.putShort(lengthPos, (short) length);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        short length = buf.getShort();
+        if (length < 0) {
+            return null;
+        }
+        String s = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+        buf.position(buf.position() + length);
+        return s;
+    }
+}
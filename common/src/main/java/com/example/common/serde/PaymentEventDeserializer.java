@@ -0,0 +1,43 @@
+package com.example.common.serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.Map;
+
+/**
+ * Detecta o formato pelo header {@link WireFormat#HEADER}: binário vai para o
+ * {@link PaymentEventCodec}, o resto para o JsonDeserializer configurado com as mesmas
+ * propriedades (spring.json.*). Permite migrar produtores para binário um a um.
+ */
+public class PaymentEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (WireFormat.detect(headers) == WireFormat.BINARY) {
+            return PaymentEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.common.serde;
+
+import com.example.common.event.PaymentEvent;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Serializer plugável: com payment.wire.format=binary grava {@link PaymentEvent} no layout do
+ * {@link PaymentEventCodec}; qualquer outro tipo (ou o formato json) segue pelo JsonSerializer,
+ * que recebe as mesmas configs (spring.json.*).
+ */
+public class PaymentEventSerializer implements Serializer<Object> {
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+    private WireFormat format = WireFormat.JSON;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        format = WireFormat.fromConfig(configs.get(WireFormat.CONFIG));
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (format == WireFormat.BINARY && data instanceof PaymentEvent event) {
+            WireFormat.stamp(headers, WireFormat.BINARY);
+            return PaymentEventCodec.encode(event);
+        }
+        WireFormat.stamp(headers, WireFormat.JSON);
+        return json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
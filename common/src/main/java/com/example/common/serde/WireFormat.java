@@ -0,0 +1,40 @@
+package com.example.common.serde;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** Formatos de payload na fronteira Kafka, identificados pelo header {@link #HEADER}. */
+public enum WireFormat {
+    JSON,
+    BINARY;
+
+    /** Header gravado pelo {@link PaymentEventSerializer}; ausente = JSON (produtores antigos). */
+    public static final String HEADER = "x-wire-format";
+
+    /** Propriedade Kafka (producer) que escolhe o formato: json | binary. */
+    public static final String CONFIG = "payment.wire.format";
+
+    private static final byte[] BINARY_V1 = "payment-event-bin/1".getBytes(StandardCharsets.US_ASCII);
+
+    static void stamp(Headers headers, WireFormat format) {
+        headers.remove(HEADER);
+        if (format == BINARY) {
+            headers.add(HEADER, BINARY_V1);
+        }
+    }
+
+    static WireFormat detect(Headers headers) {
+        if (headers == null) {
+            return JSON;
+        }
+        Header header = headers.lastHeader(HEADER);
+        return header != null && Arrays.equals(header.value(), BINARY_V1) ? BINARY : JSON;
+    }
+
+    static WireFormat fromConfig(Object value) {
+        return value == null ? JSON : WireFormat.valueOf(value.toString().trim().toUpperCase());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.common.trace;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timer {@value #NAME} de um estágio do pipeline, medido contra o carimbo anterior de
+ * {@link TraceHeaders}. Todos os serviços registram pelo mesmo builder para os percentis e a
+ * tag {@code stage} baterem entre eles.
+ */
+public final class StageTimers {
+
+    public static final String NAME = "trace.stage";
+
+    private StageTimers() {
+    }
+
+    public static Timer of(MeterRegistry registry, String stage) {
+        return Timer.builder(NAME)
+                .description("Latência por estágio do pipeline (vs. carimbo anterior)")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+}
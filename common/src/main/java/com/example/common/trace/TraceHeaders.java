@@ -0,0 +1,79 @@
+package com.example.common.trace;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Headers de rastreio propagados pelo pipeline: um trace id por pagamento e o instante (epoch
+ * micros, 8 bytes big-endian) em que cada estágio passou pelo registro. Cada serviço mede a
+ * latência do seu estágio contra o carimbo anterior, sem consultar o banco.
+ */
+public final class TraceHeaders {
+
+    public static final String TRACE_ID = "x-trace-id";
+    public static final String API_ACCEPT = "x-ts-api-accept";
+    public static final String GATEWAY_CONSUME = "x-ts-gateway-consume";
+    /** Decisão do gateway, carimbada no registro de saída logo antes do send. */
+    public static final String GATEWAY_DECIDE = "x-ts-gateway-decide";
+
+    private static final String STAGE_PREFIX = "x-ts-";
+
+    private TraceHeaders() {
+    }
+
+    public static long nowMicros() {
+        return toMicros(Instant.now());
+    }
+
+    public static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    public static void stamp(Headers headers, String stage, long epochMicros) {
+        headers.remove(stage);
+        headers.add(stage, ByteBuffer.allocate(Long.BYTES).putLong(epochMicros).array());
+    }
+
+    /** Instante do estágio em epoch micros, ou -1 se o registro não passou por ele. */
+    public static long read(Headers headers, String stage) {
+        Header header = headers.lastHeader(stage);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1L;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    public static void traceId(Headers headers, UUID traceId) {
+        headers.remove(TRACE_ID);
+        headers.add(TRACE_ID, traceId.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Trace id do registro, ou null se ele veio de um produtor que não rastreia. */
+    public static UUID traceId(Headers headers) {
+        Header header = headers.lastHeader(TRACE_ID);
+        if (header == null || header.value() == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(new String(header.value(), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /** Repassa o trace id e os carimbos de estágio do registro de entrada para o de saída. */
+    public static void propagate(Headers from, Headers to) {
+        for (Header header : from) {
+            String key = header.key();
+            if (key.equals(TRACE_ID) || key.startsWith(STAGE_PREFIX)) {
+                to.remove(key);
+                to.add(header);
+            }
+        }
+    }
+}
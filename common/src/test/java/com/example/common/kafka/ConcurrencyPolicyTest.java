@@ -0,0 +1,73 @@
+package com.example.common.kafka;
+
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyPolicyTest {
+
+    private final ConcurrencyPolicy policy = new ConcurrencyPolicy(1, 8, 1_000, 10, Duration.ofSeconds(30), 2, 0);
+
+    @Test
+    void scalesUpAfterConsecutiveBehindSamplesUpToThePartitions() {
+        LagSnapshot behind = snapshot(6, 50_000, 1_000, 1_500);
+
+        assertThat(policy.decide(3, behind).concurrency()).isEqualTo(3);
+        assertThat(policy.decide(3, behind).concurrency()).isEqualTo(4);
+        // a sequência recomeça depois de uma mudança
+        assertThat(policy.decide(4, behind).concurrency()).isEqualTo(4);
+        assertThat(policy.decide(4, behind).concurrency()).isEqualTo(5);
+        policy.decide(5, behind);
+        assertThat(policy.decide(5, behind).concurrency()).isEqualTo(6);
+        policy.decide(6, behind);
+        assertThat(policy.decide(6, behind).concurrency()).isEqualTo(6);
+    }
+
+    @Test
+    void drainingLagDoesNotScaleUp() {
+        // consumo acima da produção e dreno em 10 s: está alcançando sozinho
+        LagSnapshot catchingUp = snapshot(6, 20_000, 2_000, 500);
+
+        policy.decide(2, catchingUp);
+        assertThat(policy.decide(2, catchingUp).concurrency()).isEqualTo(2);
+    }
+
+    @Test
+    void scalesDownAfterTwiceTheSamplesIdle() {
+        LagSnapshot idle = snapshot(6, 0, 100, 100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(policy.decide(4, idle).concurrency()).isEqualTo(4);
+        }
+        assertThat(policy.decide(4, idle).concurrency()).isEqualTo(3);
+    }
+
+    @Test
+    void neverAboveThePartitionCount() {
+        assertThat(policy.decide(8, snapshot(6, 0, 0, 0)).concurrency()).isEqualTo(6);
+    }
+
+    @Test
+    void asksForMorePartitionsAtTheCeilingWhenAllowed() {
+        var scaling = new ConcurrencyPolicy(1, 16, 1_000, 10, Duration.ofSeconds(30), 1, 12);
+        LagSnapshot behind = snapshot(6, 50_000, 1_000, 1_500);
+
+        ConcurrencyPolicy.Decision decision = scaling.decide(6, behind);
+
+        assertThat(decision.concurrency()).isEqualTo(6);
+        assertThat(decision.partitions()).isEqualTo(12);
+    }
+
+    private static LagSnapshot snapshot(int partitions, long lag, double consumeRate, double produceRate) {
+        Map<TopicPartition, Long> byPartition = new HashMap<>();
+        for (int p = 0; p < partitions; p++) {
+            byPartition.put(new TopicPartition("t", p), lag / partitions);
+        }
+        return new LagSnapshot(0, byPartition, lag, consumeRate, produceRate);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.common.pipeline;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RingTransportTest {
+
+    @Test
+    void ringRejectsWhenFullAndReusesSlotsAfterDrain() {
+        var ring = new RingBuffer<Integer>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(ring.offer(i)).isTrue();
+        }
+        assertThat(ring.offer(4)).isFalse();
+        assertThat(ring.size()).isEqualTo(4);
+
+        List<Integer> out = new ArrayList<>();
+        assertThat(ring.drain(out::add, 3)).isEqualTo(3);
+        assertThat(ring.offer(4)).isTrue();
+        assertThat(ring.offer(5)).isTrue();
+        ring.drain(out::add, 10);
+
+        assertThat(out).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(ring.size()).isZero();
+    }
+
+    @Test
+    void deliversEveryEventInKeyOrderWithConcurrentProducers() throws Exception {
+        var transport = new RingTransport<long[]>("test", 3, 64, 16, Duration.ofSeconds(10));
+        var lastSeen = new ConcurrentHashMap<Long, Long>();
+        var received = new AtomicInteger();
+        var outOfOrder = new AtomicInteger();
+        transport.subscribe((partition, batch) -> {
+            for (long[] event : batch) {
+                Long previous = lastSeen.put(event[0], event[1]);
+                if (previous != null && previous >= event[1]) {
+                    outOfOrder.incrementAndGet();
+                }
+                received.incrementAndGet();
+            }
+        });
+
+        int producers = 4;
+        int perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (long id = 0; id < producers; id++) {
+            long producer = id;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long seq = 0; seq < perProducer; seq++) {
+                    transport.send("producer-" + producer, new long[]{producer, seq}).join();
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        transport.close();
+
+        assertThat(received.get()).isEqualTo(producers * perProducer);
+        assertThat(outOfOrder.get()).isZero();
+        assertThat(transport.depth()).isZero();
+    }
+
+    @Test
+    void sendTimesOutWhileThePartitionStaysFull() {
+        var transport = new RingTransport<String>("test", 1, 2, 1, Duration.ofMillis(20));
+        transport.send("k", "a").join();
+        transport.send("k", "b").join();
+
+        assertThat(transport.send("k", "c")).failsWithin(Duration.ofSeconds(1))
+                .withThrowableThat().withCauseInstanceOf(TimeoutException.class);
+        assertThat(transport.timeouts()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesAFailingBatchBeforeMovingOn() throws Exception {
+        var transport = new RingTransport<String>("test", 1, 8, 8, Duration.ofSeconds(1));
+        var calls = new AtomicInteger();
+        List<String> delivered = new ArrayList<>();
+        transport.subscribe((partition, batch) -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("banco fora");
+            }
+            delivered.addAll(batch);
+        });
+        transport.put("k", "a");
+        transport.close();
+
+        assertThat(delivered).containsExactly("a");
+        assertThat(transport.failed()).isZero();
+    }
+
+    @Test
+    void resumesAPartiallyFailedBatchFromTheFailingEvent() throws Exception {
+        var transport = new RingTransport<String>("test", 1, 8, 8, Duration.ofSeconds(1));
+        var failOnce = new AtomicInteger();
+        List<String> processed = new ArrayList<>();
+        transport.subscribe((partition, batch) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).equals("c") && failOnce.getAndIncrement() == 0) {
+                    throw new BatchFailedException(i, new IllegalStateException("persist-in fora"));
+                }
+                processed.add(batch.get(i));
+            }
+        });
+        for (String event : List.of("a", "b", "c", "d")) {
+            transport.put("k", event);
+        }
+        transport.close();
+
+        assertThat(processed).containsExactly("a", "b", "c", "d");
+        assertThat(transport.failed()).isZero();
+    }
+
+    @Test
+    void discardsOnlyTheEventThatKeepsFailing() throws Exception {
+        var transport = new RingTransport<String>("test", 1, 8, 8, Duration.ofSeconds(1));
+        List<String> processed = new ArrayList<>();
+        transport.subscribe((partition, batch) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.get(i).equals("b")) {
+                    throw new BatchFailedException(i, new IllegalStateException("evento inválido"));
+                }
+                processed.add(batch.get(i));
+            }
+        });
+        for (String event : List.of("a", "b", "c")) {
+            transport.put("k", event);
+        }
+        transport.close();
+
+        assertThat(processed).containsExactly("a", "c");
+        assertThat(transport.failed()).isEqualTo(1);
+    }
+}
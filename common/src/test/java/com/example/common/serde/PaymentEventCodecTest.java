@@ -0,0 +1,66 @@
+package com.example.common.serde;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentEventCodecTest {
+
+	private static final PaymentEvent EVENT = new PaymentEvent(
+			UUID.randomUUID(), Instant.parse("2025-10-01T12:34:56.123456Z"),
+			"MERCH-001", "CUST-123456", "TERM-0001", 1050L,
+			"BRL", "CREDIT", "CHIP", "3f6d9a0c1e2b4d5f6a7b8c9d0e1f2345", Status.PENDING);
+
+	@Test
+	void roundTripsDictionaryValues() {
+		assertThat(PaymentEventCodec.decode(PaymentEventCodec.encode(EVENT))).isEqualTo(EVENT);
+	}
+
+	@Test
+	void roundTripsLiteralsNullsAndNonAscii() {
+		var event = new PaymentEvent(UUID.randomUUID(), null, "Padaria São João ☕", "CUST-1", null,
+				-5L, "JPY", "CRYPTO", null, "hash-😀", null);
+
+		assertThat(PaymentEventCodec.decode(PaymentEventCodec.encode(event))).isEqualTo(event);
+	}
+
+	@Test
+	void isMuchSmallerThanJson() {
+		var serializer = new PaymentEventSerializer();
+		serializer.configure(Map.of(WireFormat.CONFIG, "json"), false);
+		byte[] json = serializer.serialize("t", new RecordHeaders(), EVENT);
+
+		assertThat(PaymentEventCodec.encode(EVENT).length).isLessThan(json.length / 2);
+	}
+
+	@Test
+	void deserializerDetectsFormatFromHeader() {
+		var deserializer = new PaymentEventDeserializer();
+		deserializer.configure(Map.of(
+				"spring.json.value.default.type", PaymentEvent.class.getName(),
+				"spring.json.use.type.headers", false), false);
+
+		var binaryHeaders = new RecordHeaders();
+		byte[] binary = serializerFor("binary").serialize("t", binaryHeaders, EVENT);
+		var jsonHeaders = new RecordHeaders();
+		byte[] json = serializerFor("json").serialize("t", jsonHeaders, EVENT);
+
+		assertThat(binaryHeaders.lastHeader(WireFormat.HEADER)).isNotNull();
+		assertThat(jsonHeaders.lastHeader(WireFormat.HEADER)).isNull();
+		assertThat(deserializer.deserialize("t", binaryHeaders, binary)).isEqualTo(EVENT);
+		assertThat(deserializer.deserialize("t", jsonHeaders, json)).isEqualTo(EVENT);
+	}
+
+	private static PaymentEventSerializer serializerFor(String format) {
+		var serializer = new PaymentEventSerializer();
+		serializer.configure(Map.of(WireFormat.CONFIG, format, "spring.json.add.type.headers", false), false);
+		return serializer;
+	}
+}
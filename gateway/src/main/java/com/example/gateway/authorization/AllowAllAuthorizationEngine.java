@@ -0,0 +1,16 @@
+package com.example.gateway.authorization;
+
+import com.example.common.event.PaymentEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Comportamento original: autoriza tudo (app.authorization.engine=allow-all). */
+@Component
+@ConditionalOnProperty(name = "app.authorization.engine", havingValue = "allow-all")
+public class AllowAllAuthorizationEngine implements AuthorizationEngine {
+
+    @Override
+    public AuthorizationDecision decide(PaymentEvent event, int partition) {
+        return AuthorizationDecision.APPROVED;
+    }
+}
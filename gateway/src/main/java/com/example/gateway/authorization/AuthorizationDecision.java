@@ -0,0 +1,14 @@
+package com.example.gateway.authorization;
+
+import com.example.common.enuns.RejectCode;
+
+/** {@code reserved}: a aprovação reservou saldo no ledger e precisa de confirm/rollback. */
+public record AuthorizationDecision(boolean approved, RejectCode code, String detail, boolean reserved) {
+
+    public static final AuthorizationDecision APPROVED = new AuthorizationDecision(true, null, null, false);
+    public static final AuthorizationDecision APPROVED_RESERVED = new AuthorizationDecision(true, null, null, true);
+
+    public static AuthorizationDecision reject(RejectCode code, String detail) {
+        return new AuthorizationDecision(false, code, detail, false);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.gateway.authorization;
+
+import com.example.common.event.PaymentEvent;
+
+/**
+ * Decide se um pagamento é autorizado; chamado nas threads dos listeners, não pode bloquear.
+ * {@code partition} é a partição de origem em payments.authorize.in (estado particionado).
+ */
+public interface AuthorizationEngine {
+
+    AuthorizationDecision decide(PaymentEvent event, int partition);
+
+    /** O resultado da decisão foi publicado: efetiva efeitos pendentes (ex.: reserva de saldo). */
+    default void confirm(PaymentEvent event, int partition, AuthorizationDecision decision) {
+    }
+
+    /** A publicação falhou e o evento será reprocessado: desfaz efeitos pendentes. */
+    default void rollback(PaymentEvent event, int partition, AuthorizationDecision decision) {
+    }
+
+    /**
+     * O registro em {@code offset} e os anteriores da partição foram concluídos (publicados, ou
+     * desviados): o efeito confirmado passa a valer no estado durável, com a posição da partição.
+     * Chamado em ordem de offset por partição; {@code event} e {@code decision} nulos quando o
+     * registro não teve decisão (ilegível, DLQ).
+     */
+    default void settle(PaymentEvent event, int partition, long offset, AuthorizationDecision decision) {
+    }
+}
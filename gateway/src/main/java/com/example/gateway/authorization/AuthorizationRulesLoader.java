@@ -0,0 +1,85 @@
+package com.example.gateway.authorization;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Carrega as regras de um arquivo local e recarrega quando ele muda. A troca é um único
+ * write volatile: as threads dos listeners nunca esperam pela recarga.
+ *
+ * <pre>
+ * # comentário
+ * blacklist &lt;cardHash&gt;
+ * limit     &lt;customerId&gt; &lt;limite&gt;         (negativo = crédito negativo)
+ * merchant  &lt;merchantId&gt; &lt;valorMáximo&gt;   (0 = lojista bloqueado)
+ * </pre>
+ */
+@Slf4j
+public class AuthorizationRulesLoader implements Supplier<RuleSet> {
+
+    private final Path file;
+    private volatile RuleSet current = RuleSet.EMPTY;
+    private FileTime loadedVersion;
+
+    public AuthorizationRulesLoader(Path file) {
+        this.file = file;
+        reloadIfChanged();
+    }
+
+    @Override
+    public RuleSet get() {
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        try {
+            if (!Files.isRegularFile(file)) {
+                if (loadedVersion == null) {
+                    log.warn("Arquivo de regras {} não encontrado; autorizando sem regras.", file);
+                    loadedVersion = FileTime.fromMillis(0);
+                }
+                return;
+            }
+            FileTime version = Files.getLastModifiedTime(file);
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+            long start = System.nanoTime();
+            RuleSet parsed = parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+            current = parsed;
+            loadedVersion = version;
+            log.info("Regras de autorização carregadas de {}: {} entradas em {} ms",
+                    file, parsed.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException ex) {
+            // mantém o snapshot anterior
+            log.error("Falha ao recarregar regras de {}", file, ex);
+        }
+    }
+
+    static RuleSet parse(List<String> lines) {
+        RuleSet.Builder builder = RuleSet.builder();
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] f = line.split("\\s+");
+            switch (f[0]) {
+                case "blacklist" -> builder.blacklistCard(f[1]);
+                case "limit" -> builder.customerLimit(f[1], Long.parseLong(f[2]));
+                case "merchant" -> builder.merchantMaxAmount(f[1], Long.parseLong(f[2]));
+                default -> throw new IllegalArgumentException("Linha " + (n + 1) + " inválida: " + line);
+            }
+        }
+        return builder.build();
+    }
+}
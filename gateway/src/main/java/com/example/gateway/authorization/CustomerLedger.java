@@ -0,0 +1,147 @@
+package com.example.gateway.authorization;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Ledger de consumo por cliente, sem locks: tabela de endereçamento aberto em AtomicLongArray
+ * (chave, usado, reservado), com inserção e débito via CAS e aritmética long, sem boxing.
+ * "usado" inclui as reservas em voo; o disponível é o limite das regras menos o usado.
+ */
+public class CustomerLedger {
+
+    /** Tabela cheia: a decisão deve falhar fechada. */
+    public static final int NO_SLOT = -1;
+
+    private final AtomicLongArray keys;
+    private final AtomicLongArray used;
+    private final AtomicLongArray reserved;
+    private final int mask;
+
+    public CustomerLedger(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity deve ser potência de 2");
+        }
+        this.keys = new AtomicLongArray(capacity);
+        this.used = new AtomicLongArray(capacity);
+        this.reserved = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /** Reserva {@code amount} se couber em {@code limit}; false = saldo insuficiente ou tabela cheia. */
+    public boolean reserve(long customerKey, long amount, long limit) {
+        int slot = slotFor(customerKey);
+        if (slot == NO_SLOT) {
+            return false;
+        }
+        long current;
+        do {
+            current = used.get(slot);
+            if (current + amount > limit) {
+                return false;
+            }
+        } while (!used.compareAndSet(slot, current, current + amount));
+        reserved.addAndGet(slot, amount);
+        return true;
+    }
+
+    /** A reserva virou consumo efetivo (resultado publicado). */
+    public void commit(long customerKey, long amount) {
+        int slot = find(customerKey);
+        if (slot != NO_SLOT) {
+            reserved.addAndGet(slot, -amount);
+        }
+    }
+
+    /** Devolve a reserva (publicação falhou; o evento será reprocessado). */
+    public void release(long customerKey, long amount) {
+        int slot = find(customerKey);
+        if (slot != NO_SLOT) {
+            reserved.addAndGet(slot, -amount);
+            used.addAndGet(slot, -amount);
+        }
+    }
+
+    public long used(long customerKey) {
+        int slot = find(customerKey);
+        return slot == NO_SLOT ? 0 : used.get(slot);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Restaura uma entrada do snapshot; reservas em voo não são restauradas (haverá redelivery). */
+    void restore(long customerKey, long usedAmount) {
+        int slot = slotFor(customerKey);
+        if (slot != NO_SLOT) {
+            used.set(slot, usedAmount);
+        }
+    }
+
+    /** Percorre as entradas ocupadas: (chave, usado, reservado). Leitura não atômica entre slots. */
+    void forEach(EntryVisitor visitor) {
+        for (int i = 0; i <= mask; i++) {
+            long key = keys.get(i);
+            if (key != 0) {
+                visitor.visit(key, used.get(i), reserved.get(i));
+            }
+        }
+    }
+
+    int size() {
+        int n = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (keys.get(i) != 0) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    @FunctionalInterface
+    interface EntryVisitor {
+        void visit(long key, long used, long reserved);
+    }
+
+    private int slotFor(long customerKey) {
+        long key = nonZero(customerKey);
+        int start = (int) (key ^ (key >>> 32)) & mask;
+        int i = start;
+        do {
+            long k = keys.get(i);
+            if (k == key) {
+                return i;
+            }
+            if (k == 0 && keys.compareAndSet(i, 0, key)) {
+                return i;
+            }
+            if (keys.get(i) == key) {
+                return i; // outra thread inseriu a mesma chave
+            }
+            i = (i + 1) & mask;
+        } while (i != start);
+        return NO_SLOT;
+    }
+
+    private int find(long customerKey) {
+        long key = nonZero(customerKey);
+        int start = (int) (key ^ (key >>> 32)) & mask;
+        int i = start;
+        do {
+            long k = keys.get(i);
+            if (k == key) {
+                return i;
+            }
+            if (k == 0) {
+                return NO_SLOT;
+            }
+            i = (i + 1) & mask;
+        } while (i != start);
+        return NO_SLOT;
+    }
+
+    // 0 marca slot vazio
+    private static long nonZero(long key) {
+        return key == 0 ? 1 : key;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.gateway.authorization;
+
+/** Converte identificadores textuais em chaves long para as estruturas primitivas. */
+public final class Keys {
+
+    private Keys() {
+    }
+
+    /** FNV-1a 64 sobre os chars + finalizador SplitMix64; não aloca. */
+    public static long of(CharSequence s) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < s.length(); i++) {
+            h ^= s.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
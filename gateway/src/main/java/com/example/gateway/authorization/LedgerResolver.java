@@ -0,0 +1,17 @@
+package com.example.gateway.authorization;
+
+/** Escolhe o ledger de um registro: único (global) ou o shard da partição de origem. */
+@FunctionalInterface
+public interface LedgerResolver {
+
+    /** {@code null} se a partição não está atribuída a esta instância (modo por partição). */
+    CustomerLedger ledgerFor(int partition);
+
+    /**
+     * O registro em {@code offset} da partição foi concluído, assim como os anteriores: o consumo
+     * dele ({@code amount} de {@code customerKey}; 0 sem reserva) passa a valer no snapshot, junto
+     * com a posição. Sem snapshot, não faz nada.
+     */
+    default void settle(int partition, long offset, long customerKey, long amount) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.gateway.authorization;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Snapshot do {@link CustomerLedger} num arquivo memory-mapped, para que um gateway reiniciado
+ * recupere o estado em milissegundos em vez de reconstruí-lo do tópico.
+ *
+ * <pre>
+ * magic:i32 | version:i32 | partitions:i32 | count:i32
+ *   | partitions x (partition:i64, offset:i64) | count x (key:i64, used:i64)
+ * </pre>
+ *
+ * O snapshot não lê o ledger vivo, que tem reservas em voo e confirmações à frente do commit. Ele
+ * grava o consumo assentado por {@link #settle}, em ordem de offset, junto com a posição de cada
+ * partição: o estado é o de exatamente os registros antes dela. Na subida, cada partição volta a
+ * essa posição e os registros seguintes reservam de novo sem contar duas vezes. Custa uma segunda
+ * tabela por ledger, do tamanho dos clientes com consumo.
+ */
+@Slf4j
+public class LedgerSnapshotter {
+
+    private static final int MAGIC = 0x4C444752; // "LDGR"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 16;
+    private static final int ENTRY_BYTES = 16;
+
+    private final CustomerLedger ledger;
+    private final Path file;
+    // só mudam sob o lock deste objeto, junto com o snapshot
+    private final LongLongHashMap settled = new LongLongHashMap(1 << 10);
+    private final LongLongHashMap positions = new LongLongHashMap(16);
+
+    public LedgerSnapshotter(CustomerLedger ledger, Path file) {
+        this.ledger = ledger;
+        this.file = file;
+    }
+
+    /**
+     * O registro em {@code offset} e os anteriores da partição foram concluídos: soma
+     * {@code amount} ao consumo gravado de {@code customerKey} (0 = sem reserva) e move a posição
+     * da partição para {@code offset + 1}.
+     */
+    public synchronized void settle(int partition, long offset, long customerKey, long amount) {
+        if (amount != 0) {
+            settled.put(customerKey, settled.get(customerKey, 0) + amount);
+        }
+        positions.put(partition, offset + 1);
+    }
+
+    /** Próximo offset a consumir da partição segundo o estado gravado; -1 se desconhecido. */
+    public synchronized long position(int partition) {
+        return positions.get(partition, -1);
+    }
+
+    /** Grava num arquivo temporário e troca por move atômico: nunca deixa um snapshot parcial. */
+    @Scheduled(fixedDelayString = "${app.authorization.ledger.snapshot-interval-ms:1000}")
+    public synchronized void snapshot() {
+        long start = System.nanoTime();
+        int count = settled.size();
+        int partitions = positions.size();
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0,
+                        HEADER_BYTES + (long) (partitions + count) * ENTRY_BYTES);
+                buf.order(ByteOrder.LITTLE_ENDIAN);
+                buf.putInt(MAGIC).putInt(VERSION).putInt(partitions).putInt(count);
+                positions.forEach((partition, offset) -> buf.putLong(partition).putLong(offset));
+                settled.forEach((key, used) -> buf.putLong(key).putLong(used));
+                buf.force();
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Snapshot do ledger gravado: {} clientes em {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException ex) {
+            log.error("Falha ao gravar snapshot do ledger em {}", file, ex);
+        }
+    }
+
+    /**
+     * Carrega o último snapshot, se houver, no ledger e nas posições; retorna a quantidade de
+     * clientes restaurados. Chamar antes de qualquer {@link #settle}.
+     */
+    public synchronized int restore() {
+        if (!Files.isRegularFile(file)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            buf.order(ByteOrder.LITTLE_ENDIAN);
+            // a versão 1 não tinha posições: restaurá-la contaria de novo o que a partição reentrega
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) {
+                log.warn("Snapshot do ledger {} com formato desconhecido; ignorando.", file);
+                return 0;
+            }
+            int partitions = buf.getInt(8);
+            int count = buf.getInt(12);
+            if (partitions < 0 || count < 0 || ch.size() < HEADER_BYTES + (long) (partitions + count) * ENTRY_BYTES) {
+                log.warn("Snapshot do ledger {} truncado; ignorando.", file);
+                return 0;
+            }
+            buf.position(HEADER_BYTES);
+            for (int i = 0; i < partitions; i++) {
+                positions.put(buf.getLong(), buf.getLong());
+            }
+            for (int i = 0; i < count; i++) {
+                long key = buf.getLong();
+                long used = buf.getLong();
+                settled.put(key, used);
+                ledger.restore(key, used);
+            }
+            log.info("Ledger restaurado de {}: {} clientes e {} partições em {} ms",
+                    file, count, partitions, (System.nanoTime() - start) / 1_000_000);
+            return count;
+        } catch (IOException | RuntimeException ex) {
+            log.error("Falha ao restaurar snapshot do ledger de {}", file, ex);
+            return 0;
+        }
+    }
+}
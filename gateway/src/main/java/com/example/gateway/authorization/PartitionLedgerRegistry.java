@@ -0,0 +1,128 @@
+package com.example.gateway.authorization;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Um shard de ledger por partição atribuída de payments.authorize.in. Com o tópico chaveado por
+ * customerId, cada cliente vive numa única partição e portanto numa única thread de listener:
+ * o estado não é disputado entre threads e escala linearmente com as partições.
+ *
+ * <p>O shard é carregado do snapshot local em onPartitionsAssigned e gravado/descartado na
+ * revogação. O snapshot traz a posição da partição (ver {@link LedgerSnapshotter}) e o consumidor é
+ * reposicionado nela, para a reentrega não contar de novo o que o snapshot já tem. Os snapshots são
+ * locais à instância: se uma partição migrar para outro host, ela recomeça a partir do último
+ * snapshot daquele host, e da posição dele.
+ */
+@Slf4j
+public class PartitionLedgerRegistry implements LedgerResolver, ConsumerAwareRebalanceListener {
+
+    private final String topic;
+    private final int capacity;
+    private final Path snapshotFile;
+
+    // copy-on-write: leituras no caminho quente sem lock, escritas só em rebalance
+    private volatile Shard[] shards = new Shard[0];
+
+    public PartitionLedgerRegistry(String topic, int capacity, Path snapshotFile) {
+        this.topic = topic;
+        this.capacity = capacity;
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * {@code null} para partição não atribuída: só onPartitionsAssigned carrega shards, então um
+     * confirm/rollback atrasado depois da revogação não ressuscita um shard que já foi gravado.
+     */
+    @Override
+    public CustomerLedger ledgerFor(int partition) {
+        Shard[] current = shards;
+        Shard shard = partition < current.length ? current[partition] : null;
+        return shard != null ? shard.ledger() : null;
+    }
+
+    /** Sem shard (partição revogada), o registro será decidido de novo pelo novo dono. */
+    @Override
+    public void settle(int partition, long offset, long customerKey, long amount) {
+        Shard[] current = shards;
+        Shard shard = partition < current.length ? current[partition] : null;
+        if (shard != null) {
+            shard.snapshotter().settle(partition, offset, customerKey, amount);
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition tp : partitions) {
+            if (tp.topic().equals(topic)) {
+                long position = load(tp.partition());
+                if (position >= 0) {
+                    log.info("{} retomada no offset {} do snapshot do ledger", tp, position);
+                    consumer.seek(tp, position);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        evict(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        evict(partitions);
+    }
+
+    @Scheduled(fixedDelayString = "${app.authorization.ledger.snapshot-interval-ms:1000}")
+    public void snapshotAll() {
+        for (Shard shard : shards) {
+            if (shard != null) {
+                shard.snapshotter().snapshot();
+            }
+        }
+    }
+
+    /** @return a posição gravada da partição; -1 sem posição ou com o shard já carregado (nada a retomar) */
+    private synchronized long load(int partition) {
+        Shard[] current = shards;
+        if (partition < current.length && current[partition] != null) {
+            return -1;
+        }
+        var ledger = new CustomerLedger(capacity);
+        var snapshotter = new LedgerSnapshotter(ledger, shardFile(partition));
+        snapshotter.restore();
+        Shard shard = new Shard(ledger, snapshotter);
+        Shard[] next = Arrays.copyOf(current, Math.max(current.length, partition + 1));
+        next[partition] = shard;
+        shards = next;
+        log.info("Shard de ledger carregado para {}-{}", topic, partition);
+        return snapshotter.position(partition);
+    }
+
+    private synchronized void evict(Collection<TopicPartition> partitions) {
+        Shard[] next = shards.clone();
+        for (TopicPartition tp : partitions) {
+            int p = tp.partition();
+            if (tp.topic().equals(topic) && p < next.length && next[p] != null) {
+                next[p].snapshotter().snapshot();
+                next[p] = null;
+                log.info("Shard de ledger gravado e descartado para {}-{}", topic, p);
+            }
+        }
+        shards = next;
+    }
+
+    private Path shardFile(int partition) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + ".p" + partition);
+    }
+
+    private record Shard(CustomerLedger ledger, LedgerSnapshotter snapshotter) {}
+}
@@ -0,0 +1,113 @@
+package com.example.gateway.authorization;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.event.PaymentEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * Motor de regras em memória: blacklist de cartões, regras por lojista, velocidade por cartão e
+ * terminal ({@link VelocityGuard}, opcional) e limite por cliente.
+ * Cada decisão lê um único snapshot (volatile) e faz apenas lookups O(1) em mapas primitivos;
+ * o saldo consumido por cliente fica no {@link CustomerLedger} (CAS, sem locks), global ou por partição.
+ */
+public class RuleBasedAuthorizationEngine implements AuthorizationEngine {
+
+    private final Supplier<RuleSet> rules;
+    private final LedgerResolver ledgers;
+    private final VelocityGuard velocity;
+
+    public RuleBasedAuthorizationEngine(Supplier<RuleSet> rules, LedgerResolver ledgers) {
+        this(rules, ledgers, null);
+    }
+
+    /** @param velocity {@code null} desliga a checagem de velocidade */
+    public RuleBasedAuthorizationEngine(Supplier<RuleSet> rules, LedgerResolver ledgers, VelocityGuard velocity) {
+        this.rules = rules;
+        this.ledgers = ledgers;
+        this.velocity = velocity;
+    }
+
+    @Override
+    public AuthorizationDecision decide(PaymentEvent event, int partition) {
+        RuleSet r = rules.get();
+
+        if (event.cardHash() != null && r.isBlacklisted(Keys.of(event.cardHash()))) {
+            return AuthorizationDecision.reject(RejectCode.BLACKLISTED, "cartão em blacklist");
+        }
+
+        long merchantMax = r.merchantMaxAmount(Keys.of(event.merchantId()));
+        if (merchantMax == 0) {
+            return AuthorizationDecision.reject(RejectCode.BLACKLISTED, "lojista bloqueado");
+        }
+        if (merchantMax != RuleSet.NO_LIMIT && event.amount() > merchantMax) {
+            return AuthorizationDecision.reject(RejectCode.INVALID_REQUEST, "valor acima do máximo do lojista");
+        }
+
+        long customerKey = Keys.of(event.customerId());
+        long limit = r.customerLimit(customerKey);
+        if (limit != RuleSet.NO_LIMIT && limit < 0) {
+            return AuthorizationDecision.reject(RejectCode.NEGATIVE_CREDIT, "cliente com crédito negativo");
+        }
+
+        // antes da velocidade: a exceção não tem decisão para o rollback liberar os contadores
+        CustomerLedger ledger = null;
+        if (limit != RuleSet.NO_LIMIT) {
+            ledger = ledgers.ledgerFor(partition);
+            if (ledger == null) {
+                // sobra de um poll de partição já revogada: o novo dono decide
+                throw new IllegalStateException("Partição " + partition + " sem ledger atribuído");
+            }
+        }
+
+        if (velocity != null) {
+            AuthorizationDecision exceeded = velocity.check(event);
+            if (exceeded != null) {
+                return exceeded;
+            }
+        }
+
+        if (ledger != null) {
+            // recusa por saldo continua contando na velocidade (teste de cartão gera recusas em série)
+            if (!ledger.reserve(customerKey, event.amount(), limit)) {
+                return AuthorizationDecision.reject(RejectCode.INSUFFICIENT_FUNDS, "limite insuficiente");
+            }
+            return AuthorizationDecision.APPROVED_RESERVED;
+        }
+        return AuthorizationDecision.APPROVED;
+    }
+
+    @Override
+    public void confirm(PaymentEvent event, int partition, AuthorizationDecision decision) {
+        CustomerLedger ledger = decision.reserved() ? ledgers.ledgerFor(partition) : null;
+        if (ledger != null) {
+            ledger.commit(Keys.of(event.customerId()), event.amount());
+        }
+    }
+
+    @Override
+    public void rollback(PaymentEvent event, int partition, AuthorizationDecision decision) {
+        // partição revogada no meio: o snapshot gravado na revogação já descontou a reserva
+        CustomerLedger ledger = decision.reserved() ? ledgers.ledgerFor(partition) : null;
+        if (ledger != null) {
+            ledger.release(Keys.of(event.customerId()), event.amount());
+        }
+        if (velocity != null && countedByVelocity(decision)) {
+            velocity.release(event);
+        }
+    }
+
+    @Override
+    public void settle(PaymentEvent event, int partition, long offset, AuthorizationDecision decision) {
+        if (decision != null && decision.reserved()) {
+            ledgers.settle(partition, offset, Keys.of(event.customerId()), event.amount());
+        } else {
+            ledgers.settle(partition, offset, 0, 0);
+        }
+    }
+
+    /** Decisões tomadas depois de passar pela velocidade (ver a ordem em {@link #decide}). */
+    private static boolean countedByVelocity(AuthorizationDecision decision) {
+        return decision.approved() || decision.code() == RejectCode.INSUFFICIENT_FUNDS;
+    }
+}
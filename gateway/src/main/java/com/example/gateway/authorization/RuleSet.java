@@ -0,0 +1,70 @@
+package com.example.gateway.authorization;
+
+/**
+ * Snapshot imutável das regras, indexado por chaves long ({@link Keys#of}).
+ * Trocado por inteiro a cada recarga; leitores nunca veem um estado parcial.
+ */
+public final class RuleSet {
+
+    /** Sem limite cadastrado. */
+    public static final long NO_LIMIT = Long.MIN_VALUE;
+
+    public static final RuleSet EMPTY = new Builder().build();
+
+    private final LongLongHashMap blacklistedCards;
+    private final LongLongHashMap customerLimits;
+    private final LongLongHashMap merchantMaxAmounts;
+
+    private RuleSet(Builder b) {
+        this.blacklistedCards = b.blacklistedCards;
+        this.customerLimits = b.customerLimits;
+        this.merchantMaxAmounts = b.merchantMaxAmounts;
+    }
+
+    public boolean isBlacklisted(long cardKey) {
+        return blacklistedCards.containsKey(cardKey);
+    }
+
+    /** Limite total do cliente ou {@link #NO_LIMIT}; o consumo fica no {@link CustomerLedger}. */
+    public long customerLimit(long customerKey) {
+        return customerLimits.get(customerKey, NO_LIMIT);
+    }
+
+    /** Valor máximo por transação do lojista ou {@link #NO_LIMIT}; 0 = lojista bloqueado. */
+    public long merchantMaxAmount(long merchantKey) {
+        return merchantMaxAmounts.get(merchantKey, NO_LIMIT);
+    }
+
+    public int size() {
+        return blacklistedCards.size() + customerLimits.size() + merchantMaxAmounts.size();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private final LongLongHashMap blacklistedCards = new LongLongHashMap(1024);
+        private final LongLongHashMap customerLimits = new LongLongHashMap(1024);
+        private final LongLongHashMap merchantMaxAmounts = new LongLongHashMap(256);
+
+        public Builder blacklistCard(String cardHash) {
+            blacklistedCards.put(Keys.of(cardHash), 1L);
+            return this;
+        }
+
+        public Builder customerLimit(String customerId, long available) {
+            customerLimits.put(Keys.of(customerId), available);
+            return this;
+        }
+
+        public Builder merchantMaxAmount(String merchantId, long maxAmount) {
+            merchantMaxAmounts.put(Keys.of(merchantId), maxAmount);
+            return this;
+        }
+
+        public RuleSet build() {
+            return new RuleSet(this);
+        }
+    }
+}
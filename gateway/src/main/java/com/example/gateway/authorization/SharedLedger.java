@@ -0,0 +1,47 @@
+package com.example.gateway.authorization;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.util.Collection;
+
+/**
+ * Um ledger para todas as partições (authorize-in chaveado por txId). O snapshot guarda a posição
+ * de cada partição junto com o consumo; na atribuição, a partição volta a essa posição.
+ */
+@Slf4j
+public class SharedLedger implements LedgerResolver, ConsumerAwareRebalanceListener {
+
+    private final String topic;
+    private final CustomerLedger ledger;
+    private final LedgerSnapshotter snapshotter;
+
+    public SharedLedger(String topic, CustomerLedger ledger, LedgerSnapshotter snapshotter) {
+        this.topic = topic;
+        this.ledger = ledger;
+        this.snapshotter = snapshotter;
+    }
+
+    @Override
+    public CustomerLedger ledgerFor(int partition) {
+        return ledger;
+    }
+
+    @Override
+    public void settle(int partition, long offset, long customerKey, long amount) {
+        snapshotter.settle(partition, offset, customerKey, amount);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition tp : partitions) {
+            long position = tp.topic().equals(topic) ? snapshotter.position(tp.partition()) : -1;
+            if (position >= 0) {
+                log.info("{} retomada no offset {} do snapshot do ledger", tp, position);
+                consumer.seek(tp, position);
+            }
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.gateway.authorization;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contagem e valor por chave (cartão, terminal) em duas janelas deslizantes, curta e longa, com
+ * memória fixa: tabela associativa por conjunto ({@value #WAYS} slots de {@value #SLOT_BYTES} bytes,
+ * uma linha de cache) num ByteBuffer direto. Conjunto cheio despeja a chave inativa há mais tempo;
+ * a chave despejada recomeça do zero (falha aberta), nunca bloqueia um pagamento por engano.
+ *
+ * <p>Cada janela guarda só o balde corrente e o anterior, alinhados ao tamanho da janela; a
+ * estimativa é {@code corrente + anterior * (fração da janela anterior ainda dentro do intervalo)}.
+ * Erro máximo de um balde inteiro só quando o anterior está todo concentrado numa ponta.
+ *
+ * <pre>
+ * slot: key(8) balde curto(4) balde longo(4) qtd curta ant/cor(4+4) qtd longa ant/cor(4+4)
+ *       valor curto ant/cor(8+8) valor longo ant/cor(8+8)
+ * </pre>
+ */
+public class VelocityCounters {
+
+    static final int WAYS = 4;
+    static final int SLOT_BYTES = 64;
+    private static final int KEY = 0;
+    private static final int SHORT_BUCKET = 8;
+    private static final int LONG_BUCKET = 12;
+    private static final int SHORT_COUNT = 16;
+    private static final int LONG_COUNT = 24;
+    private static final int SHORT_AMOUNT = 32;
+    private static final int LONG_AMOUNT = 48;
+    private static final int MAX_STRIPES = 1024;
+
+    private final ByteBuffer table;
+    private final int setMask;
+    private final ReentrantLock[] stripes;
+    private final long shortMillis;
+    private final long longMillis;
+    private final LongAdder evictions = new LongAdder();
+
+    public VelocityCounters(int capacity, long shortWindowMillis, long longWindowMillis) {
+        if (Integer.bitCount(capacity) != 1 || capacity < WAYS) {
+            throw new IllegalArgumentException("capacity deve ser potência de 2 >= " + WAYS);
+        }
+        if (shortWindowMillis < 1_000 || longWindowMillis < shortWindowMillis) {
+            throw new IllegalArgumentException("janelas inválidas: " + shortWindowMillis + " / " + longWindowMillis);
+        }
+        if ((long) capacity * SLOT_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity acima do limite de um buffer: " + capacity);
+        }
+        this.table = ByteBuffer.allocateDirect(capacity * SLOT_BYTES);
+        this.setMask = capacity / WAYS - 1;
+        this.stripes = new ReentrantLock[Math.min(capacity / WAYS, MAX_STRIPES)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.shortMillis = shortWindowMillis;
+        this.longMillis = longWindowMillis;
+    }
+
+    /**
+     * Soma o evento se, somado, ele fica dentro de {@code limits}; senão não altera nada. Devolve
+     * {@code true} quando somou.
+     */
+    public boolean tryAdd(long key, long amount, long nowMillis, VelocityLimits limits) {
+        int set = set(key);
+        ReentrantLock lock = stripes[set & (stripes.length - 1)];
+        lock.lock();
+        try {
+            int slot = slotFor(set, key, nowMillis);
+            roll(slot, nowMillis);
+            long shortRemaining = remaining(nowMillis, shortMillis);
+            long longRemaining = remaining(nowMillis, longMillis);
+            if (estimate(slot + SHORT_COUNT, 4, shortRemaining, shortMillis) + 1 > limits.shortCount()
+                    || estimate(slot + SHORT_AMOUNT, 8, shortRemaining, shortMillis) + amount > limits.shortAmount()
+                    || estimate(slot + LONG_COUNT, 4, longRemaining, longMillis) + 1 > limits.longCount()
+                    || estimate(slot + LONG_AMOUNT, 8, longRemaining, longMillis) + amount > limits.longAmount()) {
+                return false;
+            }
+            add(slot, 1, amount);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Desfaz um {@link #tryAdd} que devolveu {@code true} (o evento será reprocessado). Se um balde
+     * virou no meio, o evento está no anterior: tira do corrente só o que ele tem e o resto do
+     * anterior, sem nunca passar de zero.
+     */
+    public void remove(long key, long amount, long nowMillis) {
+        int set = set(key);
+        ReentrantLock lock = stripes[set & (stripes.length - 1)];
+        lock.lock();
+        try {
+            int slot = find(set, key);
+            if (slot >= 0) {
+                roll(slot, nowMillis);
+                subtract(slot, SHORT_COUNT, SHORT_AMOUNT, amount);
+                subtract(slot, LONG_COUNT, LONG_AMOUNT, amount);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Quantidade estimada na janela curta (0 = chave ausente). */
+    public long shortCount(long key, long nowMillis) {
+        return read(key, nowMillis, SHORT_COUNT, 4, shortMillis);
+    }
+
+    /** Quantidade estimada na janela longa (0 = chave ausente). */
+    public long longCount(long key, long nowMillis) {
+        return read(key, nowMillis, LONG_COUNT, 4, longMillis);
+    }
+
+    /** Valor estimado na janela curta (0 = chave ausente). */
+    public long shortAmount(long key, long nowMillis) {
+        return read(key, nowMillis, SHORT_AMOUNT, 8, shortMillis);
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int capacity() {
+        return (setMask + 1) * WAYS;
+    }
+
+    private long read(long key, long nowMillis, int field, int width, long windowMillis) {
+        int set = set(key);
+        ReentrantLock lock = stripes[set & (stripes.length - 1)];
+        lock.lock();
+        try {
+            int slot = find(set, key);
+            if (slot < 0) {
+                return 0;
+            }
+            roll(slot, nowMillis);
+            return estimate(slot + field, width, remaining(nowMillis, windowMillis), windowMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(int slot, int count, long amount) {
+        table.putInt(slot + SHORT_COUNT + 4, table.getInt(slot + SHORT_COUNT + 4) + count);
+        table.putInt(slot + LONG_COUNT + 4, table.getInt(slot + LONG_COUNT + 4) + count);
+        table.putLong(slot + SHORT_AMOUNT + 8, table.getLong(slot + SHORT_AMOUNT + 8) + amount);
+        table.putLong(slot + LONG_AMOUNT + 8, table.getLong(slot + LONG_AMOUNT + 8) + amount);
+    }
+
+    private void subtract(int slot, int countField, int amountField, long amount) {
+        int currentCount = table.getInt(slot + countField + 4);
+        if (currentCount > 0) {
+            table.putInt(slot + countField + 4, currentCount - 1);
+        } else {
+            table.putInt(slot + countField, Math.max(0, table.getInt(slot + countField) - 1));
+        }
+        long currentAmount = table.getLong(slot + amountField + 8);
+        long fromCurrent = Math.min(amount, currentAmount);
+        table.putLong(slot + amountField + 8, currentAmount - fromCurrent);
+        long previousAmount = table.getLong(slot + amountField);
+        table.putLong(slot + amountField, Math.max(0, previousAmount - (amount - fromCurrent)));
+    }
+
+    /** Avança os baldes das duas janelas até o instante atual. */
+    private void roll(int slot, long nowMillis) {
+        roll(slot, SHORT_BUCKET, SHORT_COUNT, SHORT_AMOUNT, (int) (nowMillis / shortMillis));
+        roll(slot, LONG_BUCKET, LONG_COUNT, LONG_AMOUNT, (int) (nowMillis / longMillis));
+    }
+
+    private void roll(int slot, int bucketField, int countField, int amountField, int bucket) {
+        int current = table.getInt(slot + bucketField);
+        if (current == bucket) {
+            return;
+        }
+        boolean adjacent = current == bucket - 1;
+        table.putInt(slot + countField, adjacent ? table.getInt(slot + countField + 4) : 0);
+        table.putInt(slot + countField + 4, 0);
+        table.putLong(slot + amountField, adjacent ? table.getLong(slot + amountField + 8) : 0L);
+        table.putLong(slot + amountField + 8, 0L);
+        table.putInt(slot + bucketField, bucket);
+    }
+
+    /** corrente + anterior ponderado pela parte da janela anterior que ainda conta. */
+    private long estimate(int field, int width, long remainingMillis, long windowMillis) {
+        long previous = width == 4 ? table.getInt(field) : table.getLong(field);
+        long current = width == 4 ? table.getInt(field + 4) : table.getLong(field + 8);
+        return current + previous * remainingMillis / windowMillis;
+    }
+
+    /** Quanto da janela anterior ainda está dentro do intervalo deslizante que termina agora. */
+    private static long remaining(long nowMillis, long windowMillis) {
+        return windowMillis - nowMillis % windowMillis;
+    }
+
+    private int find(int set, long key) {
+        int base = set * WAYS * SLOT_BYTES;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way * SLOT_BYTES;
+            if (table.getInt(slot + LONG_BUCKET) != 0 && table.getLong(slot + KEY) == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /** Slot da chave; se ausente, um livre ou o de atividade mais antiga, zerado. */
+    private int slotFor(int set, long key, long nowMillis) {
+        int slot = find(set, key);
+        if (slot >= 0) {
+            return slot;
+        }
+        int base = set * WAYS * SLOT_BYTES;
+        int victim = base;
+        boolean free = false;
+        for (int way = 0; way < WAYS; way++) {
+            int candidate = base + way * SLOT_BYTES;
+            if (table.getInt(candidate + LONG_BUCKET) == 0) {
+                victim = candidate;
+                free = true;
+                break;
+            }
+            // balde curto = última atividade com resolução da janela curta
+            if (table.getInt(candidate + SHORT_BUCKET) < table.getInt(victim + SHORT_BUCKET)) {
+                victim = candidate;
+            }
+        }
+        if (!free) {
+            evictions.increment();
+        }
+        for (int i = 0; i < SLOT_BYTES; i += 8) {
+            table.putLong(victim + i, 0L);
+        }
+        table.putLong(victim + KEY, key);
+        table.putInt(victim + SHORT_BUCKET, (int) (nowMillis / shortMillis));
+        table.putInt(victim + LONG_BUCKET, (int) (nowMillis / longMillis));
+        return victim;
+    }
+
+    private int set(long key) {
+        // as chaves já vêm espalhadas por Keys.of
+        return (int) (key ^ (key >>> 32)) & setMask;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.gateway.authorization;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.event.PaymentEvent;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Checagem de velocidade por cardHash e por terminalId. Como a reserva do ledger, só consome
+ * "cota" quando passa: tentativa acima do limite é rejeitada sem ser contada, e o que foi contado
+ * é devolvido por {@link #release} se a publicação falhar.
+ *
+ * <p>O tempo é o de processamento (o estado vive só em memória e não volta num restart).
+ */
+public class VelocityGuard {
+
+    private final VelocityCounters cards;
+    private final VelocityCounters terminals;
+    private final VelocityLimits cardLimits;
+    private final VelocityLimits terminalLimits;
+    private final LongSupplier clock;
+
+    public VelocityGuard(VelocityCounters cards, VelocityLimits cardLimits,
+                         VelocityCounters terminals, VelocityLimits terminalLimits) {
+        this(cards, cardLimits, terminals, terminalLimits, System::currentTimeMillis);
+    }
+
+    VelocityGuard(VelocityCounters cards, VelocityLimits cardLimits,
+                  VelocityCounters terminals, VelocityLimits terminalLimits, LongSupplier clock) {
+        this.cards = cards;
+        this.terminals = terminals;
+        this.cardLimits = cardLimits;
+        this.terminalLimits = terminalLimits;
+        this.clock = clock;
+    }
+
+    /** {@code null} se dentro dos limites (e contado); senão a rejeição. */
+    public AuthorizationDecision check(PaymentEvent event) {
+        long now = clock.getAsLong();
+        boolean card = event.cardHash() != null;
+        if (card && !cards.tryAdd(Keys.of(event.cardHash()), event.amount(), now, cardLimits)) {
+            return AuthorizationDecision.reject(RejectCode.VELOCITY_EXCEEDED, "velocidade do cartão excedida");
+        }
+        if (event.terminalId() != null
+                && !terminals.tryAdd(Keys.of(event.terminalId()), event.amount(), now, terminalLimits)) {
+            if (card) {
+                cards.remove(Keys.of(event.cardHash()), event.amount(), now);
+            }
+            return AuthorizationDecision.reject(RejectCode.VELOCITY_EXCEEDED, "velocidade do terminal excedida");
+        }
+        return null;
+    }
+
+    /** Desfaz um {@link #check} que passou. */
+    public void release(PaymentEvent event) {
+        long now = clock.getAsLong();
+        if (event.cardHash() != null) {
+            cards.remove(Keys.of(event.cardHash()), event.amount(), now);
+        }
+        if (event.terminalId() != null) {
+            terminals.remove(Keys.of(event.terminalId()), event.amount(), now);
+        }
+    }
+
+    public VelocityCounters cards() {
+        return cards;
+    }
+
+    public VelocityCounters terminals() {
+        return terminals;
+    }
+}
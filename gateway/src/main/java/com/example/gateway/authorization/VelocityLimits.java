@@ -0,0 +1,17 @@
+package com.example.gateway.authorization;
+
+/** Máximos por chave nas janelas curta e longa do {@link VelocityCounters}; valores em centavos. */
+public record VelocityLimits(long shortCount, long shortAmount, long longCount, long longAmount) {
+
+    public static final VelocityLimits NONE = of(0, 0, 0, 0);
+
+    /** 0 ou negativo = sem limite naquela medida. */
+    public static VelocityLimits of(long shortCount, long shortAmount, long longCount, long longAmount) {
+        return new VelocityLimits(orUnlimited(shortCount), orUnlimited(shortAmount),
+                orUnlimited(longCount), orUnlimited(longAmount));
+    }
+
+    private static long orUnlimited(long limit) {
+        return limit > 0 ? limit : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.gateway.config;
+
+import com.example.gateway.authorization.AuthorizationEngine;
+import com.example.gateway.authorization.AuthorizationRulesLoader;
+import com.example.gateway.authorization.CustomerLedger;
+import com.example.gateway.authorization.LedgerResolver;
+import com.example.gateway.authorization.LedgerSnapshotter;
+import com.example.gateway.authorization.PartitionLedgerRegistry;
+import com.example.gateway.authorization.RuleBasedAuthorizationEngine;
+import com.example.gateway.authorization.SharedLedger;
+import com.example.gateway.authorization.VelocityCounters;
+import com.example.gateway.authorization.VelocityGuard;
+import com.example.gateway.authorization.VelocityLimits;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+public class AuthorizationConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.authorization.engine", havingValue = "rules", matchIfMissing = true)
+    static class RulesEngineConfig {
+
+        @Bean
+        public AuthorizationRulesLoader authorizationRulesLoader(
+                @Value("${app.authorization.rules-file}") String rulesFile) {
+            return new AuthorizationRulesLoader(Path.of(rulesFile));
+        }
+
+        @Bean
+        public AuthorizationEngine authorizationEngine(AuthorizationRulesLoader rules, LedgerResolver ledgers,
+                                                       ObjectProvider<VelocityGuard> velocity) {
+            return new RuleBasedAuthorizationEngine(rules, ledgers, velocity.getIfAvailable());
+        }
+
+        /** Contadores por cardHash e terminalId com memória fixa (64 bytes por chave, fora do heap). */
+        @Configuration
+        @EnableConfigurationProperties(VelocityProps.class)
+        @ConditionalOnProperty(name = "app.authorization.velocity.enabled", havingValue = "true")
+        static class VelocityConfig {
+
+            @Bean
+            public VelocityGuard velocityGuard(VelocityProps props, MeterRegistry registry) {
+                long shortMillis = props.getShortWindow().toMillis();
+                long longMillis = props.getLongWindow().toMillis();
+                var cards = new VelocityCounters(props.getCard().getCapacity(), shortMillis, longMillis);
+                var terminals = new VelocityCounters(props.getTerminal().getCapacity(), shortMillis, longMillis);
+                FunctionCounter.builder("gateway.velocity.evictions", cards, VelocityCounters::evictions)
+                        .tag("key", "card").register(registry);
+                FunctionCounter.builder("gateway.velocity.evictions", terminals, VelocityCounters::evictions)
+                        .tag("key", "terminal").register(registry);
+                return new VelocityGuard(cards, props.getCard().limits(), terminals, props.getTerminal().limits());
+            }
+        }
+
+        /** Um ledger para todas as threads (authorize-in chaveado por txId). */
+        @Configuration
+        @ConditionalOnProperty(name = "app.authorization.ledger.scope", havingValue = "global", matchIfMissing = true)
+        static class GlobalLedgerConfig {
+
+            @Bean
+            public CustomerLedger customerLedger(@Value("${app.authorization.ledger.capacity:1048576}") int capacity) {
+                return new CustomerLedger(capacity);
+            }
+
+            /** Restaura o ledger na subida e grava um último snapshot no shutdown. */
+            @Bean(destroyMethod = "snapshot")
+            public LedgerSnapshotter ledgerSnapshotter(CustomerLedger ledger,
+                                                       @Value("${app.authorization.ledger.snapshot-file}") String file) {
+                var snapshotter = new LedgerSnapshotter(ledger, Path.of(file));
+                snapshotter.restore();
+                return snapshotter;
+            }
+
+            /** Também reposiciona as partições atribuídas no offset do snapshot. */
+            @Bean
+            public SharedLedger ledgerResolver(@Value("${app.kafka.topics.authorize-in.name}") String topic,
+                                               CustomerLedger ledger, LedgerSnapshotter snapshotter) {
+                return new SharedLedger(topic, ledger, snapshotter);
+            }
+        }
+
+        /** Um shard por partição atribuída (authorize-in chaveado por customerId). */
+        @Configuration
+        @ConditionalOnProperty(name = "app.authorization.ledger.scope", havingValue = "partition")
+        static class PartitionedLedgerConfig {
+
+            @Bean(destroyMethod = "snapshotAll")
+            public PartitionLedgerRegistry partitionLedgerRegistry(
+                    @Value("${app.kafka.topics.authorize-in.name}") String topic,
+                    @Value("${app.authorization.ledger.capacity:1048576}") int capacity,
+                    @Value("${app.authorization.ledger.snapshot-file}") String file) {
+                return new PartitionLedgerRegistry(topic, capacity, Path.of(file));
+            }
+        }
+    }
+}
+
+@ConfigurationProperties(prefix = "app.authorization.velocity")
+@Getter @Setter
+class VelocityProps {
+    private boolean enabled;
+    private Duration shortWindow = Duration.ofMinutes(1);
+    private Duration longWindow = Duration.ofHours(1);
+    private Key card = new Key(1 << 20);
+    private Key terminal = new Key(1 << 16);
+
+    /** Limites de um tipo de chave; 0 = sem limite naquela medida. */
+    @Getter @Setter
+    static class Key {
+        private int capacity;
+        private long maxCountShort;
+        private long maxAmountShort;
+        private long maxCountLong;
+        private long maxAmountLong;
+
+        Key(int capacity) {
+            this.capacity = capacity;
+        }
+
+        VelocityLimits limits() {
+            return VelocityLimits.of(maxCountShort, maxAmountShort, maxCountLong, maxAmountLong);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.gateway.config;
+
+import com.example.common.kafka.AdaptiveConcurrencyController;
+import com.example.common.kafka.ConcurrencyPolicy;
+import com.example.common.kafka.ConsumerLagMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+import java.util.List;
+
+/** Lag do gateway-group em payments.authorize.in e concorrência do listener ajustada por ele. */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(AutoscaleProps.class)
+@ConditionalOnProperty(name = "app.kafka.autoscale.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class AutoscaleConfig {
+
+    /** Um id por app.gateway.listener-mode; só o do modo ativo está rodando. */
+    private static final List<String> LISTENER_IDS = List.of("authorize-record", "authorize-batch", "authorize-tx");
+
+    @Bean
+    public ConsumerLagMonitor authorizeLagMonitor(AdminClient adminClient, AutoscaleProps props, MeterRegistry registry,
+                                                  @Value("${spring.kafka.consumer.group-id}") String groupId,
+                                                  @Value("${app.kafka.topics.authorize-in.name}") String topic) {
+        return new ConsumerLagMonitor(adminClient, groupId, List.of(topic), props.getTimeout(), registry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyController authorizeConcurrencyController(
+            ConsumerLagMonitor authorizeLagMonitor, AdminClient adminClient, AutoscaleProps props,
+            KafkaListenerEndpointRegistry listenerRegistry, MeterRegistry registry,
+            @Value("${app.kafka.topics.authorize-in.name}") String topic,
+            @Value("${app.authorization.ledger.scope:global}") String ledgerScope) {
+        int maxPartitions = props.getMaxPartitions();
+        if (maxPartitions > 0 && "partition".equals(ledgerScope)) {
+            // mais partições mudam customerId -> partição e os shards de ledger deixam de valer
+            log.warn("app.kafka.autoscale.max-partitions ignorado com ledger.scope=partition");
+            maxPartitions = 0;
+        }
+        var policy = new ConcurrencyPolicy(props.getMinConcurrency(), props.getMaxConcurrency(),
+                props.getScaleUpLag(), props.getScaleDownLag(), props.getMaxDrain(), props.getSamples(), maxPartitions);
+        AdaptiveConcurrencyController.PartitionScaler scaler = maxPartitions > 0
+                ? partitions -> TopicConfig.increaseIfNeeded(adminClient, topic, partitions)
+                : null;
+        return new AdaptiveConcurrencyController(authorizeLagMonitor, policy, listenerRegistry, LISTENER_IDS,
+                props.isAdjust(), scaler, registry);
+    }
+}
+
+@ConfigurationProperties(prefix = "app.kafka.autoscale")
+@Getter @Setter
+class AutoscaleProps {
+    private boolean enabled = true;
+    private boolean adjust = true;
+    private Duration interval = Duration.ofSeconds(15);
+    private Duration timeout = Duration.ofSeconds(5);
+    private int minConcurrency = 1;
+    private int maxConcurrency = 12;
+    private long scaleUpLag = 1_000;
+    private long scaleDownLag = 100;
+    private Duration maxDrain = Duration.ofSeconds(30);
+    private int samples = 3;
+    private int maxPartitions;
+}
@@ -0,0 +1,57 @@
+package com.example.gateway.config;
+
+import com.example.common.event.PaymentEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Modo batch (app.gateway.listener-mode=batch): o listener recebe o poll inteiro, avalia as
+ * regras em paralelo por partição e o container comita o lote uma única vez.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.gateway.listener-mode", havingValue = "batch")
+public class BatchKafkaConfig {
+
+    private static final long RETRY_INTERVAL_MS = 500;
+
+    @Value("${app.kafka.topics.authorize-in.partitions:3}")
+    private int authorizePartitions;
+
+    /** Pool das regras (CPU): compartilhado pelos listeners, um grupo de partição por tarefa. */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool authorizationPool(
+            @Value("${app.gateway.batch.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, PaymentEvent> paymentEventConsumerFactory,
+            DeadLetterPublishingRecoverer gatewayDeadLetterRecoverer,
+            ObjectProvider<ConsumerAwareRebalanceListener> ledgerRebalanceListener,
+            @Value("${app.gateway.max-attempts:5}") int maxAttempts) {
+        var f = new ConcurrentKafkaListenerContainerFactory<String, PaymentEvent>();
+        f.setConsumerFactory(paymentEventConsumerFactory);
+        f.setBatchListener(true);
+        f.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        // BatchListenerFailedException: comita o prefixo e repete a partir do registro com falha;
+        // esgotadas as tentativas, ele vai para a DLQ e o lote segue sem ele
+        f.setCommonErrorHandler(new DefaultErrorHandler(gatewayDeadLetterRecoverer,
+                new FixedBackOff(RETRY_INTERVAL_MS, maxAttempts)));
+        ledgerRebalanceListener.ifAvailable(f.getContainerProperties()::setConsumerRebalanceListener);
+        f.setConcurrency(authorizePartitions);
+        return f;
+    }
+}
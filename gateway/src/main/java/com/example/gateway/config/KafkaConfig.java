@@ -1,15 +1,22 @@
 package com.example.gateway.config;
 
 import com.example.common.event.PaymentEvent;
+import com.example.common.serde.PaymentEventDeserializer;
+import com.example.gateway.kafka.FailedRecordAttempts;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
@@ -36,18 +43,37 @@ public class KafkaConfig {
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        // detecta JSON ou binário pelo header; as props de JsonDeserializer valem para o fallback
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, PaymentEventDeserializer.class);
         props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, PaymentEvent.class.getName());
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.common.*");
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
+    /**
+     * Destino dos registros que falham ao autorizar {@code app.gateway.max-attempts} vezes, com os
+     * headers kafka_dlt-* da falha. Num KafkaTemplate transacional, publica na transação corrente.
+     */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> paymentEventKafkaListenerContainerFactory() {
+    public DeadLetterPublishingRecoverer gatewayDeadLetterRecoverer(KafkaTemplate<String, Object> kafkaTemplate,
+                                                                    @Value("${app.kafka.topics.dlq.name}") String dlqTopic) {
+        return new DeadLetterPublishingRecoverer(kafkaTemplate, (record, ex) -> new TopicPartition(dlqTopic, -1));
+    }
+
+    @Bean
+    public FailedRecordAttempts failedRecordAttempts() {
+        return new FailedRecordAttempts();
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> paymentEventKafkaListenerContainerFactory(
+            ObjectProvider<ConsumerAwareRebalanceListener> ledgerRebalanceListener) {
         var f = new ConcurrentKafkaListenerContainerFactory<String, PaymentEvent>();
         f.setConsumerFactory(paymentEventConsumerFactory());
         f.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // ledger: carrega/descarta os shards a cada rebalance e retoma cada partição na posição do snapshot
+        ledgerRebalanceListener.ifAvailable(f.getContainerProperties()::setConsumerRebalanceListener);
         // defina a concurrency uma única vez, casando com as partições do tópico
         f.setConcurrency(authorizePartitions);
         return f;
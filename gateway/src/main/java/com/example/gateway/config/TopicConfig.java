@@ -17,16 +17,18 @@ import java.util.Map;
 import java.util.concurrent.ExecutionException;
 
 @Configuration
-@EnableConfigurationProperties({AuthorizeInProps.class, PersistInProps.class})
+@EnableConfigurationProperties({AuthorizeInProps.class, PersistInProps.class, RejectedProps.class})
 @Slf4j
 public class TopicConfig {
 
     private final AuthorizeInProps authorizeProps;
     private final PersistInProps persistProps;
+    private final RejectedProps rejectedProps;
 
-    public TopicConfig(AuthorizeInProps authorizeProps, PersistInProps persistProps) {
+    public TopicConfig(AuthorizeInProps authorizeProps, PersistInProps persistProps, RejectedProps rejectedProps) {
         this.authorizeProps = authorizeProps;
         this.persistProps = persistProps;
+        this.rejectedProps = rejectedProps;
     }
 
     /** Cria se não existir. */
@@ -47,6 +49,15 @@ public class TopicConfig {
                 .build();
     }
 
+    /** Cria se não existir. */
+    @Bean
+    public NewTopic rejectedTopic() {
+        return TopicBuilder.name(rejectedProps.getName())
+                .partitions(rejectedProps.getPartitions())
+                .replicas(rejectedProps.getReplicas().shortValue())
+                .build();
+    }
+
     /** Aumenta partições do authorize-in, se precisar. (Diminuir não é possível.) */
     @Bean
     @DependsOn("authorizeInTopic")
@@ -61,7 +72,8 @@ public class TopicConfig {
         return () -> increaseIfNeeded(adminClient, persistProps.getName(), persistProps.getPartitions());
     }
 
-    private void increaseIfNeeded(AdminClient adminClient, String topic, int desired) throws Exception {
+    /** Também usado pelo autoscaler ({@link AutoscaleConfig}) quando o lag pede mais partições. */
+    static void increaseIfNeeded(AdminClient adminClient, String topic, int desired) throws Exception {
         try {
             var dtr = adminClient.describeTopics(List.of(topic));
             var desc = dtr.values().get(topic).get();
@@ -105,3 +117,11 @@ class PersistInProps {
     private Integer partitions;
     private Integer replicas;
 }
+
+@ConfigurationProperties(prefix = "app.kafka.topics.rejected")
+@Getter @Setter
+class RejectedProps {
+    private String name;
+    private Integer partitions;
+    private Integer replicas;
+}
@@ -0,0 +1,69 @@
+package com.example.gateway.config;
+
+import com.example.common.event.PaymentEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultAfterRollbackProcessor;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.util.backoff.FixedBackOff;
+
+/**
+ * Modo exactly-once (app.gateway.listener-mode=transactional): cada poll vira uma transação Kafka.
+ * O container abre a transação, o listener publica nela e o container envia os offsets com
+ * sendOffsetsToTransaction antes do commit; consumidores read_committed nunca veem um lote abortado.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.gateway.listener-mode", havingValue = "transactional")
+public class TransactionalKafkaConfig {
+
+    private static final long ROLLBACK_INTERVAL_MS = 500;
+
+    @Value("${app.kafka.topics.authorize-in.partitions:3}")
+    private int authorizePartitions;
+
+    /** Torna transacional o producer factory do Boot (e com ele o KafkaTemplate). */
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer transactionalProducerCustomizer(
+            @Value("${app.gateway.transaction-id-prefix}") String transactionIdPrefix) {
+        return factory -> factory.setTransactionIdPrefix(transactionIdPrefix);
+    }
+
+    @Bean
+    public KafkaTransactionManager<?, ?> kafkaTransactionManager(ProducerFactory<?, ?> producerFactory) {
+        return new KafkaTransactionManager<>(producerFactory);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentEvent> transactionalKafkaListenerContainerFactory(
+            ConsumerFactory<String, PaymentEvent> paymentEventConsumerFactory,
+            KafkaTransactionManager<?, ?> kafkaTransactionManager,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            DeadLetterPublishingRecoverer gatewayDeadLetterRecoverer,
+            ObjectProvider<ConsumerAwareRebalanceListener> ledgerRebalanceListener,
+            @Value("${app.gateway.max-attempts:5}") int maxAttempts) {
+        var f = new ConcurrentKafkaListenerContainerFactory<String, PaymentEvent>();
+        f.setConsumerFactory(paymentEventConsumerFactory);
+        f.setBatchListener(true);
+        f.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        f.getContainerProperties().setKafkaAwareTransactionManager(kafkaTransactionManager);
+        // transação abortada: reposiciona o lote inteiro e tenta de novo. Registro que falha ao
+        // autorizar é desviado pelo próprio listener; o que sobra aqui (ex.: falha no commit) tem
+        // tentativas contadas e depois o lote vai para a DLQ com os offsets comitados
+        f.setAfterRollbackProcessor(new DefaultAfterRollbackProcessor<>(gatewayDeadLetterRecoverer,
+                new FixedBackOff(ROLLBACK_INTERVAL_MS, maxAttempts), kafkaTemplate, true));
+        ledgerRebalanceListener.ifAvailable(f.getContainerProperties()::setConsumerRebalanceListener);
+        f.setConcurrency(authorizePartitions);
+        return f;
+    }
+}
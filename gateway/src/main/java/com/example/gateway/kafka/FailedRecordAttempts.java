@@ -0,0 +1,33 @@
+package com.example.gateway.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Falhas seguidas do registro que está travando cada partição. Como a partição só avança depois
+ * dele, basta um contador por partição: outro offset zera a contagem. Quem chama decide o que
+ * fazer ao atingir o limite (tipicamente DLQ e seguir).
+ */
+public class FailedRecordAttempts {
+
+    private final Map<TopicPartition, long[]> failing = new ConcurrentHashMap<>();
+
+    /** Conta mais uma falha do registro e devolve quantas ele já teve, esta incluída. */
+    public int failed(ConsumerRecord<?, ?> record) {
+        long[] attempt = failing.compute(new TopicPartition(record.topic(), record.partition()), (tp, current) ->
+                current != null && current[0] == record.offset() ? new long[]{record.offset(), current[1] + 1}
+                        : new long[]{record.offset(), 1});
+        return (int) attempt[1];
+    }
+
+    /** O registro foi processado (ou desviado para a DLQ): libera a contagem da partição. */
+    public void resolved(ConsumerRecord<?, ?> record) {
+        if (!failing.isEmpty()) {
+            failing.computeIfPresent(new TopicPartition(record.topic(), record.partition()),
+                    (tp, current) -> current[0] == record.offset() ? null : current);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.gateway.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Controle de commit por partição para envios em voo fora de ordem. Cada registro recebe um
+ * {@link Ticket}; o ack só é dado no último registro da sequência contígua de tickets concluídos,
+ * então um envio lento ou com falha nunca é ultrapassado pelo commit de um posterior.
+ *
+ * <p>Cada partição tem no máximo {@code maxInFlight} tickets pendentes: ao encher, a partição é
+ * pausada e volta quando a janela cai à metade. Se um envio falha, a partição é reposicionada no
+ * offset com falha; os registros posteriores que ainda chegarem do poll corrente são ignorados e,
+ * quando reentregues, reaproveitam o ticket anterior (já publicado ou ainda em voo) em vez de
+ * serem processados de novo.
+ *
+ * <p>Um offset que falha {@code maxAttempts} vezes seguidas volta da reentrega com
+ * {@link Ticket#exhaustedCause()} preenchido: quem chama desvia o registro (DLQ) e conclui o ticket,
+ * em vez de reposicionar a partição para sempre no mesmo registro.
+ *
+ * <p>Um ticket concluído pode levar uma ação de assentamento ({@link #completed(Ticket, Runnable)}),
+ * executada quando ele sai da janela, em ordem de offset: é o ponto em que tudo até ele está
+ * concluído, onde o estado local pode gravar a posição da partição.
+ *
+ * <p>{@link #track} roda na thread do consumidor; {@link #completed}/{@link #failed}, em qualquer thread.
+ */
+public class PartitionCommitTracker {
+
+    /** Operações sobre a partição no container; todas podem ser chamadas de qualquer thread. */
+    public interface PartitionControl {
+        void pause(TopicPartition partition);
+
+        void resume(TopicPartition partition);
+
+        void seek(TopicPartition partition, long offset);
+    }
+
+    private final int maxInFlight;
+    private final int maxAttempts;
+    private final PartitionControl control;
+    private final Map<TopicPartition, Window> windows = new ConcurrentHashMap<>();
+
+    public PartitionCommitTracker(int maxInFlight, int maxAttempts, PartitionControl control) {
+        this.maxInFlight = maxInFlight;
+        this.maxAttempts = maxAttempts;
+        this.control = control;
+    }
+
+    /**
+     * Registra o registro na janela da partição. Devolve {@code null} quando o registro não deve ser
+     * processado: sobra do poll após um reposicionamento ou reentrega de um envio já feito.
+     */
+    public Ticket track(ConsumerRecord<?, ?> record, Acknowledgment ack) {
+        TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+        Window w = windows.computeIfAbsent(tp, Window::new);
+        synchronized (w) {
+            long offset = record.offset();
+            if (w.rewindTo >= 0) {
+                if (offset != w.rewindTo) {
+                    return null; // o seek ainda não valeu: será reentregue
+                }
+                w.rewindTo = -1;
+            }
+            Ticket previous = w.detached.remove(offset);
+            if (previous != null && previous.state != State.FAILED) {
+                // já publicado (ou em voo) antes do reposicionamento: só volta para a janela
+                previous.ack = ack;
+                previous.detached = false;
+                w.pending.add(previous);
+                advance(w);
+                return null;
+            }
+            Ticket ticket = new Ticket(w, offset, ack);
+            if (offset == w.failingOffset && w.failures >= maxAttempts) {
+                ticket.exhaustedCause = w.lastFailure;
+            }
+            w.pending.add(ticket);
+            if (!w.paused && w.pending.size() >= maxInFlight) {
+                w.paused = true;
+                control.pause(tp);
+            }
+            return ticket;
+        }
+    }
+
+    public void completed(Ticket ticket) {
+        completed(ticket, null);
+    }
+
+    /** @param settle roda quando o ticket sai da janela, com a janela travada; {@code null} para nada */
+    public void completed(Ticket ticket, Runnable settle) {
+        ticket.settle = settle;
+        finish(ticket, State.DONE, null);
+    }
+
+    public void failed(Ticket ticket, Throwable cause) {
+        finish(ticket, State.FAILED, cause);
+    }
+
+    /** Descarta o estado das partições revogadas; os envios em voo delas não geram mais ack. */
+    public void revoke(Collection<TopicPartition> partitions) {
+        for (TopicPartition tp : partitions) {
+            Window w = windows.remove(tp);
+            if (w != null) {
+                synchronized (w) {
+                    w.revoked = true;
+                    if (w.paused) {
+                        control.resume(tp);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Tickets pendentes (não comitados) da partição; para métricas e testes. */
+    public int inFlight(TopicPartition tp) {
+        Window w = windows.get(tp);
+        if (w == null) {
+            return 0;
+        }
+        synchronized (w) {
+            return w.pending.size();
+        }
+    }
+
+    private void finish(Ticket ticket, State state, Throwable cause) {
+        Window w = ticket.window;
+        synchronized (w) {
+            ticket.state = state;
+            if (w.revoked || ticket.detached) {
+                return; // fora da janela: decide quando (e se) for reentregue
+            }
+            if (state == State.FAILED) {
+                countFailure(w, ticket.offset, cause);
+                rewind(w, ticket);
+            } else if (ticket.offset == w.failingOffset) {
+                w.failingOffset = -1;
+                w.lastFailure = null;
+            }
+            advance(w);
+        }
+    }
+
+    /** Confirma a sequência contígua de concluídos a partir do início da janela. */
+    private void advance(Window w) {
+        Ticket last = null;
+        Ticket head;
+        while ((head = w.pending.peek()) != null && head.state == State.DONE) {
+            last = w.pending.poll();
+            if (last.settle != null) {
+                last.settle.run();
+            }
+        }
+        if (last != null) {
+            last.ack.acknowledge();
+        }
+        if (w.paused && w.pending.size() <= maxInFlight / 2) {
+            w.paused = false;
+            control.resume(w.partition);
+        }
+    }
+
+    /** A partição só avança depois do offset que falhou: basta contar as falhas seguidas dele. */
+    private static void countFailure(Window w, long offset, Throwable cause) {
+        if (offset != w.failingOffset) {
+            w.failingOffset = offset;
+            w.failures = 0;
+        }
+        w.failures++;
+        w.lastFailure = cause;
+    }
+
+    /** Reposiciona no ticket com falha; os posteriores saem da janela até serem reentregues. */
+    private void rewind(Window w, Ticket failed) {
+        var kept = new ArrayDeque<Ticket>(w.pending.size());
+        for (Ticket t : w.pending) {
+            if (t.offset < failed.offset) {
+                kept.add(t);
+            } else if (t != failed) {
+                t.detached = true;
+                w.detached.put(t.offset, t);
+            }
+        }
+        w.pending.clear();
+        w.pending.addAll(kept);
+        w.rewindTo = failed.offset;
+        control.seek(w.partition, failed.offset);
+    }
+
+    private enum State { IN_FLIGHT, DONE, FAILED }
+
+    private static final class Window {
+        final TopicPartition partition;
+        final ArrayDeque<Ticket> pending = new ArrayDeque<>();
+        // tickets posteriores a uma falha, aguardando a reentrega do próprio offset
+        final Map<Long, Ticket> detached = new HashMap<>();
+        long rewindTo = -1;
+        long failingOffset = -1;
+        int failures;
+        Throwable lastFailure;
+        boolean paused;
+        boolean revoked;
+
+        Window(TopicPartition partition) {
+            this.partition = partition;
+        }
+    }
+
+    /** Posição de um registro na janela da partição. */
+    public static final class Ticket {
+        private final Window window;
+        private final long offset;
+        private Acknowledgment ack;
+        private State state = State.IN_FLIGHT;
+        private boolean detached;
+        private Throwable exhaustedCause;
+        private Runnable settle;
+
+        private Ticket(Window window, long offset, Acknowledgment ack) {
+            this.window = window;
+            this.offset = offset;
+            this.ack = ack;
+        }
+
+        public long offset() {
+            return offset;
+        }
+
+        /** Última falha do offset se ele já esgotou as tentativas; {@code null} enquanto pode ser processado. */
+        public Throwable exhaustedCause() {
+            return exhaustedCause;
+        }
+    }
+}
@@ -2,67 +2,257 @@ package com.example.gateway.service;
 
 import com.example.common.enuns.Status;
 import com.example.common.event.PaymentEvent;
+import com.example.common.event.PaymentRejectedEvent;
+import com.example.common.trace.StageTimers;
+import com.example.common.trace.TraceHeaders;
+import com.example.gateway.authorization.AuthorizationDecision;
+import com.example.gateway.authorization.AuthorizationEngine;
+import com.example.gateway.kafka.PartitionCommitTracker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
 @Service
-public class AuthorizationService {
+public class AuthorizationService extends AbstractConsumerSeekAware {
 
     private static final Logger log = LoggerFactory.getLogger(AuthorizationService.class);
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    static final String RECORD_LISTENER_ID = "authorize-record";
 
-    @Value("${app.kafka.topics.persist-in.name}")
-    private String persistTopic;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final AuthorizationEngine authorizationEngine;
+    private final PartitionCommitTracker commitTracker;
+    private final DeadLetterPublishingRecoverer deadLetterRecoverer;
+    private final int sendAttempts;
+    private final Timer consumeStage;
+    private final Timer publishStage;
 
+    private final String persistTopic;
+    private final String rejectedTopic;
 
-    public AuthorizationService(KafkaTemplate<String, Object> kafkaTemplate) {
+    public AuthorizationService(KafkaTemplate<String, Object> kafkaTemplate,
+                                AuthorizationEngine authorizationEngine,
+                                KafkaListenerEndpointRegistry listenerRegistry,
+                                DeadLetterPublishingRecoverer gatewayDeadLetterRecoverer,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.kafka.topics.persist-in.name}") String persistTopic,
+                                @Value("${app.kafka.topics.rejected.name}") String rejectedTopic,
+                                @Value("${app.gateway.in-flight-per-partition:256}") int inFlightPerPartition,
+                                @Value("${app.gateway.send-attempts:3}") int sendAttempts,
+                                @Value("${app.gateway.max-attempts:5}") int maxAttempts) {
         this.kafkaTemplate = kafkaTemplate;
+        this.deadLetterRecoverer = gatewayDeadLetterRecoverer;
+        this.authorizationEngine = authorizationEngine;
+        this.sendAttempts = sendAttempts;
+        this.persistTopic = persistTopic;
+        this.rejectedTopic = rejectedTopic;
+        this.consumeStage = StageTimers.of(meterRegistry, "gateway_consume");
+        this.publishStage = StageTimers.of(meterRegistry, "gateway_publish");
+        this.commitTracker = new PartitionCommitTracker(inFlightPerPartition, maxAttempts, new PartitionCommitTracker.PartitionControl() {
+            @Override
+            public void pause(TopicPartition partition) {
+                listenerRegistry.getListenerContainer(RECORD_LISTENER_ID).pausePartition(partition);
+            }
+
+            @Override
+            public void resume(TopicPartition partition) {
+                listenerRegistry.getListenerContainer(RECORD_LISTENER_ID).resumePartition(partition);
+            }
+
+            @Override
+            public void seek(TopicPartition partition, long offset) {
+                for (var callback : getSeekCallbacksFor(partition)) {
+                    callback.seek(partition.topic(), partition.partition(), offset);
+                }
+            }
+        });
     }
 
+    /**
+     * Vários envios por partição em voo ao mesmo tempo; o {@link PartitionCommitTracker} só
+     * comita o maior offset contíguo concluído e pausa a partição quando a janela enche.
+     */
     @KafkaListener(
+            id = RECORD_LISTENER_ID,
             topics = "${app.kafka.topics.authorize-in.name}",
             groupId = "${spring.kafka.consumer.group-id}",
-            containerFactory = "paymentEventKafkaListenerContainerFactory"
+            containerFactory = "paymentEventKafkaListenerContainerFactory",
+            // só no modo record (padrão); os demais modos têm listener próprio
+            autoStartup = "#{'${app.gateway.listener-mode:record}' == 'record'}"
     )
-    public void processPaymentAuthorization(@Payload PaymentEvent event, Acknowledgment ack) {
+    public void processPaymentAuthorization(ConsumerRecord<String, PaymentEvent> record, Acknowledgment ack) {
+        PartitionCommitTracker.Ticket ticket = commitTracker.track(record, ack);
+        if (ticket == null) {
+            return; // reentrega de algo já publicado ou sobra do poll antes de um seek
+        }
+        PaymentEvent event = record.value();
+        if (event == null) {
+            // falha de desserialização (ErrorHandlingDeserializer): não há o que reprocessar
+            log.warn("Registro ilegível em {}-{}@{}", record.topic(), record.partition(), record.offset());
+            commitTracker.completed(ticket, settle(null, record.partition(), ticket, null));
+            return;
+        }
+        if (ticket.exhaustedCause() != null) {
+            deadLetter(record, ticket);
+            return;
+        }
+        int partition = record.partition();
+        Outcome outcome;
         try {
-            PaymentEvent authorized = new PaymentEvent(
-                    event.txId(),
-                    event.createdAt(),
-                    event.merchantId(),
-                    event.customerId(),
-                    event.terminalId(),
-                    event.amount(),
-                    event.currency(),
-                    event.method(),
-                    event.entryMode(),
-                    event.cardHash(),
-                    Status.AUTHORIZED
-            );
-
-            kafkaTemplate.send(persistTopic, event.txId().toString(), authorized)
-                    .thenAccept(result -> {
+            outcome = authorize(record);
+        } catch (Exception e) {
+            log.error("Erro ao autorizar txId={}", event.txId(), e);
+            commitTracker.failed(ticket, e); // reposiciona -> reprocesso
+            return;
+        }
+        publish(event, partition, outcome, ticket, 1);
+    }
+
+    private void publish(PaymentEvent event, int partition, Outcome outcome, PartitionCommitTracker.Ticket ticket, int attempt) {
+        // o producer fecha os headers de um registro já enviado: o reenvio vai numa cópia
+        kafkaTemplate.send(attempt == 1 ? outcome.record() : copyOf(outcome.record()))
+                .whenComplete((result, ex) -> {
+                    if (ex == null) {
                         var m = result.getRecordMetadata();
-                        log.info("Publicado em {} partition={} offset={} txId={}",
+                        log.debug("Publicado em {} partition={} offset={} txId={}",
                                 m.topic(), m.partition(), m.offset(), event.txId());
-                        ack.acknowledge();
-                    })
-                    .exceptionally(ex -> {
-                        log.error("Falha ao publicar em {} txId={}", persistTopic, event.txId(), ex);
-                        // Sem ack -> reprocesso
-                        return null;
-                    });
+                        published(outcome);
+                        authorizationEngine.confirm(event, partition, outcome.decision());
+                        commitTracker.completed(ticket, settle(event, partition, ticket, outcome.decision()));
+                    } else if (attempt < sendAttempts) {
+                        // reenvia o mesmo registro antes de reposicionar a partição
+                        log.warn("Falha ao publicar em {} txId={} (tentativa {}), reenviando",
+                                outcome.record().topic(), event.txId(), attempt);
+                        publish(event, partition, outcome, ticket, attempt + 1);
+                    } else {
+                        log.error("Falha ao publicar em {} txId={}", outcome.record().topic(), event.txId(), ex);
+                        authorizationEngine.rollback(event, partition, outcome.decision());
+                        commitTracker.failed(ticket, ex); // reposiciona -> reprocesso
+                    }
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("Erro ao autorizar txId={}", event.txId(), e);
-            // Sem ack -> reprocesso
+    /**
+     * Na thread do consumidor (o recoverer espera o ack da DLQ, o que travaria a thread do
+     * producer). Se nem a DLQ aceitar, a partição volta para o registro e tenta de novo no próximo poll.
+     */
+    private void deadLetter(ConsumerRecord<String, PaymentEvent> record, PartitionCommitTracker.Ticket ticket) {
+        Throwable cause = ticket.exhaustedCause();
+        try {
+            deadLetterRecoverer.accept(record, cause instanceof Exception e ? e : new IllegalStateException(cause));
+        } catch (RuntimeException e) {
+            log.error("Falha ao enviar txId={} para a DLQ", record.value().txId(), e);
+            commitTracker.failed(ticket, cause);
+            return;
         }
+        log.error("txId={} esgotou as tentativas; enviado para a DLQ", record.value().txId(), cause);
+        commitTracker.completed(ticket, settle(null, record.partition(), ticket, null));
+    }
+
+    /** Assenta a decisão no estado do motor quando o ticket sai da janela (ordem de offset). */
+    private Runnable settle(PaymentEvent event, int partition, PartitionCommitTracker.Ticket ticket,
+                            AuthorizationDecision decision) {
+        return () -> authorizationEngine.settle(event, partition, ticket.offset(), decision);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        super.onPartitionsRevoked(partitions);
+        commitTracker.revoke(partitions);
+    }
+
+    /** Decisão do motor de regras e o registro de saída correspondente. */
+    public record Outcome(AuthorizationDecision decision, ProducerRecord<String, Object> record) {}
+
+    /**
+     * Como {@link #authorize(PaymentEvent, int)}, levando para o registro de saída o rastreio do de
+     * entrada mais os carimbos de consumo e de decisão do gateway. O de decisão sai antes do send
+     * (headers não mudam depois); o ack da publicação é medido em {@link #published}.
+     */
+    public Outcome authorize(ConsumerRecord<String, PaymentEvent> record) {
+        long consumedMicros = TraceHeaders.nowMicros();
+        long acceptedMicros = TraceHeaders.read(record.headers(), TraceHeaders.API_ACCEPT);
+        if (acceptedMicros > 0) {
+            consumeStage.record(consumedMicros - acceptedMicros, TimeUnit.MICROSECONDS);
+        }
+        Outcome outcome = authorize(record.value(), record.partition(), TraceHeaders.traceId(record.headers()));
+        Headers out = outcome.record().headers();
+        TraceHeaders.propagate(record.headers(), out);
+        TraceHeaders.stamp(out, TraceHeaders.GATEWAY_CONSUME, consumedMicros);
+        TraceHeaders.stamp(out, TraceHeaders.GATEWAY_DECIDE, TraceHeaders.nowMicros());
+        return outcome;
+    }
+
+    /** Mede o estágio gateway_publish (consumo até o ack da saída). */
+    public void published(Outcome outcome) {
+        long consumedMicros = TraceHeaders.read(outcome.record().headers(), TraceHeaders.GATEWAY_CONSUME);
+        if (consumedMicros > 0) {
+            publishStage.record(TraceHeaders.nowMicros() - consumedMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    /** Aplica o motor de regras e monta o registro de saída (persist-in ou rejected). */
+    public Outcome authorize(PaymentEvent event, int partition) {
+        return authorize(event, partition, null);
+    }
+
+    private Outcome authorize(PaymentEvent event, int partition, UUID traceId) {
+        AuthorizationDecision decision = authorizationEngine.decide(event, partition);
+        String key = event.txId().toString();
+        if (decision.approved()) {
+            return new Outcome(decision, new ProducerRecord<>(persistTopic, key, withStatus(event, Status.AUTHORIZED)));
+        }
+        log.debug("Pagamento rejeitado txId={} code={} detail={}", event.txId(), decision.code(), decision.detail());
+        return new Outcome(decision, new ProducerRecord<>(rejectedTopic, key, new PaymentRejectedEvent(
+                event.txId(),
+                event.merchantId(),
+                event.customerId(),
+                event.amount(),
+                Status.REJECTED,
+                decision.code(),
+                decision.detail(),
+                traceId,
+                Instant.now()
+        )));
+    }
+
+    private static ProducerRecord<String, Object> copyOf(ProducerRecord<String, Object> r) {
+        return new ProducerRecord<>(r.topic(), r.partition(), r.timestamp(), r.key(), r.value(),
+                new RecordHeaders(r.headers().toArray()));
+    }
+
+    private static PaymentEvent withStatus(PaymentEvent event, Status status) {
+        return new PaymentEvent(
+                event.txId(),
+                event.createdAt(),
+                event.merchantId(),
+                event.customerId(),
+                event.terminalId(),
+                event.amount(),
+                event.currency(),
+                event.method(),
+                event.entryMode(),
+                event.cardHash(),
+                status
+        );
     }
 }
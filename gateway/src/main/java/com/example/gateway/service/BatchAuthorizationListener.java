@@ -0,0 +1,153 @@
+package com.example.gateway.service;
+
+import com.example.common.event.PaymentEvent;
+import com.example.gateway.authorization.AuthorizationEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Processa o poll inteiro de uma vez: avalia as regras agrupando por partição (a ordem por chave
+ * se mantém dentro de cada grupo) com os grupos em paralelo no {@code authorizationPool}, publica
+ * todos os resultados, faz um único flush e deixa o container comitar o lote.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.gateway.listener-mode", havingValue = "batch")
+public class BatchAuthorizationListener {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final AuthorizationService authorizationService;
+    private final AuthorizationEngine authorizationEngine;
+    private final ForkJoinPool authorizationPool;
+
+    @KafkaListener(
+            id = "authorize-batch",
+            topics = "${app.kafka.topics.authorize-in.name}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void processPaymentAuthorizations(List<ConsumerRecord<String, PaymentEvent>> records) {
+        int n = records.size();
+        var outcomes = new AuthorizationService.Outcome[n];
+        Failure rejected = evaluate(records, outcomes);
+        // só o prefixo antes do primeiro registro que falhou segue; o resto volta a ser decidido
+        int limit = rejected == null ? n : rejected.index();
+        rollbackFrom(records, outcomes, limit);
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<?>[] sends = new CompletableFuture[n];
+        for (int i = 0; i < limit; i++) {
+            if (outcomes[i] != null) {
+                sends[i] = kafkaTemplate.send(outcomes[i].record());
+            }
+        }
+        kafkaTemplate.flush();
+
+        int failed = -1;
+        Throwable cause = null;
+        for (int i = 0; i < limit && failed < 0; i++) {
+            if (sends[i] == null) {
+                continue;
+            }
+            try {
+                sends[i].join();
+            } catch (CompletionException e) {
+                failed = i;
+                cause = e.getCause();
+            }
+        }
+        int confirmed = failed < 0 ? limit : failed;
+        for (int i = 0; i < confirmed; i++) {
+            ConsumerRecord<String, PaymentEvent> record = records.get(i);
+            if (outcomes[i] != null) {
+                authorizationEngine.confirm(record.value(), record.partition(), outcomes[i].decision());
+                authorizationService.published(outcomes[i]);
+            }
+            // o prefixo é o que o container comita: assenta em ordem, ilegíveis inclusive
+            authorizationEngine.settle(record.value(), record.partition(), record.offset(),
+                    outcomes[i] != null ? outcomes[i].decision() : null);
+        }
+        if (failed >= 0) {
+            // tudo a partir da falha volta a ser decidido na reentrega: desfaz as reservas desse sufixo
+            rollbackFrom(records, outcomes, failed);
+            throw new BatchListenerFailedException("Falha ao publicar o lote a partir do índice " + failed, cause, failed);
+        }
+        if (rejected != null) {
+            // o error handler comita o prefixo publicado e, esgotadas as tentativas, manda este para a DLQ
+            throw new BatchListenerFailedException("Falha ao autorizar o registro " + limit, rejected.cause(), limit);
+        }
+        log.debug("Lote de {} registros autorizado e publicado", n);
+    }
+
+    /**
+     * Avalia os grupos e espera todos terminarem, mesmo quando um falha: só então as reservas já
+     * feitas podem ser desfeitas. Devolve a falha de menor índice ({@code null} se nenhuma).
+     */
+    private Failure evaluate(List<ConsumerRecord<String, PaymentEvent>> records, AuthorizationService.Outcome[] outcomes) {
+        Map<Integer, List<Integer>> byPartition = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            byPartition.computeIfAbsent(records.get(i).partition(), p -> new ArrayList<>()).add(i);
+        }
+        if (byPartition.size() == 1) {
+            return evaluateGroup(records, byPartition.values().iterator().next(), outcomes);
+        }
+        List<ForkJoinTask<Failure>> tasks = new ArrayList<>(byPartition.size());
+        for (List<Integer> group : byPartition.values()) {
+            tasks.add(authorizationPool.submit(() -> evaluateGroup(records, group, outcomes)));
+        }
+        Failure first = null;
+        for (ForkJoinTask<Failure> task : tasks) {
+            Failure failure = task.join();
+            if (failure != null && (first == null || failure.index() < first.index())) {
+                first = failure;
+            }
+        }
+        return first;
+    }
+
+    /** Para no primeiro registro que falha: os seguintes da partição não podem passar à frente dele. */
+    private Failure evaluateGroup(List<ConsumerRecord<String, PaymentEvent>> records, List<Integer> group,
+                                  AuthorizationService.Outcome[] outcomes) {
+        for (int i : group) {
+            ConsumerRecord<String, PaymentEvent> record = records.get(i);
+            if (record.value() == null) {
+                // falha de desserialização (ErrorHandlingDeserializer): descarta e segue o lote
+                log.warn("Registro ilegível em {}-{}@{}", record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            try {
+                outcomes[i] = authorizationService.authorize(record);
+            } catch (RuntimeException e) {
+                return new Failure(i, e);
+            }
+        }
+        return null;
+    }
+
+    private void rollbackFrom(List<ConsumerRecord<String, PaymentEvent>> records, AuthorizationService.Outcome[] outcomes, int from) {
+        for (int i = from; i < outcomes.length; i++) {
+            if (outcomes[i] != null) {
+                authorizationEngine.rollback(records.get(i).value(), records.get(i).partition(), outcomes[i].decision());
+                outcomes[i] = null;
+            }
+        }
+    }
+
+    private record Failure(int index, RuntimeException cause) {}
+}
@@ -0,0 +1,107 @@
+package com.example.gateway.service;
+
+import com.example.common.event.PaymentEvent;
+import com.example.gateway.authorization.AuthorizationDecision;
+import com.example.gateway.authorization.AuthorizationEngine;
+import com.example.gateway.kafka.FailedRecordAttempts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Consume-transform-produce dentro da transação Kafka aberta pelo container
+ * (ver {@link com.example.gateway.config.TransactionalKafkaConfig}). As reservas de saldo só são
+ * efetivadas, e os registros assentados com seus offsets, quando a transação comita; se abortar,
+ * são desfeitas e o lote volta inteiro.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.gateway.listener-mode", havingValue = "transactional")
+public class TransactionalAuthorizationListener {
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final AuthorizationService authorizationService;
+    private final AuthorizationEngine authorizationEngine;
+    private final DeadLetterPublishingRecoverer gatewayDeadLetterRecoverer;
+    private final FailedRecordAttempts failedRecordAttempts;
+
+    @Value("${app.gateway.max-attempts:5}")
+    private int maxAttempts;
+
+    @KafkaListener(
+            id = "authorize-tx",
+            topics = "${app.kafka.topics.authorize-in.name}",
+            groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "transactionalKafkaListenerContainerFactory"
+    )
+    public void processPaymentAuthorizations(List<ConsumerRecord<String, PaymentEvent>> records) {
+        List<Decided> decided = new ArrayList<>(records.size());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boolean committed = status == STATUS_COMMITTED;
+                for (Decided d : decided) {
+                    ConsumerRecord<String, PaymentEvent> record = d.record();
+                    AuthorizationDecision decision = d.outcome() != null ? d.outcome().decision() : null;
+                    if (committed) {
+                        if (decision != null) {
+                            authorizationEngine.confirm(record.value(), record.partition(), decision);
+                            authorizationService.published(d.outcome());
+                        }
+                        // os offsets do lote foram na transação: assenta todos, em ordem
+                        authorizationEngine.settle(record.value(), record.partition(), record.offset(), decision);
+                    } else if (decision != null) {
+                        authorizationEngine.rollback(record.value(), record.partition(), decision);
+                    }
+                }
+                if (!committed) {
+                    log.warn("Transação abortada, {} registros serão reprocessados", records.size());
+                }
+            }
+        });
+
+        for (ConsumerRecord<String, PaymentEvent> record : records) {
+            PaymentEvent event = record.value();
+            if (event == null) {
+                // falha de desserialização (ErrorHandlingDeserializer): descarta e segue o lote
+                log.warn("Registro ilegível em {}-{}@{}", record.topic(), record.partition(), record.offset());
+                decided.add(new Decided(record, null));
+                continue;
+            }
+            AuthorizationService.Outcome outcome;
+            try {
+                outcome = authorizationService.authorize(record);
+            } catch (RuntimeException e) {
+                if (failedRecordAttempts.failed(record) < maxAttempts) {
+                    throw e; // aborta: o lote volta e o registro é tentado de novo
+                }
+                // publica na mesma transação: o offset só avança se a DLQ receber o registro
+                log.error("txId={} falhou {} vezes ao autorizar; enviando para a DLQ", event.txId(), maxAttempts, e);
+                gatewayDeadLetterRecoverer.accept(record, e);
+                failedRecordAttempts.resolved(record);
+                decided.add(new Decided(record, null));
+                continue;
+            }
+            failedRecordAttempts.resolved(record);
+            decided.add(new Decided(record, outcome));
+            // erros de envio aparecem no commit da transação, que então aborta o lote
+            kafkaTemplate.send(outcome.record());
+        }
+        log.debug("Lote transacional de {} registros publicado", records.size());
+    }
+
+    /** Registro do lote na ordem de consumo; {@code outcome} nulo se não houve decisão (ilegível, DLQ). */
+    private record Decided(ConsumerRecord<String, PaymentEvent> record, AuthorizationService.Outcome outcome) {}
+}
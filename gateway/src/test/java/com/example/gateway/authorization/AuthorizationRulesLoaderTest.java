@@ -0,0 +1,39 @@
+package com.example.gateway.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthorizationRulesLoaderTest {
+
+    @Test
+    void parsesEveryRuleKindIgnoringCommentsAndBlankLines() {
+        RuleSet rules = AuthorizationRulesLoader.parse(List.of(
+                "# regras de teste",
+                "",
+                "blacklist   card-1",
+                "  limit CUST-1 5000  ",
+                "limit CUST-2 -10",
+                "merchant MERCH-1 0"));
+
+        assertThat(rules.size()).isEqualTo(4);
+        assertThat(rules.isBlacklisted(Keys.of("card-1"))).isTrue();
+        assertThat(rules.isBlacklisted(Keys.of("card-2"))).isFalse();
+        assertThat(rules.customerLimit(Keys.of("CUST-1"))).isEqualTo(5000);
+        assertThat(rules.customerLimit(Keys.of("CUST-2"))).isEqualTo(-10);
+        assertThat(rules.customerLimit(Keys.of("CUST-3"))).isEqualTo(RuleSet.NO_LIMIT);
+        assertThat(rules.merchantMaxAmount(Keys.of("MERCH-1"))).isZero();
+    }
+
+    @Test
+    void rejectsUnknownDirectivesWithTheLineNumber() {
+        assertThatThrownBy(() -> AuthorizationRulesLoader.parse(List.of("# ok", "allow CUST-1")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Linha 2");
+        assertThatThrownBy(() -> AuthorizationRulesLoader.parse(List.of("limit CUST-1 muito")))
+                .isInstanceOf(NumberFormatException.class);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.gateway.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CustomerLedgerTest {
+
+    @Test
+    void concurrentReservesNeverExceedTheLimit() throws Exception {
+        var ledger = new CustomerLedger(1 << 4);
+        var granted = new AtomicInteger();
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 1_000; i++) {
+                if (ledger.reserve(42L, 10, 5_000)) {
+                    granted.incrementAndGet();
+                }
+            }
+        });
+
+        assertThat(granted.get()).isEqualTo(500);
+        assertThat(ledger.used(42L)).isEqualTo(5_000);
+    }
+
+    @Test
+    void concurrentReserveAndReleaseReturnToZeroWithOneSlotPerCustomer() throws Exception {
+        var ledger = new CustomerLedger(1 << 6);
+        int customers = 16;
+        runConcurrently(8, () -> {
+            for (int i = 0; i < 20_000; i++) {
+                long customer = i % customers + 1;
+                if (ledger.reserve(customer, 7, 1_000)) {
+                    ledger.release(customer, 7);
+                }
+            }
+        });
+
+        assertThat(ledger.size()).isEqualTo(customers);
+        var inFlight = new AtomicLong();
+        ledger.forEach((key, used, reserved) -> inFlight.addAndGet(used + reserved));
+        assertThat(inFlight.get()).isZero();
+    }
+
+    @Test
+    void commitKeepsTheConsumptionAndClearsTheReservation() {
+        var ledger = new CustomerLedger(1 << 4);
+        ledger.reserve(7L, 300, 1_000);
+        ledger.reserve(7L, 200, 1_000);
+        ledger.commit(7L, 300);
+
+        List<long[]> entries = new ArrayList<>();
+        ledger.forEach((key, used, reserved) -> entries.add(new long[]{key, used, reserved}));
+
+        assertThat(entries).singleElement().satisfies(e -> assertThat(e).containsExactly(7L, 500L, 200L));
+        assertThat(ledger.reserve(7L, 501, 1_000)).isFalse();
+    }
+
+    @Test
+    void fullTableFailsClosed() {
+        var ledger = new CustomerLedger(2);
+        assertThat(ledger.reserve(1L, 1, 10)).isTrue();
+        assertThat(ledger.reserve(2L, 1, 10)).isTrue();
+
+        assertThat(ledger.reserve(3L, 1, 10)).isFalse();
+        assertThat(ledger.used(3L)).isZero();
+    }
+
+    private static void runConcurrently(int threads, Runnable task) throws InterruptedException {
+        var start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                task.run();
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.gateway.authorization;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LedgerSnapshotterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoresOnlySettledConsumptionWithThePartitionPositions() {
+        var ledger = new CustomerLedger(1 << 4);
+        Path file = dir.resolve("ledger/customers.snap");
+        var snapshotter = new LedgerSnapshotter(ledger, file);
+        ledger.reserve(1L, 100, 1_000);
+        ledger.commit(1L, 100);
+        snapshotter.settle(0, 10, 1L, 100);
+        snapshotter.settle(0, 11, 0, 0); // rejeitado: só avança a posição
+        snapshotter.settle(3, 7, 2L, 250);
+        // publicado mas ainda sem commit do offset: fica fora do snapshot e é reentregue
+        ledger.reserve(2L, 50, 1_000);
+        ledger.commit(2L, 50);
+
+        snapshotter.snapshot();
+        var restored = new CustomerLedger(1 << 4);
+        var reloaded = new LedgerSnapshotter(restored, file);
+
+        assertThat(reloaded.restore()).isEqualTo(2);
+        assertThat(restored.used(1L)).isEqualTo(100);
+        assertThat(restored.used(2L)).isEqualTo(250);
+        assertThat(reloaded.position(0)).isEqualTo(12);
+        assertThat(reloaded.position(3)).isEqualTo(8);
+        assertThat(reloaded.position(1)).isEqualTo(-1);
+        assertThat(Files.exists(file.resolveSibling("customers.snap.tmp"))).isFalse();
+    }
+
+    @Test
+    void restoredStateKeepsAccumulatingAcrossSnapshots() {
+        Path file = dir.resolve("customers.snap");
+        var first = new LedgerSnapshotter(new CustomerLedger(1 << 4), file);
+        first.settle(0, 0, 1L, 100);
+        first.snapshot();
+
+        var restored = new CustomerLedger(1 << 4);
+        var second = new LedgerSnapshotter(restored, file);
+        second.restore();
+        second.settle(0, 1, 1L, 40);
+        second.settle(0, 2, 3L, 5);
+        second.snapshot();
+
+        var check = new CustomerLedger(1 << 4);
+        var last = new LedgerSnapshotter(check, file);
+        assertThat(last.restore()).isEqualTo(2);
+        assertThat(last.position(0)).isEqualTo(3);
+        assertThat(check.used(1L)).isEqualTo(140);
+        assertThat(check.used(3L)).isEqualTo(5);
+    }
+
+    @Test
+    void missingUnknownOrTruncatedFileRestoresNothing() throws Exception {
+        var ledger = new CustomerLedger(1 << 4);
+        Path file = dir.resolve("customers.snap");
+        assertThat(new LedgerSnapshotter(ledger, file).restore()).isZero();
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertThat(new LedgerSnapshotter(ledger, file).restore()).isZero();
+
+        var full = new LedgerSnapshotter(new CustomerLedger(1 << 4), file);
+        full.settle(0, 0, 1L, 100);
+        full.snapshot();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 8));
+        var truncated = new LedgerSnapshotter(ledger, file);
+
+        assertThat(truncated.restore()).isZero();
+        assertThat(truncated.position(0)).isEqualTo(-1);
+        assertThat(ledger.size()).isZero();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.gateway.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongLongHashMapTest {
+
+    @Test
+    void putOverwritesAndGetFallsBackToDefault() {
+        var map = new LongLongHashMap(4);
+        map.put(42L, 1L);
+        map.put(42L, 2L);
+
+        assertThat(map.get(42L, -1L)).isEqualTo(2L);
+        assertThat(map.get(43L, -1L)).isEqualTo(-1L);
+        assertThat(map.containsKey(43L)).isFalse();
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void zeroIsAValidKey() {
+        var map = new LongLongHashMap(4);
+        assertThat(map.containsKey(0L)).isFalse();
+
+        map.put(0L, 7L);
+        map.put(0L, 8L);
+
+        assertThat(map.containsKey(0L)).isTrue();
+        assertThat(map.get(0L, -1L)).isEqualTo(8L);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsPastTheExpectedSizeKeepingCollidingKeys() {
+        var map = new LongLongHashMap(2);
+        // a dobra (key ^ key >>> 32) zera os bits baixos: todas caem no slot 0 e sondam em sequência
+        int n = 1_000;
+        for (long i = 1; i <= n; i++) {
+            map.put(i << 32 | i, i);
+        }
+        map.put(0L, 0L);
+
+        assertThat(map.size()).isEqualTo(n + 1);
+        for (long i = 1; i <= n; i++) {
+            assertThat(map.get(i << 32 | i, -1L)).isEqualTo(i);
+        }
+        assertThat(map.get(0L, -1L)).isZero();
+    }
+}
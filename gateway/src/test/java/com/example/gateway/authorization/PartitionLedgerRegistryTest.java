@@ -0,0 +1,97 @@
+package com.example.gateway.authorization;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class PartitionLedgerRegistryTest {
+
+    private static final String TOPIC = "payments.authorize.in";
+    private static final List<TopicPartition> P0 = List.of(new TopicPartition(TOPIC, 0));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void assignedPartitionsHaveALedgerAndOthersDoNot() {
+        var registry = new PartitionLedgerRegistry(TOPIC, 1 << 10, dir.resolve("ledger.snapshot"));
+
+        registry.onPartitionsAssigned(null, P0);
+
+        assertThat(registry.ledgerFor(0)).isNotNull();
+        assertThat(registry.ledgerFor(1)).isNull();
+    }
+
+    @Test
+    void revokeSnapshotsTheShardAndReassignRestoresItAtTheSettledOffset() {
+        var registry = new PartitionLedgerRegistry(TOPIC, 1 << 10, dir.resolve("ledger.snapshot"));
+        RuleSet rules = RuleSet.builder().customerLimit("CUST-1", 1_000).build();
+        var engine = new RuleBasedAuthorizationEngine(() -> rules, registry);
+        registry.onPartitionsAssigned(null, P0);
+        PaymentEvent settled = event(300);
+        AuthorizationDecision first = engine.decide(settled, 0);
+        engine.confirm(settled, 0, first);
+        engine.settle(settled, 0, 41, first);
+        // publicado, mas o offset 42 não foi assentado: o consumidor volta nele e o reserva de novo
+        PaymentEvent unsettled = event(200);
+        engine.confirm(unsettled, 0, engine.decide(unsettled, 0));
+
+        registry.onPartitionsRevokedBeforeCommit(null, P0);
+        assertThat(registry.ledgerFor(0)).isNull();
+
+        Consumer<?, ?> consumer = mock(Consumer.class);
+        registry.onPartitionsAssigned(consumer, P0);
+        verify(consumer).seek(P0.get(0), 42);
+        assertThat(registry.ledgerFor(0).used(Keys.of("CUST-1"))).isEqualTo(300);
+    }
+
+    @Test
+    void partitionWithoutSettledOffsetKeepsTheCommittedPosition() {
+        var registry = new PartitionLedgerRegistry(TOPIC, 1 << 10, dir.resolve("ledger.snapshot"));
+        Consumer<?, ?> consumer = mock(Consumer.class);
+
+        registry.onPartitionsAssigned(consumer, P0);
+
+        verifyNoInteractions(consumer);
+    }
+
+    @Test
+    void lateConfirmAfterRevokeDoesNotRecreateTheShard() {
+        var registry = new PartitionLedgerRegistry(TOPIC, 1 << 10, dir.resolve("ledger.snapshot"));
+        RuleSet rules = RuleSet.builder().customerLimit("CUST-1", 1_000).build();
+        var engine = new RuleBasedAuthorizationEngine(() -> rules, registry);
+        PaymentEvent event = event(400);
+        registry.onPartitionsAssigned(null, P0);
+        AuthorizationDecision decision = engine.decide(event, 0);
+        assertThat(decision.reserved()).isTrue();
+
+        registry.onPartitionsRevokedBeforeCommit(null, P0);
+        engine.confirm(event, 0, decision);
+        engine.rollback(event, 0, decision);
+
+        assertThat(registry.ledgerFor(0)).isNull();
+        assertThatThrownBy(() -> engine.decide(event, 0)).isInstanceOf(IllegalStateException.class);
+        // a reserva em voo não entrou no snapshot: o novo dono a refaz na reentrega
+        registry.onPartitionsAssigned(null, P0);
+        assertThat(registry.ledgerFor(0).used(Keys.of("CUST-1"))).isZero();
+    }
+
+    private static PaymentEvent event(long amount) {
+        return new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-1", "CUST-1", "TERM-1",
+                amount, "BRL", "CREDIT", "CHIP", "card", Status.PENDING);
+    }
+}
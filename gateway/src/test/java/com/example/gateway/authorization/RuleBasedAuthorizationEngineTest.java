@@ -0,0 +1,100 @@
+package com.example.gateway.authorization;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleBasedAuthorizationEngineTest {
+
+    private static final long T0 = 1_000L * 3_600_000;
+
+    private final CustomerLedger ledger = new CustomerLedger(1 << 10);
+    private final RuleSet rules = RuleSet.builder()
+            .blacklistCard("card-stolen")
+            .merchantMaxAmount("MERCH-BLOCKED", 0)
+            .merchantMaxAmount("MERCH-CAPPED", 500)
+            .customerLimit("CUST-NEG", -1)
+            .customerLimit("CUST-1", 1_000)
+            .build();
+    private final RuleBasedAuthorizationEngine engine = new RuleBasedAuthorizationEngine(() -> rules, p -> ledger);
+
+    @Test
+    void rejectsByBlacklistMerchantAndNegativeCredit() {
+        assertThat(engine.decide(event("MERCH-1", "CUST-1", "card-stolen", 10), 0).code()).isEqualTo(RejectCode.BLACKLISTED);
+        assertThat(engine.decide(event("MERCH-BLOCKED", "CUST-1", "card", 10), 0).code()).isEqualTo(RejectCode.BLACKLISTED);
+        assertThat(engine.decide(event("MERCH-CAPPED", "CUST-1", "card", 501), 0).code()).isEqualTo(RejectCode.INVALID_REQUEST);
+        assertThat(engine.decide(event("MERCH-1", "CUST-NEG", "card", 10), 0).code()).isEqualTo(RejectCode.NEGATIVE_CREDIT);
+        assertThat(ledger.used(Keys.of("CUST-1"))).isZero();
+    }
+
+    @Test
+    void customerWithoutLimitIsApprovedWithoutReserving() {
+        AuthorizationDecision decision = engine.decide(event("MERCH-CAPPED", "CUST-FREE", "card", 500), 0);
+
+        assertThat(decision).isEqualTo(AuthorizationDecision.APPROVED);
+        assertThat(ledger.used(Keys.of("CUST-FREE"))).isZero();
+    }
+
+    @Test
+    void reservesUpToTheLimitAndRollbackGivesItBack() {
+        PaymentEvent first = event("MERCH-1", "CUST-1", "card", 600);
+        AuthorizationDecision approved = engine.decide(first, 0);
+        assertThat(approved.reserved()).isTrue();
+
+        assertThat(engine.decide(event("MERCH-1", "CUST-1", "card", 500), 0).code())
+                .isEqualTo(RejectCode.INSUFFICIENT_FUNDS);
+
+        engine.rollback(first, 0, approved);
+        assertThat(ledger.used(Keys.of("CUST-1"))).isZero();
+        AuthorizationDecision retried = engine.decide(event("MERCH-1", "CUST-1", "card", 1_000), 0);
+        engine.confirm(event("MERCH-1", "CUST-1", "card", 1_000), 0, retried);
+        assertThat(ledger.used(Keys.of("CUST-1"))).isEqualTo(1_000);
+    }
+
+    @Test
+    void velocityRejectionAndRollbackReleaseTheCounters() {
+        var cards = new VelocityCounters(1 << 10, 60_000, 3_600_000);
+        var terminals = new VelocityCounters(1 << 10, 60_000, 3_600_000);
+        var guard = new VelocityGuard(cards, VelocityLimits.of(1, 0, 0, 0), terminals, VelocityLimits.NONE, () -> T0);
+        var withVelocity = new RuleBasedAuthorizationEngine(() -> rules, p -> ledger, guard);
+
+        PaymentEvent first = event("MERCH-1", "CUST-FREE", "card", 10);
+        AuthorizationDecision approved = withVelocity.decide(first, 0);
+        assertThat(approved.approved()).isTrue();
+        assertThat(withVelocity.decide(event("MERCH-1", "CUST-FREE", "card", 10), 0).code())
+                .isEqualTo(RejectCode.VELOCITY_EXCEEDED);
+
+        // publicação falhou: a tentativa deixa de contar e a próxima passa
+        withVelocity.rollback(first, 0, approved);
+        assertThat(cards.shortCount(Keys.of("card"), T0)).isZero();
+        assertThat(withVelocity.decide(event("MERCH-1", "CUST-FREE", "card", 10), 0).approved()).isTrue();
+    }
+
+    @Test
+    void revokedPartitionFailsBeforeCountingVelocity() {
+        var cards = new VelocityCounters(1 << 10, 60_000, 3_600_000);
+        var guard = new VelocityGuard(cards, VelocityLimits.of(1, 0, 0, 0),
+                new VelocityCounters(1 << 10, 60_000, 3_600_000), VelocityLimits.NONE, () -> T0);
+        var revoked = new RuleBasedAuthorizationEngine(() -> rules, p -> p == 0 ? ledger : null, guard);
+        PaymentEvent event = event("MERCH-1", "CUST-1", "card", 10);
+
+        // sobra do poll da partição revogada: falha sem decisão, nada para o rollback liberar
+        assertThatThrownBy(() -> revoked.decide(event, 1)).isInstanceOf(IllegalStateException.class);
+        assertThat(cards.shortCount(Keys.of("card"), T0)).isZero();
+
+        // a reentrega no novo dono conta uma vez só e passa
+        assertThat(revoked.decide(event, 0).approved()).isTrue();
+    }
+
+    private static PaymentEvent event(String merchant, String customer, String card, long amount) {
+        return new PaymentEvent(UUID.randomUUID(), Instant.now(), merchant, customer, "TERM-1",
+                amount, "BRL", "CREDIT", "CHIP", card, Status.PENDING);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.gateway.authorization;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VelocityCountersTest {
+
+    private static final long MIN = 60_000;
+    private static final long HOUR = 60 * MIN;
+    private static final long T0 = 1_000 * HOUR; // início de uma hora e de um minuto
+
+    private final VelocityCounters counters = new VelocityCounters(1 << 10, MIN, HOUR);
+
+    @Test
+    void rejectsAboveTheShortWindowCountWithoutCountingTheAttempt() {
+        VelocityLimits limits = VelocityLimits.of(3, 0, 0, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(counters.tryAdd(7L, 100, T0 + i, limits)).isTrue();
+        }
+        assertThat(counters.tryAdd(7L, 100, T0 + 10, limits)).isFalse();
+        assertThat(counters.shortCount(7L, T0 + 10)).isEqualTo(3);
+        assertThat(counters.shortAmount(7L, T0 + 10)).isEqualTo(300);
+        // outra chave não é afetada
+        assertThat(counters.tryAdd(8L, 100, T0 + 10, limits)).isTrue();
+    }
+
+    @Test
+    void previousBucketDecaysAcrossTheSlidingWindow() {
+        VelocityLimits none = VelocityLimits.NONE;
+        for (int i = 0; i < 10; i++) {
+            counters.tryAdd(7L, 1, T0 + i, none);
+        }
+
+        // 15 s no minuto seguinte: 45 s do minuto anterior ainda contam
+        assertThat(counters.shortCount(7L, T0 + MIN + 15_000)).isEqualTo(7);
+        assertThat(counters.shortCount(7L, T0 + 2 * MIN)).isZero();
+        // a janela longa ainda tem tudo
+        assertThat(counters.longCount(7L, T0 + 2 * MIN)).isEqualTo(10);
+    }
+
+    @Test
+    void longWindowLimitsAmount() {
+        VelocityLimits limits = VelocityLimits.of(0, 0, 0, 1_000);
+
+        assertThat(counters.tryAdd(7L, 600, T0, limits)).isTrue();
+        assertThat(counters.tryAdd(7L, 600, T0 + 10 * MIN, limits)).isFalse();
+        assertThat(counters.tryAdd(7L, 400, T0 + 10 * MIN, limits)).isTrue();
+    }
+
+    @Test
+    void removeUndoesAnAdd() {
+        VelocityLimits limits = VelocityLimits.of(1, 0, 0, 0);
+
+        assertThat(counters.tryAdd(7L, 100, T0, limits)).isTrue();
+        counters.remove(7L, 100, T0 + 1);
+        assertThat(counters.tryAdd(7L, 100, T0 + 2, limits)).isTrue();
+    }
+
+    @Test
+    void removeAfterABucketBoundaryTakesFromThePreviousBucket() {
+        assertThat(counters.tryAdd(7L, 100, T0 + MIN - 1, VelocityLimits.NONE)).isTrue();
+
+        counters.remove(7L, 100, T0 + MIN + 1);
+
+        assertThat(counters.shortCount(7L, T0 + MIN + 1)).isZero();
+        assertThat(counters.shortAmount(7L, T0 + MIN + 1)).isZero();
+        // o balde novo não ficou negativo: o próximo evento conta como 1
+        counters.tryAdd(7L, 50, T0 + MIN + 2, VelocityLimits.NONE);
+        assertThat(counters.longCount(7L, T0 + MIN + 2)).isEqualTo(1);
+        assertThat(counters.shortCount(7L, T0 + 2 * MIN)).isEqualTo(1);
+        assertThat(counters.shortAmount(7L, T0 + 2 * MIN)).isEqualTo(50);
+    }
+
+    @Test
+    void fullSetEvictsTheLeastRecentlyActiveKey() {
+        var small = new VelocityCounters(VelocityCounters.WAYS, MIN, HOUR); // um conjunto só
+        for (long key = 1; key <= VelocityCounters.WAYS; key++) {
+            small.tryAdd(key, 1, T0 + key * MIN, VelocityLimits.NONE);
+        }
+        small.tryAdd(1L, 1, T0 + 10 * MIN, VelocityLimits.NONE); // chave 1 volta a ser a mais recente
+
+        small.tryAdd(99L, 1, T0 + 11 * MIN, VelocityLimits.NONE);
+
+        assertThat(small.evictions()).isEqualTo(1);
+        assertThat(small.longCount(2L, T0 + 11 * MIN)).isZero();
+        assertThat(small.longCount(1L, T0 + 11 * MIN)).isEqualTo(2);
+        assertThat(small.longCount(99L, T0 + 11 * MIN)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.gateway.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionCommitTrackerTest {
+
+    private static final TopicPartition TP = new TopicPartition("payments.authorize.in", 0);
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<Long> acked = new ArrayList<>();
+
+    private final PartitionCommitTracker.PartitionControl control = new PartitionCommitTracker.PartitionControl() {
+        @Override
+        public void pause(TopicPartition partition) {
+            calls.add("pause");
+        }
+
+        @Override
+        public void resume(TopicPartition partition) {
+            calls.add("resume");
+        }
+
+        @Override
+        public void seek(TopicPartition partition, long offset) {
+            calls.add("seek " + offset);
+        }
+    };
+
+    @Test
+    void acksOnlyTheContiguousPrefixOfCompletedTickets() {
+        var tracker = new PartitionCommitTracker(16, 3, control);
+        var t0 = track(tracker, 0);
+        var t1 = track(tracker, 1);
+        var t2 = track(tracker, 2);
+
+        tracker.completed(t1);
+        tracker.completed(t2);
+        assertThat(acked).isEmpty();
+        assertThat(tracker.inFlight(TP)).isEqualTo(3);
+
+        tracker.completed(t0);
+        assertThat(acked).containsExactly(2L);
+        assertThat(tracker.inFlight(TP)).isZero();
+    }
+
+    @Test
+    void pausesWhenTheWindowFillsAndResumesAtHalf() {
+        var tracker = new PartitionCommitTracker(4, 3, control);
+        var tickets = new ArrayList<PartitionCommitTracker.Ticket>();
+        for (long offset = 0; offset < 4; offset++) {
+            tickets.add(track(tracker, offset));
+        }
+        assertThat(calls).containsExactly("pause");
+
+        tracker.completed(tickets.get(0));
+        assertThat(calls).containsExactly("pause");
+        tracker.completed(tickets.get(1));
+        assertThat(calls).containsExactly("pause", "resume");
+        assertThat(tracker.inFlight(TP)).isEqualTo(2);
+    }
+
+    @Test
+    void failureRewindsAndRedeliveryReusesTicketsAlreadyPublished() {
+        var tracker = new PartitionCommitTracker(16, 3, control);
+        var t0 = track(tracker, 0);
+        var t1 = track(tracker, 1);
+        var t2 = track(tracker, 2);
+
+        tracker.completed(t2);
+        tracker.failed(t1, new RuntimeException("broker fora"));
+        tracker.completed(t0);
+        assertThat(calls).containsExactly("seek 1");
+        assertThat(acked).containsExactly(0L);
+        assertThat(tracker.inFlight(TP)).isZero();
+
+        // sobra do poll antes do seek valer
+        assertThat(track(tracker, 2)).isNull();
+        var retry = track(tracker, 1);
+        assertThat(retry).isNotNull();
+        assertThat(retry.exhaustedCause()).isNull();
+        // o 2 já foi publicado: volta para a janela sem novo processamento
+        assertThat(track(tracker, 2)).isNull();
+        assertThat(tracker.inFlight(TP)).isEqualTo(2);
+
+        tracker.completed(retry);
+        assertThat(acked).containsExactly(0L, 2L);
+    }
+
+    @Test
+    void offsetThatKeepsFailingIsHandedBackAsExhausted() {
+        var tracker = new PartitionCommitTracker(16, 3, control);
+        var cause = new IllegalStateException("regra quebrada");
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            var ticket = track(tracker, 5);
+            assertThat(ticket.exhaustedCause()).isNull();
+            tracker.failed(ticket, cause);
+        }
+        var exhausted = track(tracker, 5);
+        assertThat(exhausted.exhaustedCause()).isSameAs(cause);
+
+        // desviado para a DLQ: a partição segue e o contador zera
+        tracker.completed(exhausted);
+        assertThat(acked).containsExactly(5L);
+        assertThat(calls).containsExactly("seek 5", "seek 5", "seek 5");
+        tracker.failed(track(tracker, 6), cause);
+        assertThat(track(tracker, 6).exhaustedCause()).isNull();
+    }
+
+    @Test
+    void settlesCompletedTicketsInOffsetOrderOnlyWhenThePrefixAdvances() {
+        var tracker = new PartitionCommitTracker(16, 3, control);
+        var settled = new ArrayList<Long>();
+        var t0 = track(tracker, 0);
+        var t1 = track(tracker, 1);
+
+        tracker.completed(t1, () -> settled.add(1L));
+        assertThat(settled).isEmpty();
+
+        tracker.completed(t0, () -> settled.add(0L));
+        assertThat(settled).containsExactly(0L, 1L);
+        assertThat(acked).containsExactly(1L);
+    }
+
+    private PartitionCommitTracker.Ticket track(PartitionCommitTracker tracker, long offset) {
+        var record = new ConsumerRecord<String, Object>(TP.topic(), TP.partition(), offset, "k", "v");
+        Acknowledgment ack = () -> acked.add(offset);
+        return tracker.track(record, ack);
+    }
+}
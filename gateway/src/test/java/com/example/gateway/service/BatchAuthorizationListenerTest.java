@@ -0,0 +1,125 @@
+package com.example.gateway.service;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.gateway.authorization.AuthorizationDecision;
+import com.example.gateway.authorization.AuthorizationEngine;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchAuthorizationListenerTest {
+
+    private static final String TOPIC = "payments.authorize.in";
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final AuthorizationService authorizationService = mock(AuthorizationService.class);
+    private final AuthorizationEngine authorizationEngine = mock(AuthorizationEngine.class);
+
+    private final BatchAuthorizationListener listener = new BatchAuthorizationListener(
+            kafkaTemplate, authorizationService, authorizationEngine, ForkJoinPool.commonPool());
+
+    @Test
+    void decisionFailureInOnePartitionRollsBackTheSuffixAndReportsItsIndex() {
+        var a = record(0, 0);
+        var b = record(1, 0);
+        var c = record(0, 1);
+        var d = record(1, 1);
+        var oa = decided(a);
+        var ob = decided(b);
+        var od = decided(d);
+        when(authorizationService.authorize(c)).thenThrow(new IllegalStateException("regra quebrada"));
+        published(oa, ob, od);
+
+        assertThatThrownBy(() -> listener.processPaymentAuthorizations(List.of(a, b, c, d)))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(2));
+
+        // o prefixo antes da falha é publicado, confirmado e assentado
+        confirmedAndSettled(a, oa);
+        confirmedAndSettled(b, ob);
+        // d, da outra partição, foi decidido mas está depois da falha: volta na reentrega
+        verify(authorizationEngine).rollback(d.value(), 1, od.decision());
+        verify(kafkaTemplate, never()).send(od.record());
+        notConfirmed(c, d);
+    }
+
+    @Test
+    void failedSendInTheMiddleOfTheBatchConfirmsOnlyThePrefix() {
+        var records = new ArrayList<ConsumerRecord<String, PaymentEvent>>();
+        var outcomes = new ArrayList<AuthorizationService.Outcome>();
+        for (long offset = 0; offset < 4; offset++) {
+            var record = record(0, offset);
+            records.add(record);
+            outcomes.add(decided(record));
+        }
+        published(outcomes.get(0), outcomes.get(2), outcomes.get(3));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker fora")))
+                .when(kafkaTemplate).send(outcomes.get(1).record());
+
+        assertThatThrownBy(() -> listener.processPaymentAuthorizations(records))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(1));
+
+        confirmedAndSettled(records.get(0), outcomes.get(0));
+        for (int i = 1; i < 4; i++) {
+            verify(authorizationEngine).rollback(records.get(i).value(), 0, outcomes.get(i).decision());
+        }
+        notConfirmed(records.get(1), records.get(2), records.get(3));
+    }
+
+    private void confirmedAndSettled(ConsumerRecord<String, PaymentEvent> record, AuthorizationService.Outcome outcome) {
+        verify(authorizationEngine).confirm(record.value(), record.partition(), outcome.decision());
+        verify(authorizationService).published(outcome);
+        verify(authorizationEngine).settle(record.value(), record.partition(), record.offset(), outcome.decision());
+        verify(authorizationEngine, never()).rollback(eq(record.value()), anyInt(), any());
+    }
+
+    @SafeVarargs
+    private void notConfirmed(ConsumerRecord<String, PaymentEvent>... records) {
+        for (var record : records) {
+            verify(authorizationEngine, never()).confirm(eq(record.value()), anyInt(), any());
+            verify(authorizationEngine, never()).settle(eq(record.value()), anyInt(), anyLong(), any());
+        }
+    }
+
+    private AuthorizationService.Outcome decided(ConsumerRecord<String, PaymentEvent> record) {
+        var decision = new AuthorizationDecision(true, null, "txId=" + record.value().txId(), true);
+        var outcome = new AuthorizationService.Outcome(decision,
+                new ProducerRecord<>("payments.authorize.out", record.key(), record.value()));
+        when(authorizationService.authorize(record)).thenReturn(outcome);
+        return outcome;
+    }
+
+    private void published(AuthorizationService.Outcome... outcomes) {
+        for (var outcome : outcomes) {
+            doReturn(CompletableFuture.completedFuture(null)).when(kafkaTemplate).send(outcome.record());
+        }
+    }
+
+    private static ConsumerRecord<String, PaymentEvent> record(int partition, long offset) {
+        var event = new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-1", "CUST-" + partition, "TERM-1",
+                100, "BRL", "CREDIT", "CHIP", "card", Status.PENDING);
+        return new ConsumerRecord<>(TOPIC, partition, offset, event.customerId(), event);
+    }
+}
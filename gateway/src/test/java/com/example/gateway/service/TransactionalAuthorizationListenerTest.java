@@ -0,0 +1,117 @@
+package com.example.gateway.service;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.gateway.authorization.AuthorizationDecision;
+import com.example.gateway.authorization.AuthorizationEngine;
+import com.example.gateway.kafka.FailedRecordAttempts;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionalAuthorizationListenerTest {
+
+    private static final String TOPIC = "payments.authorize.in";
+
+    @SuppressWarnings("unchecked")
+    private final KafkaTemplate<String, Object> kafkaTemplate = mock(KafkaTemplate.class);
+    private final AuthorizationService authorizationService = mock(AuthorizationService.class);
+    private final AuthorizationEngine authorizationEngine = mock(AuthorizationEngine.class);
+    private final DeadLetterPublishingRecoverer recoverer = mock(DeadLetterPublishingRecoverer.class);
+
+    private final TransactionalAuthorizationListener listener = new TransactionalAuthorizationListener(
+            kafkaTemplate, authorizationService, authorizationEngine, recoverer, new FailedRecordAttempts());
+
+    @BeforeEach
+    void openTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void closeTransaction() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void commitConfirmsTheDecisionsAndSettlesEveryRecordInOrder() {
+        ReflectionTestUtils.setField(listener, "maxAttempts", 1);
+        var decided = record(0);
+        var unreadable = new ConsumerRecord<String, PaymentEvent>(TOPIC, 0, 1, "CUST-1", null);
+        var exhausted = record(2);
+        var outcome = decided(decided);
+        var cause = new IllegalStateException("regra quebrada");
+        when(authorizationService.authorize(exhausted)).thenThrow(cause);
+
+        listener.processPaymentAuthorizations(List.of(decided, unreadable, exhausted));
+        verify(recoverer).accept(exhausted, cause);
+        verify(authorizationEngine, never()).settle(any(), anyInt(), anyLong(), any());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        InOrder order = inOrder(authorizationEngine, authorizationService);
+        order.verify(authorizationEngine).confirm(decided.value(), 0, outcome.decision());
+        order.verify(authorizationService).published(outcome);
+        order.verify(authorizationEngine).settle(decided.value(), 0, 0, outcome.decision());
+        order.verify(authorizationEngine).settle(null, 0, 1, null);
+        order.verify(authorizationEngine).settle(exhausted.value(), 0, 2, null);
+        verify(authorizationEngine, never()).rollback(any(), anyInt(), any());
+    }
+
+    @Test
+    void failureBelowTheAttemptLimitAbortsAndRollsBackWithoutSettling() {
+        ReflectionTestUtils.setField(listener, "maxAttempts", 5);
+        var decided = record(0);
+        var failing = record(1);
+        var outcome = decided(decided);
+        var cause = new IllegalStateException("regra quebrada");
+        when(authorizationService.authorize(failing)).thenThrow(cause);
+
+        assertThatThrownBy(() -> listener.processPaymentAuthorizations(List.of(decided, failing))).isSameAs(cause);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(authorizationEngine).rollback(decided.value(), 0, outcome.decision());
+        verify(recoverer, never()).accept(any(), any());
+        verify(authorizationEngine, never()).confirm(any(), anyInt(), any());
+        verify(authorizationEngine, never()).settle(any(), anyInt(), anyLong(), any());
+        verify(authorizationService, never()).published(eq(outcome));
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(status));
+    }
+
+    private AuthorizationService.Outcome decided(ConsumerRecord<String, PaymentEvent> record) {
+        var outcome = new AuthorizationService.Outcome(AuthorizationDecision.APPROVED_RESERVED,
+                new ProducerRecord<>("payments.authorize.out", record.key(), record.value()));
+        when(authorizationService.authorize(record)).thenReturn(outcome);
+        return outcome;
+    }
+
+    private static ConsumerRecord<String, PaymentEvent> record(long offset) {
+        var event = new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-1", "CUST-1", "TERM-1",
+                100, "BRL", "CREDIT", "CHIP", "card", Status.PENDING);
+        return new ConsumerRecord<>(TOPIC, 0, offset, event.customerId(), event);
+    }
+}
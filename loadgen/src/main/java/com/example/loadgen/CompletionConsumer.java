@@ -0,0 +1,88 @@
+package com.example.loadgen;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Lê as chaves (txId, definidas pelo gateway) de payments.persist.in e payments.rejected e avisa o
+ * {@link CompletionTracker}. Sem grupo de consumo: assina todas as partições a partir do fim, então
+ * não disputa partições com o persister nem commita offsets. O valor não é desserializado.
+ */
+public class CompletionConsumer implements AutoCloseable {
+
+    private final KafkaConsumer<String, byte[]> consumer;
+    private final CompletionTracker tracker;
+    private final String rejectedTopic;
+    private final Thread thread;
+
+    public CompletionConsumer(String bootstrapServers, String persistTopic, String rejectedTopic,
+                              CompletionTracker tracker) {
+        this.tracker = tracker;
+        this.rejectedTopic = rejectedTopic;
+        this.consumer = new KafkaConsumer<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false,
+                ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 10,
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 5000),
+                new StringDeserializer(), new ByteArrayDeserializer());
+
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (String topic : List.of(persistTopic, rejectedTopic)) {
+            consumer.partitionsFor(topic).forEach(p -> partitions.add(new TopicPartition(p.topic(), p.partition())));
+        }
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+        // resolve o seek agora: o que for publicado depois disso pertence a esta execução
+        partitions.forEach(consumer::position);
+
+        this.thread = Thread.ofPlatform().name("loadgen-completion").daemon().start(this::run);
+    }
+
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(Duration.ofMillis(100));
+                long now = System.nanoTime();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    UUID txId = parse(record.key());
+                    if (txId != null) {
+                        tracker.seen(txId, now, rejectedTopic.equals(record.topic()));
+                    }
+                }
+            }
+        } catch (WakeupException e) {
+            // close()
+        } finally {
+            consumer.close();
+        }
+    }
+
+    private static UUID parse(String key) {
+        if (key == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        consumer.wakeup();
+        thread.join();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.loadgen;
+
+import org.HdrHistogram.Recorder;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Correlaciona o 202 da API (txId + instante planejado da requisição) com o evento do mesmo txId
+ * visto em payments.persist.in ou payments.rejected. As duas pontas chegam em qualquer ordem: o
+ * consumer pode ver o evento antes de a resposta HTTP voltar, então quem chega primeiro deixa uma
+ * marca e quem chega depois fecha a latência E2E (instante planejado -> visto no tópico).
+ *
+ * <p>Marcas só do lado do tópico que nunca casam (aquecimento, tráfego de outros clientes,
+ * reentregas) saem em {@link #evictUnmatched(long)}.
+ */
+public class CompletionTracker {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final ConcurrentHashMap<UUID, Mark> marks = new ConcurrentHashMap<>();
+    private final Recorder e2e = new Recorder(3);
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /** A API aceitou {@code txId}; {@code intendedNanos} é quando a requisição deveria ter saído. */
+    public void accepted(UUID txId, long intendedNanos) {
+        complete(txId, marks.merge(txId, new Mark(intendedNanos, NONE, false), Mark::join));
+    }
+
+    /** O evento de {@code txId} apareceu no tópico de saída em {@code seenNanos}. */
+    public void seen(UUID txId, long seenNanos, boolean rejectedTopic) {
+        complete(txId, marks.merge(txId, new Mark(NONE, seenNanos, rejectedTopic), Mark::join));
+    }
+
+    private void complete(UUID txId, Mark mark) {
+        // só uma das duas pontas produz a marca completa, e só quem a remove registra
+        if (!mark.joined() || !marks.remove(txId, mark)) {
+            return;
+        }
+        e2e.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(mark.seenNanos() - mark.intendedNanos())));
+        confirmed.increment();
+        if (mark.rejected()) {
+            rejected.increment();
+        }
+    }
+
+    /** Descarta marcas só do tópico vistas antes de {@code cutoffNanos}. */
+    public void evictUnmatched(long cutoffNanos) {
+        marks.values().removeIf(m -> m.intendedNanos() == NONE && m.seenNanos() < cutoffNanos);
+    }
+
+    /** Zera contadores e marcas no início de uma fase medida. */
+    public void reset() {
+        marks.clear();
+        e2e.reset();
+        confirmed.reset();
+        rejected.reset();
+    }
+
+    /** Latência E2E em microssegundos registrada desde a última chamada. */
+    public Recorder e2e() {
+        return e2e;
+    }
+
+    public long confirmed() {
+        return confirmed.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private record Mark(long intendedNanos, long seenNanos, boolean rejected) {
+
+        boolean joined() {
+            return intendedNanos != NONE && seenNanos != NONE;
+        }
+
+        static Mark join(Mark a, Mark b) {
+            return new Mark(a.intendedNanos != NONE ? a.intendedNanos : b.intendedNanos,
+                    a.seenNanos != NONE ? a.seenNanos : b.seenNanos,
+                    a.rejected || b.rejected);
+        }
+    }
+}
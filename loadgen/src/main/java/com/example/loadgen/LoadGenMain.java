@@ -0,0 +1,102 @@
+package com.example.loadgen;
+
+import com.example.loadgen.OpenLoopDriver.PhaseResult;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Sweep E2E em Java: para cada rate, aquecimento opcional, fase medida e uma linha no
+ * {@code <out-prefix>_sweep_summary.csv} (colunas do {@code teest/e2e_tps.py}, com p50/p95/p99 em
+ * segundos). O script confirma no banco; aqui a confirmação é o txId visto em payments.persist.in ou
+ * payments.rejected, daí {@code confirmed_pipeline} e {@code pipeline_confirm_ratio} no lugar de
+ * {@code confirmed_db} e {@code db_confirm_ratio}. {@code dropped_ratio}, logo depois dos percentis,
+ * é a fração das chegadas que ficou fora deles.
+ *
+ * <pre>
+ * java -jar target/loadgen.jar --sweep 100,200,400 --seconds 60 --warmup-s 10
+ * </pre>
+ */
+public class LoadGenMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadGenOptions options = LoadGenOptions.parse(args);
+        CompletionTracker tracker = options.confirm() ? new CompletionTracker() : null;
+        CompletionConsumer consumer = tracker == null ? null : new CompletionConsumer(
+                options.bootstrapServers(), options.persistTopic(), options.rejectedTopic(), tracker);
+        List<PhaseResult> results = new ArrayList<>();
+        try (var driver = new OpenLoopDriver(options, tracker)) {
+            for (int rate : options.rates()) {
+                driver.warmup(rate, options.warmup());
+                File hlog = new File(options.outPrefix() + "_rate" + rate + ".hlog");
+                PhaseResult result = driver.measure(rate, options.duration(), hlog);
+                results.add(result);
+                print(result, hlog);
+            }
+        } finally {
+            if (consumer != null) {
+                consumer.close();
+            }
+        }
+        File summary = new File(options.outPrefix() + "_sweep_summary.csv");
+        writeSummary(summary, results);
+        System.out.println("Sweep salvo em: " + summary);
+    }
+
+    private static void print(PhaseResult r, File hlog) {
+        System.out.printf(Locale.ROOT, "rate=%d total=%d ok=%d falha=%d (descartadas=%d) confirmadas=%d (rejeitadas=%d)%n",
+                r.rate(), r.total(), r.ok(), r.failed(), r.dropped(), r.confirmed(), r.rejected());
+        System.out.printf(Locale.ROOT, "  TPS médio=%.2f máx=%d | resp p99=%s | E2E p50=%s p95=%s p99=%s | %s%n",
+                r.tpsMean(), r.tpsMax(), seconds(r.response(), 99),
+                seconds(r.e2e(), 50), seconds(r.e2e(), 95), seconds(r.e2e(), 99), hlog);
+        if (r.dropped() > 0) {
+            System.out.printf(Locale.ROOT, "  percentis sem as %d chegadas descartadas (%s do total)%n",
+                    r.dropped(), ratio(r.dropped(), r.total()));
+        }
+    }
+
+    static void writeSummary(File file, List<PhaseResult> results) throws IOException {
+        try (var out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println(String.join(",", PhaseResult.CSV_HEADER));
+            for (PhaseResult r : results) {
+                out.println(String.join(",",
+                        Integer.toString(r.rate()),
+                        String.format(Locale.ROOT, "%.4f", r.tpsMean()),
+                        Long.toString(r.tpsMax()),
+                        ratio(r.ok(), r.total()),
+                        ratio(r.confirmed(), r.total()),
+                        seconds(r.e2e(), 50),
+                        seconds(r.e2e(), 95),
+                        seconds(r.e2e(), 99),
+                        ratio(r.dropped(), r.total()),
+                        Long.toString(r.total()),
+                        Long.toString(r.ok()),
+                        Long.toString(r.failed()),
+                        Long.toString(r.confirmed()),
+                        seconds(r.response(), 50),
+                        seconds(r.response(), 99),
+                        seconds(r.service(), 99),
+                        Long.toString(r.rejected()),
+                        Long.toString(r.dropped())));
+            }
+        }
+    }
+
+    private static String ratio(long part, long total) {
+        return String.format(Locale.ROOT, "%.4f", total == 0 ? 0.0 : part / (double) total);
+    }
+
+    /** Percentil de um histograma em microssegundos, em segundos; vazio sem amostras. */
+    private static String seconds(Histogram micros, double percentile) {
+        if (micros.getTotalCount() == 0) {
+            return "";
+        }
+        return String.format(Locale.ROOT, "%.6f", micros.getValueAtPercentile(percentile) / 1e6);
+    }
+}
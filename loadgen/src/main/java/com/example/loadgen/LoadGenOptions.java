@@ -0,0 +1,69 @@
+package com.example.loadgen;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Argumentos da linha de comando ({@code --chave valor} ou {@code --chave=valor}), com os mesmos
+ * defaults do {@code teest/e2e_tps.py}.
+ *
+ * @param confirm    correlaciona a conclusão consumindo {@code persistTopic} e {@code rejectedTopic};
+ *                   {@code false} mede só a resposta HTTP
+ * @param maxInFlight requisições abertas ao mesmo tempo; acima disso a chegada conta como falha
+ *                   ({@code dropped}) em vez de atrasar as próximas
+ */
+public record LoadGenOptions(
+        List<String> urls,
+        List<Integer> rates,
+        Duration duration,
+        Duration warmup,
+        Duration timeout,
+        int maxInFlight,
+        int customers,
+        boolean confirm,
+        String bootstrapServers,
+        String persistTopic,
+        String rejectedTopic,
+        Duration confirmTimeout,
+        String outPrefix) {
+
+    public static LoadGenOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inesperado: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.put(arg.substring(2), args[++i]);
+            } else {
+                values.put(arg.substring(2), "true");
+            }
+        }
+        String sweep = values.getOrDefault("sweep", values.getOrDefault("rate", "100"));
+        return new LoadGenOptions(
+                split(values.getOrDefault("urls", values.getOrDefault("url", "http://localhost:8080/payments"))),
+                split(sweep).stream().map(Integer::parseInt).toList(),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("seconds", "60"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup-s", "0"))),
+                Duration.ofMillis((long) (Double.parseDouble(values.getOrDefault("timeout-s", "5")) * 1000)),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                Integer.parseInt(values.getOrDefault("customers", "10000")),
+                Boolean.parseBoolean(values.getOrDefault("confirm", "true")),
+                values.getOrDefault("bootstrap-servers", "localhost:9092"),
+                values.getOrDefault("persist-topic", "payments.persist.in"),
+                values.getOrDefault("rejected-topic", "payments.rejected"),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("confirm-timeout-s", "60"))),
+                values.getOrDefault("out-prefix", "e2e"));
+    }
+
+    private static List<String> split(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+    }
+}
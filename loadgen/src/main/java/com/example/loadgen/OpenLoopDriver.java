@@ -0,0 +1,301 @@
+package com.example.loadgen;
+
+import com.example.common.dto.PaymentAcceptedResponse;
+import com.example.common.dto.PaymentRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Carga open-model a taxa constante: a i-ésima requisição tem instante planejado
+ * {@code início + i / rate} e sai nesse instante numa virtual thread, esteja o servidor atrasado
+ * ou não. As latências são medidas a partir do instante planejado (coordinated omission
+ * corrigida); o tempo de serviço, a partir do envio real, sai separado para comparação.
+ * Chegadas descartadas em {@code --max-in-flight} não têm resposta e ficam fora dos histogramas:
+ * os percentis só valem junto com {@code dropped_ratio}, que vai ao lado deles no CSV e no log.
+ *
+ * <p>A cada segundo os histogramas de intervalo vão para um log HdrHistogram com as tags
+ * {@code resp}, {@code service} e {@code e2e} (microssegundos).
+ */
+public class OpenLoopDriver implements AutoCloseable {
+
+    private static final Duration LOG_INTERVAL = Duration.ofSeconds(1);
+
+    private final LoadGenOptions options;
+    private final CompletionTracker tracker;
+    private final HttpClient http;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Semaphore inFlight;
+
+    public OpenLoopDriver(LoadGenOptions options, CompletionTracker tracker) {
+        this.options = options;
+        this.tracker = tracker;
+        this.inFlight = new Semaphore(options.maxInFlight());
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout())
+                .executor(executor)
+                .build();
+    }
+
+    /** Aquecimento: mesma carga, nada é registrado. */
+    public void warmup(int rate, Duration duration) {
+        if (!duration.isZero()) {
+            new Phase(rate, duration, false, null).run();
+        }
+    }
+
+    /** Fase medida: carga, espera das confirmações e log HdrHistogram em {@code hlog}. */
+    public PhaseResult measure(int rate, Duration duration, File hlog) {
+        if (tracker != null) {
+            tracker.reset();
+        }
+        return new Phase(rate, duration, true, hlog).run();
+    }
+
+    private final class Phase {
+
+        private final int rate;
+        private final long durationNanos;
+        private final boolean measured;
+        private final File hlog;
+        private final Recorder response = new Recorder(3);
+        private final Recorder service = new Recorder(3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final AtomicLongArray perSecond;
+        private long start;
+
+        Phase(int rate, Duration duration, boolean measured, File hlog) {
+            this.rate = rate;
+            this.durationNanos = duration.toNanos();
+            this.measured = measured;
+            this.hlog = hlog;
+            // respostas podem chegar até timeout depois da última chegada
+            this.perSecond = new AtomicLongArray((int) (duration.toSeconds() + options.timeout().toSeconds() + 2));
+        }
+
+        PhaseResult run() {
+            start = System.nanoTime();
+            HistogramLog log = measured ? new HistogramLog(hlog) : null;
+            double periodNanos = 1e9 / rate;
+            long sent = 0;
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * periodNanos);
+                if (intended - start >= durationNanos) {
+                    break;
+                }
+                while (System.nanoTime() < intended) {
+                    LockSupport.parkNanos(intended - System.nanoTime());
+                    if (log != null) {
+                        log.tick(false);
+                    }
+                }
+                sent++;
+                if (!inFlight.tryAcquire()) {
+                    dropped.increment();
+                    failed.increment();
+                    continue;
+                }
+                String url = options.urls().get((int) (i % options.urls().size()));
+                executor.execute(() -> send(url, intended));
+            }
+            drain(log);
+            if (measured && tracker != null) {
+                awaitConfirmations(log);
+            }
+            if (log != null) {
+                log.tick(true);
+                log.close();
+            }
+            return log == null ? null : log.result(sent);
+        }
+
+        private void send(String url, long intended) {
+            long actual = System.nanoTime();
+            try {
+                HttpResponse<byte[]> r = http.send(request(url), HttpResponse.BodyHandlers.ofByteArray());
+                record(intended, actual, System.nanoTime());
+                if (r.statusCode() / 100 == 2) {
+                    ok.increment();
+                    accepted(r.body(), intended);
+                } else {
+                    failed.increment();
+                }
+            } catch (IOException e) {
+                record(intended, actual, System.nanoTime());
+                failed.increment();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.increment();
+            } finally {
+                // só depois de ok/accepted: drain() + awaitConfirmations() leem os contadores finais
+                inFlight.release();
+            }
+        }
+
+        private void accepted(byte[] body, long intended) {
+            if (!measured || tracker == null) {
+                return;
+            }
+            try {
+                tracker.accepted(objectMapper.readValue(body, PaymentAcceptedResponse.class).txId(), intended);
+            } catch (IOException e) {
+                // 2xx sem txId legível: conta como aceito, mas fica fora do E2E
+            }
+        }
+
+        private void record(long intended, long actual, long done) {
+            response.recordValue(TimeUnit.NANOSECONDS.toMicros(done - intended));
+            service.recordValue(TimeUnit.NANOSECONDS.toMicros(done - actual));
+            int second = (int) TimeUnit.NANOSECONDS.toSeconds(done - start);
+            if (second < perSecond.length()) {
+                perSecond.incrementAndGet(second);
+            }
+        }
+
+        private HttpRequest request(String url) throws IOException {
+            var random = ThreadLocalRandom.current();
+            var body = new PaymentRequest("MERCH-" + random.nextInt(1_000),
+                    "CUST-" + random.nextInt(options.customers()), "TERM-0001",
+                    random.nextLong(100, 100_000), "BRL", "CREDIT", "CHIP",
+                    Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()), null);
+            return HttpRequest.newBuilder(URI.create(url))
+                    .timeout(options.timeout())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        }
+
+        private void drain(HistogramLog log) {
+            long deadline = System.nanoTime() + options.timeout().toNanos() * 2;
+            while (inFlight.availablePermits() < options.maxInFlight() && System.nanoTime() < deadline) {
+                sleepTick(log);
+            }
+        }
+
+        private void awaitConfirmations(HistogramLog log) {
+            long deadline = System.nanoTime() + options.confirmTimeout().toNanos();
+            while (tracker.confirmed() < ok.sum() && System.nanoTime() < deadline) {
+                sleepTick(log);
+            }
+        }
+
+        private void sleepTick(HistogramLog log) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(20));
+            if (log != null) {
+                log.tick(false);
+            }
+        }
+
+        /** Escreve os intervalos e acumula o total da fase. Só a thread que gera carga chama. */
+        private final class HistogramLog {
+
+            private final HistogramLogWriter writer;
+            private final Histogram responseTotal = new Histogram(3);
+            private final Histogram serviceTotal = new Histogram(3);
+            private final Histogram e2eTotal = new Histogram(3);
+            private Histogram responseInterval;
+            private Histogram serviceInterval;
+            private Histogram e2eInterval;
+            private long nextTick;
+
+            HistogramLog(File file) {
+                try {
+                    writer = new HistogramLogWriter(file);
+                } catch (FileNotFoundException e) {
+                    throw new IllegalStateException("Não foi possível criar " + file, e);
+                }
+                long startMillis = System.currentTimeMillis();
+                writer.outputComment("loadgen rate=" + rate + " urls=" + options.urls());
+                writer.outputLogFormatVersion();
+                writer.outputStartTime(startMillis);
+                writer.setBaseTime(startMillis);
+                writer.outputBaseTime(startMillis);
+                writer.outputLegend();
+                nextTick = start + LOG_INTERVAL.toNanos();
+            }
+
+            void tick(boolean force) {
+                long now = System.nanoTime();
+                if (!force && now < nextTick) {
+                    return;
+                }
+                nextTick = now + LOG_INTERVAL.toNanos();
+                responseInterval = interval(response, responseInterval, responseTotal, "resp");
+                serviceInterval = interval(service, serviceInterval, serviceTotal, "service");
+                if (tracker != null) {
+                    e2eInterval = interval(tracker.e2e(), e2eInterval, e2eTotal, "e2e");
+                    tracker.evictUnmatched(now - options.confirmTimeout().toNanos());
+                }
+            }
+
+            private Histogram interval(Recorder recorder, Histogram recycle, Histogram total, String tag) {
+                Histogram interval = recorder.getIntervalHistogram(recycle);
+                interval.setTag(tag);
+                writer.outputIntervalHistogram(interval);
+                total.add(interval);
+                return interval;
+            }
+
+            void close() {
+                writer.outputComment("dropped=" + dropped.sum() + " (fora dos histogramas)");
+                writer.close();
+            }
+
+            PhaseResult result(long sent) {
+                long last = 0;
+                long responses = 0;
+                long max = 0;
+                for (int s = 0; s < perSecond.length(); s++) {
+                    long n = perSecond.get(s);
+                    if (n > 0) {
+                        last = s;
+                        responses += n;
+                        max = Math.max(max, n);
+                    }
+                }
+                return new PhaseResult(rate, sent, ok.sum(), failed.sum(), dropped.sum(),
+                        tracker != null ? tracker.confirmed() : 0, tracker != null ? tracker.rejected() : 0,
+                        responses / (double) (last + 1), max,
+                        responseTotal.copy(), serviceTotal.copy(), e2eTotal.copy());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** Resultado de uma fase medida; histogramas em microssegundos. */
+    public record PhaseResult(int rate, long total, long ok, long failed, long dropped,
+                              long confirmed, long rejected, double tpsMean, long tpsMax,
+                              Histogram response, Histogram service, Histogram e2e) {
+
+        static final List<String> CSV_HEADER = List.of("rate", "tps_resp_mean", "tps_resp_max", "ok_ratio",
+                "pipeline_confirm_ratio", "p50", "p95", "p99", "dropped_ratio", "total_req", "ok_req", "fail_req",
+                "confirmed_pipeline", "resp_p50", "resp_p99", "service_p99", "rejected", "dropped");
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompletionTrackerTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    void matchesResponseThenTopic() {
+        var tracker = new CompletionTracker();
+        UUID txId = UUID.randomUUID();
+
+        tracker.accepted(txId, 1_000 * MS);
+        assertThat(tracker.confirmed()).isZero();
+        tracker.seen(txId, 1_030 * MS, false);
+
+        Histogram e2e = tracker.e2e().getIntervalHistogram();
+        assertThat(tracker.confirmed()).isEqualTo(1);
+        assertThat(e2e.getMaxValue()).isBetween(29_900L, 30_100L);
+    }
+
+    @Test
+    void matchesTopicSeenBeforeTheHttpResponse() {
+        var tracker = new CompletionTracker();
+        UUID txId = UUID.randomUUID();
+
+        tracker.seen(txId, 1_050 * MS, true);
+        tracker.accepted(txId, 1_000 * MS);
+
+        assertThat(tracker.confirmed()).isEqualTo(1);
+        assertThat(tracker.rejected()).isEqualTo(1);
+        assertThat(tracker.e2e().getIntervalHistogram().getMaxValue()).isBetween(49_900L, 50_100L);
+    }
+
+    @Test
+    void redeliveryAfterMatchIsNotCountedTwice() {
+        var tracker = new CompletionTracker();
+        UUID txId = UUID.randomUUID();
+
+        tracker.accepted(txId, 0);
+        tracker.seen(txId, 10 * MS, false);
+        tracker.seen(txId, 20 * MS, false);
+
+        assertThat(tracker.confirmed()).isEqualTo(1);
+        tracker.evictUnmatched(30 * MS);
+        tracker.accepted(UUID.randomUUID(), 40 * MS);
+        assertThat(tracker.confirmed()).isEqualTo(1);
+    }
+}
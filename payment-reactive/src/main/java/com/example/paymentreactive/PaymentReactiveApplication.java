@@ -0,0 +1,13 @@
+package com.example.paymentreactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class PaymentReactiveApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(PaymentReactiveApplication.class, args);
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.example.paymentreactive.config;
+
+import com.example.common.event.PaymentEvent;
+import com.example.common.serde.PaymentEventSerializer;
+import com.example.common.serde.WireFormat;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaSenderConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    // json | binary (consumidores detectam o formato pelo header)
+    @Value("${app.kafka.wire-format:json}")
+    private String wireFormat;
+
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, PaymentEvent> paymentKafkaSender() {
+        Map<String, Object> config = new HashMap<>();
+
+        // mesmas configs do producer da api servlet: gateway e persister não mudam
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PaymentEventSerializer.class);
+        config.put(WireFormat.CONFIG, wireFormat);
+        config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        config.put(ProducerConfig.RETRIES_CONFIG, 10);
+        config.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120_000);
+        config.put(ProducerConfig.LINGER_MS_CONFIG, 10);
+        config.put(ProducerConfig.BATCH_SIZE_CONFIG, 32_768);
+        config.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+
+        SenderOptions<String, PaymentEvent> options = SenderOptions.<String, PaymentEvent>create(config)
+                // uma falha não derruba o sender: cada requisição recebe o próprio erro
+                .stopOnError(false);
+        return KafkaSender.create(options);
+    }
+}
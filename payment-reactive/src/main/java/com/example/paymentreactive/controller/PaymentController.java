@@ -0,0 +1,30 @@
+package com.example.paymentreactive.controller;
+
+import com.example.common.dto.PaymentAcceptedResponse;
+import com.example.common.dto.PaymentRequest;
+import com.example.paymentreactive.service.PaymentIngestService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/payments")
+public class PaymentController {
+
+    private final PaymentIngestService paymentIngestService;
+
+    public PaymentController(PaymentIngestService paymentIngestService) {
+        this.paymentIngestService = paymentIngestService;
+    }
+
+    /** Mesmo contrato da api servlet: 202 com o txId, aqui emitido após o ack do broker. */
+    @PostMapping
+    public Mono<ResponseEntity<PaymentAcceptedResponse>> createPayment(@Valid @RequestBody Mono<PaymentRequest> request) {
+        return request
+                .flatMap(paymentIngestService::ingest)
+                .map(txId -> ResponseEntity
+                        .accepted()
+                        .body(new PaymentAcceptedResponse(txId)));
+    }
+}
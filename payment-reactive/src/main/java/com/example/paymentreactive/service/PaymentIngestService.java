@@ -0,0 +1,131 @@
+package com.example.paymentreactive.service;
+
+import com.example.common.dto.PaymentRequest;
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.common.trace.StageTimers;
+import com.example.common.trace.TraceHeaders;
+import com.example.common.exception.BackpressureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publica o PaymentEvent em payments.authorize.in sem bloquear o event loop e completa com o ack
+ * do broker. Uma janela de requisições pendentes limita o que fica em voo: cheia, a requisição
+ * falha na hora com 503 + Retry-After.
+ */
+@Service
+public class PaymentIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentIngestService.class);
+
+    private final KafkaSender<String, PaymentEvent> kafkaSender;
+    private final String topic;
+    private final boolean keyByCustomer;
+    private final int maxPending;
+    private final long retryAfterSeconds;
+    private final Duration ackTimeout;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Timer ackTimer;
+    private final Timer producerAckStage;
+    private final Counter rejected;
+
+    public PaymentIngestService(
+            KafkaSender<String, PaymentEvent> kafkaSender,
+            @Value("${app.kafka.topic}") String topic,
+            @Value("${app.kafka.partition-key:txId}") String partitionKey,
+            @Value("${app.payment.in-flight.max:10000}") int maxPending,
+            @Value("${app.payment.in-flight.retry-after-seconds:1}") long retryAfterSeconds,
+            @Value("${app.payment.ack-timeout-ms:5000}") long ackTimeoutMs,
+            MeterRegistry registry
+    ) {
+        this.kafkaSender = kafkaSender;
+        this.topic = topic;
+        this.keyByCustomer = "customerId".equalsIgnoreCase(partitionKey);
+        this.maxPending = maxPending;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.ackTimeout = Duration.ofMillis(ackTimeoutMs);
+        this.ackTimer = Timer.builder("payment.kafka.ack")
+                .description("Tempo entre o send e o ack do broker")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.producerAckStage = StageTimers.of(registry, "producer_ack");
+        this.rejected = Counter.builder("payment.inflight.rejected")
+                .description("Requisições recusadas com a janela cheia")
+                .register(registry);
+        Gauge.builder("payment.inflight", pending, AtomicInteger::get)
+                .description("Requisições aguardando ack do broker")
+                .register(registry);
+    }
+
+    /** Emite o txId gerado quando o broker confirma o registro. */
+    public Mono<UUID> ingest(PaymentRequest request) {
+        return Mono.defer(() -> {
+            if (pending.incrementAndGet() > maxPending) {
+                pending.decrementAndGet();
+                rejected.increment();
+                return Mono.error(new BackpressureException(retryAfterSeconds));
+            }
+            UUID txId = UUID.randomUUID();
+            PaymentEvent event = toEvent(txId, request);
+            // customerId: todas as transações de um cliente caem na mesma partição (ledger por partição no gateway)
+            String key = keyByCustomer ? event.customerId() : txId.toString();
+            var record = new ProducerRecord<String, PaymentEvent>(topic, key, event);
+            long acceptedMicros = TraceHeaders.toMicros(event.createdAt());
+            TraceHeaders.traceId(record.headers(), UUID.randomUUID());
+            TraceHeaders.stamp(record.headers(), TraceHeaders.API_ACCEPT, acceptedMicros);
+            long start = System.nanoTime();
+            CompletableFuture<SenderResult<UUID>> sent = kafkaSender.send(Mono.just(SenderRecord.create(record, txId)))
+                    .next()
+                    .toFuture();
+            // a vaga só volta com o callback do producer: timeout ou cliente desconectado não
+            // cancelam o envio, que continua ocupando o buffer até o broker responder
+            sent.whenComplete((result, ex) -> pending.decrementAndGet());
+            return Mono.fromFuture(sent, true)
+                    .flatMap(result -> {
+                        if (result.exception() != null) {
+                            log.error("Failed to send payment event:key={}", key, result.exception());
+                            return Mono.error(result.exception());
+                        }
+                        ackTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        producerAckStage.record(TraceHeaders.nowMicros() - acceptedMicros, TimeUnit.MICROSECONDS);
+                        return Mono.just(result.correlationMetadata());
+                    })
+                    .timeout(ackTimeout);
+        });
+    }
+
+    private static PaymentEvent toEvent(UUID txId, PaymentRequest request) {
+        return new PaymentEvent(
+                txId,
+                Instant.now(),
+                request.merchantId(),
+                request.customerId(),
+                request.terminalId(),
+                request.amount(),
+                request.currency(),
+                request.method(),
+                request.entryMode(),
+                request.cardHash(),
+                Status.PENDING
+        );
+    }
+}
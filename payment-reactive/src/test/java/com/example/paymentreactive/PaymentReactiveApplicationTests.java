@@ -0,0 +1,13 @@
+package com.example.paymentreactive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class PaymentReactiveApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
@@ -1,22 +1,34 @@
 package com.example.payment.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * Executor do envio assíncrono ({@code @Async("taskExecutor")}), escolhido por app.payment.executor:
+ * pool (threads de plataforma, fila limitada) ou virtual (uma virtual thread por tarefa).
+ * O Tomcat passa a usar virtual threads com spring.threads.virtual.enabled=true.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
     @Bean("taskExecutor")
-    public ThreadPoolTaskExecutor taskExecutor() {
+    @ConditionalOnProperty(name = "app.payment.executor", havingValue = "pool", matchIfMissing = true)
+    public AsyncTaskExecutor taskExecutor(@Value("${app.payment.pool.core-size:10}") int coreSize,
+                                          @Value("${app.payment.pool.max-size:50}") int maxSize,
+                                          @Value("${app.payment.pool.queue-capacity:200}") int queueCapacity) {
         ThreadPoolTaskExecutor ex = new ThreadPoolTaskExecutor();
-        ex.setCorePoolSize(10);
-        ex.setMaxPoolSize(50);
-        ex.setQueueCapacity(200);
+        ex.setCorePoolSize(coreSize);
+        ex.setMaxPoolSize(maxSize);
+        ex.setQueueCapacity(queueCapacity);
         ex.setThreadNamePrefix("payment-exec-");
         ex.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         ex.setWaitForTasksToCompleteOnShutdown(true);
@@ -24,4 +36,14 @@ public class AsyncConfig {
         ex.initialize();
         return ex;
     }
+
+    @Bean("taskExecutor")
+    @ConditionalOnProperty(name = "app.payment.executor", havingValue = "virtual")
+    public AsyncTaskExecutor virtualTaskExecutor() {
+        // sem fila nem CallerRunsPolicy: cada envio ganha sua virtual thread
+        SimpleAsyncTaskExecutor ex = new SimpleAsyncTaskExecutor("payment-vexec-");
+        ex.setVirtualThreads(true);
+        ex.setTaskTerminationTimeout(30_000);
+        return ex;
+    }
 }
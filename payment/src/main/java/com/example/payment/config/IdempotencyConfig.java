@@ -0,0 +1,32 @@
+package com.example.payment.config;
+
+import com.example.payment.idempotency.IdempotencyCache;
+import com.example.payment.idempotency.IdempotencyStore;
+import com.example.payment.idempotency.InMemoryIdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyCache idempotencyCache(@Value("${app.payment.idempotency.max-size:100000}") int maxSize,
+                                             @Value("${app.payment.idempotency.ttl:PT10M}") Duration ttl,
+                                             ObjectProvider<IdempotencyStore> store,
+                                             MeterRegistry registry) {
+        return new IdempotencyCache(maxSize, ttl, store.getIfAvailable(), registry);
+    }
+
+    /** Stand-in do store compartilhado; em várias instâncias troque por uma implementação remota. */
+    @Bean
+    @ConditionalOnProperty(name = "app.payment.idempotency.store", havingValue = "local")
+    public IdempotencyStore idempotencyStore() {
+        return new InMemoryIdempotencyStore();
+    }
+}
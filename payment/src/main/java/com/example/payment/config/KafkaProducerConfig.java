@@ -1,6 +1,8 @@
 package com.example.payment.config;
 
 import com.example.common.event.PaymentEvent;
+import com.example.common.serde.PaymentEventSerializer;
+import com.example.common.serde.WireFormat;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +22,10 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // json | binary (consumidores detectam o formato pelo header)
+    @Value("${app.kafka.wire-format:json}")
+    private String wireFormat;
+
     @Bean
     public ProducerFactory<String, PaymentEvent> paymentProducerFactory() {
         Map<String, Object> config = new HashMap<>();
@@ -29,7 +35,8 @@ public class KafkaProducerConfig {
 
         // SERIALIZERS
         config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PaymentEventSerializer.class);
+        config.put(WireFormat.CONFIG, wireFormat);
         // Evita headers de tipo (facilita interop com outros consumers)
         config.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
 
@@ -0,0 +1,99 @@
+package com.example.payment.config;
+
+import com.example.common.serde.PaymentEventDeserializer;
+import com.example.payment.status.PaymentStatusDbFallback;
+import com.example.payment.status.PaymentStatusListener;
+import com.example.payment.status.PaymentStatusService;
+import com.example.payment.status.PaymentStatusStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(StatusProps.class)
+public class PaymentStatusConfig {
+
+    @Bean
+    public PaymentStatusStore paymentStatusStore(StatusProps props, MeterRegistry registry) {
+        Path file = props.getFile() == null || props.getFile().isBlank() ? null : Path.of(props.getFile());
+        return new PaymentStatusStore(props.getMaxEntries(), file, registry);
+    }
+
+    @Bean
+    public PaymentStatusService paymentStatusService(PaymentStatusStore store, StatusProps props,
+                                                     ObjectProvider<JdbcTemplate> jdbcTemplate) {
+        PaymentStatusDbFallback fallback = props.getDbFallback().isEnabled()
+                ? new PaymentStatusDbFallback(jdbcTemplate.getObject(), props.getDbFallback().getMaxConcurrent())
+                : null;
+        return new PaymentStatusService(store, fallback, props.getMaxWait(), props.getMaxWaiters());
+    }
+
+    @Bean
+    public PaymentStatusListener paymentStatusListener(PaymentStatusService paymentStatusService) {
+        return new PaymentStatusListener(paymentStatusService);
+    }
+
+    /**
+     * Cada instância precisa de todos os eventos (read model local): grupo próprio por instância
+     * (app.payment.status.group-id), lendo do fim e sem commit de offsets.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> paymentStatusListenerContainerFactory(
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        // binário ou JSON pelo header x-wire-format; rejeições chegam com o type header do gateway
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, PaymentEventDeserializer.class);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.common.event");
+        props.put(JsonDeserializer.TYPE_MAPPINGS, """
+                paymentAuthorizedEvent:com.example.common.event.PaymentAuthorizedEvent,
+                paymentRejectedEvent:com.example.common.event.PaymentRejectedEvent""");
+
+        var f = new ConcurrentKafkaListenerContainerFactory<String, Object>();
+        f.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        f.setBatchListener(true);
+        // nada é comitado: o grupo é descartável e a próxima subida lê do fim de novo
+        f.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return f;
+    }
+}
+
+@ConfigurationProperties(prefix = "app.payment.status")
+@Getter @Setter
+class StatusProps {
+    private int maxEntries = 1 << 20;
+    private String file;
+    private Duration maxWait = Duration.ofSeconds(30);
+    private int maxWaiters = 10_000;
+    private DbFallback dbFallback = new DbFallback();
+
+    @Getter @Setter
+    static class DbFallback {
+        private boolean enabled = true;
+        private int maxConcurrent = 4;
+    }
+}
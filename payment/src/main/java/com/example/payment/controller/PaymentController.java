@@ -2,32 +2,97 @@ package com.example.payment.controller;
 
 import com.example.common.dto.PaymentAcceptedResponse;
 import com.example.common.dto.PaymentRequest;
+import com.example.payment.idempotency.IdempotencyCache;
+import com.example.payment.service.PaymentBatchIngestor;
 import com.example.payment.service.PaymentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 
+import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final PaymentService paymentService;
+    private final PaymentBatchIngestor paymentBatchIngestor;
+    private final IdempotencyCache idempotencyCache;
+    private final boolean syncAck;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService,
+                             PaymentBatchIngestor paymentBatchIngestor,
+                             IdempotencyCache idempotencyCache,
+                             @Value("${app.payment.ack-mode:async}") String ackMode) {
         this.paymentService = paymentService;
+        this.paymentBatchIngestor = paymentBatchIngestor;
+        this.idempotencyCache = idempotencyCache;
+        this.syncAck = "sync".equalsIgnoreCase(ackMode);
     }
 
+    /**
+     * 202 com o txId. Devolve o {@code ResponseEntity} direto quando o txId já está resolvido (modo
+     * async, retry de chave conhecida) e o future só quando ainda espera o ack (modo sync): o retorno
+     * é {@code Object} porque o Spring escolhe o tratamento pelo tipo do valor, e um future, mesmo
+     * completo, custaria um dispatch assíncrono do servlet por requisição.
+     */
     @PostMapping
-    public ResponseEntity<PaymentAcceptedResponse> createPayment(@Valid @RequestBody PaymentRequest request) {
-        UUID txId = UUID.randomUUID();                // gere aqui
-        paymentService.processPaymentAsync(txId, request); // dispare e esqueça
+    public Object createPayment(
+            @RequestHeader(name = "${app.payment.idempotency.header:Idempotency-Key}", required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequest request) {
+        String key = idempotencyKey != null ? idempotencyKey : request.clientTxId();
+        CompletableFuture<UUID> txId;
+        if (key != null) {
+            // retry devolve o txId original; no modo async a entrada só completa no callback do envio
+            txId = idempotencyCache.execute(key, id -> publish(id, request), syncAck);
+        } else {
+            UUID generated = UUID.randomUUID();
+            CompletableFuture<UUID> sent = publish(generated, request);
+            txId = syncAck ? sent : CompletableFuture.completedFuture(generated); // async: dispare e esqueça
+        }
+        if (txId.isDone() && !txId.isCompletedExceptionally()) {
+            return accepted(txId.join());
+        }
+        return txId.thenApply(PaymentController::accepted);
+    }
+
+    /**
+     * Lote em NDJSON ou array JSON, lido em streaming. Responde 200 em NDJSON com uma linha por item,
+     * na ordem de entrada: {@code {"index":0,"txId":"..."}} ou {@code {"index":1,"errors":[...]}}.
+     */
+    @PostMapping(path = "/batch", consumes = {NDJSON, MediaType.APPLICATION_JSON_VALUE})
+    public void createPaymentBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        paymentBatchIngestor.ingest(request.getInputStream(), response.getOutputStream());
+    }
+
+    /** Completa com o txId no callback do envio, nos dois modos. */
+    private CompletableFuture<UUID> publish(UUID txId, PaymentRequest request) {
+        paymentService.accepted(txId);
+        if (!syncAck) {
+            var sent = new CompletableFuture<Void>();
+            paymentService.processPaymentAsync(txId, request, sent);
+            return sent.thenApply(v -> txId);
+        }
+        // 202 só depois do ack do broker; falha de envio vira 503
+        return paymentService.processPaymentSync(txId, request)
+                .thenApply(v -> txId);
+    }
+
+    private static ResponseEntity<PaymentAcceptedResponse> accepted(UUID txId) {
         return ResponseEntity
                 .accepted()
                 .body(new PaymentAcceptedResponse(txId));
     }
 }
-
@@ -0,0 +1,83 @@
+package com.example.payment.controller;
+
+import com.example.payment.dto.PaymentStatusResponse;
+import com.example.payment.status.PaymentStatusService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/** Status do pagamento a partir do read model local (payments.persist.in / payments.rejected). */
+@RestController
+@RequestMapping("/payments")
+public class PaymentStatusController {
+
+    private final PaymentStatusService paymentStatusService;
+    private final AsyncTaskExecutor taskExecutor;
+
+    public PaymentStatusController(PaymentStatusService paymentStatusService,
+                                   @Qualifier("taskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.paymentStatusService = paymentStatusService;
+        this.taskExecutor = taskExecutor;
+    }
+
+    /**
+     * 200 com o status ou 404 se desconhecido. Com {@code wait} (ex.: PT10S) é long-poll: responde
+     * assim que o status for final ou, no fim da espera, com o status atual.
+     */
+    @GetMapping("/{txId}")
+    public CompletableFuture<ResponseEntity<PaymentStatusResponse>> getStatus(
+            @PathVariable UUID txId,
+            @RequestParam(name = "wait", required = false) Duration wait) {
+        if (wait == null) {
+            return CompletableFuture.completedFuture(toResponse(paymentStatusService.find(txId)));
+        }
+        return paymentStatusService.await(txId, wait).thenApply(PaymentStatusController::toResponse);
+    }
+
+    /** SSE: um evento {@code status} com o estado atual (se houver) e outro com o final, e fecha. */
+    @GetMapping(path = "/{txId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(@PathVariable UUID txId,
+                                   @RequestParam(name = "wait", defaultValue = "PT30S") Duration wait) {
+        var emitter = new SseEmitter(wait.toMillis() + 1_000);
+        PaymentStatusResponse current = paymentStatusService.find(txId);
+        if (current != null) {
+            send(emitter, current);
+            if (current.isFinal()) {
+                emitter.complete();
+                return emitter;
+            }
+        }
+        // o future completa na thread do listener Kafka: a escrita no socket vai para o executor
+        paymentStatusService.await(txId, wait).thenAcceptAsync(last -> {
+            if (last != null && last.isFinal()) {
+                send(emitter, last);
+            }
+            emitter.complete();
+        }, taskExecutor);
+        return emitter;
+    }
+
+    private static void send(SseEmitter emitter, PaymentStatusResponse status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static ResponseEntity<PaymentStatusResponse> toResponse(PaymentStatusResponse status) {
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+}
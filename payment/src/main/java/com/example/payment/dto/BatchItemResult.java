@@ -0,0 +1,22 @@
+package com.example.payment.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.UUID;
+
+/** Uma linha NDJSON da resposta de POST /payments/batch: txId se aceito, errors se não. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchItemResult(
+        int index,
+        UUID txId,
+        List<String> errors
+) {
+    public static BatchItemResult accepted(int index, UUID txId) {
+        return new BatchItemResult(index, txId, null);
+    }
+
+    public static BatchItemResult rejected(int index, List<String> errors) {
+        return new BatchItemResult(index, null, errors);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.payment.dto;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.enuns.Status;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/** Resposta de GET /payments/{txId}: code só quando REJECTED. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PaymentStatusResponse(
+        UUID txId,
+        Status status,
+        RejectCode code,
+        Instant updatedAt
+) {
+    /** Estado que não muda mais; long-poll e SSE terminam nele. */
+    public boolean isFinal() {
+        return status != Status.PENDING;
+    }
+}
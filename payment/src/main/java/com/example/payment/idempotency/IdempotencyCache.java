@@ -0,0 +1,125 @@
+package com.example.payment.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+
+/**
+ * Cache limitado por tamanho e TTL de chave de idempotência -> txId. Requisições repetidas recebem
+ * o mesmo txId sem publicar de novo; duplicatas concorrentes esperam o mesmo future.
+ *
+ * <p>Como o TTL é o mesmo para todas as entradas, a ordem de inserção é a ordem de expiração: uma
+ * fila FIFO basta para despejar expirados e, acima do limite, os mais antigos.
+ */
+public class IdempotencyCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final int maxSize;
+    private final Duration ttl;
+    private final IdempotencyStore store;
+    private final Counter hits;
+    private final Counter misses;
+
+    /** @param store store compartilhado entre instâncias; {@code null} para só o cache local */
+    public IdempotencyCache(int maxSize, Duration ttl, IdempotencyStore store, MeterRegistry registry) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.store = store;
+        this.hits = Counter.builder("payment.idempotency").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("payment.idempotency").tag("result", "miss").register(registry);
+    }
+
+    /**
+     * Devolve o txId já associado à chave ou executa {@code publish} com um txId novo. Se a
+     * publicação falhar a chave é liberada e o retry do cliente publica de novo.
+     */
+    public CompletableFuture<UUID> execute(String key, Function<UUID, CompletableFuture<UUID>> publish) {
+        return execute(key, publish, true);
+    }
+
+    /**
+     * Como {@link #execute(String, Function)}; com {@code awaitPublish = false} (ack async) o primeiro
+     * chamador recebe o txId sem esperar o envio. A entrada continua completando só no callback do
+     * envio: duplicatas esperam por ele e, se o envio falhar, recebem a falha e a chave é liberada.
+     */
+    public CompletableFuture<UUID> execute(String key, Function<UUID, CompletableFuture<UUID>> publish,
+                                           boolean awaitPublish) {
+        long now = System.nanoTime();
+        Entry current = entries.get(key);
+        if (current != null && !current.expired(now)) {
+            hits.increment();
+            return current.future();
+        }
+        Entry mine = new Entry(key, new CompletableFuture<>(), now + ttl.toNanos());
+        Entry winner = entries.compute(key, (k, existing) ->
+                existing == null || existing.expired(now) ? mine : existing);
+        if (winner != mine) {
+            hits.increment();
+            return winner.future();
+        }
+        misses.increment();
+        insertionOrder.add(mine);
+        evict(now);
+        UUID txId = run(mine, publish);
+        if (awaitPublish || txId == null || mine.future().isCompletedExceptionally()) {
+            return mine.future();
+        }
+        return CompletableFuture.completedFuture(txId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return o txId publicado, ou {@code null} se outra instância já tinha publicado com a chave */
+    private UUID run(Entry entry, Function<UUID, CompletableFuture<UUID>> publish) {
+        UUID txId = UUID.randomUUID();
+        UUID stored = store != null ? store.putIfAbsent(entry.key(), txId, ttl) : null;
+        if (stored != null) {
+            // outra instância já publicou com essa chave
+            entry.future().complete(stored);
+            return null;
+        }
+        CompletableFuture<UUID> published;
+        try {
+            published = publish.apply(txId);
+        } catch (RuntimeException e) {
+            published = CompletableFuture.failedFuture(e);
+        }
+        published.whenComplete((id, ex) -> {
+            if (ex == null) {
+                entry.future().complete(id);
+                return;
+            }
+            entries.remove(entry.key(), entry);
+            if (store != null) {
+                store.remove(entry.key(), txId);
+            }
+            entry.future().completeExceptionally(ex);
+        });
+        return txId;
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while ((head = insertionOrder.peek()) != null && (head.expired(now) || entries.size() > maxSize)) {
+            if (insertionOrder.remove(head)) {
+                entries.remove(head.key(), head);
+            }
+        }
+    }
+
+    private record Entry(String key, CompletableFuture<UUID> future, long expiresAt) {
+
+        boolean expired(long now) {
+            return expiresAt - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.payment.idempotency;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Registro compartilhado chave de idempotência -> txId, para quando há mais de uma instância da API
+ * (ex.: Redis com SET NX PX). O {@link IdempotencyCache} só consulta o store na primeira vez que
+ * vê uma chave.
+ */
+public interface IdempotencyStore {
+
+    /** Grava {@code txId} se a chave não existir; devolve o txId já gravado ou {@code null}. */
+    UUID putIfAbsent(String key, UUID txId, Duration ttl);
+
+    /** Libera a chave depois de uma publicação que falhou, para o retry do cliente passar. */
+    void remove(String key, UUID txId);
+}
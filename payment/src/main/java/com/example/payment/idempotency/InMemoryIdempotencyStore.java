@@ -0,0 +1,27 @@
+package com.example.payment.idempotency;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Stand-in local do store compartilhado (desenvolvimento/testes): só vale dentro da JVM. */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final ConcurrentHashMap<String, Stored> entries = new ConcurrentHashMap<>();
+
+    @Override
+    public UUID putIfAbsent(String key, UUID txId, Duration ttl) {
+        long now = System.nanoTime();
+        Stored fresh = new Stored(txId, now + ttl.toNanos());
+        Stored winner = entries.compute(key, (k, current) ->
+                current == null || current.expiresAt() - now <= 0 ? fresh : current);
+        return winner == fresh ? null : winner.txId();
+    }
+
+    @Override
+    public void remove(String key, UUID txId) {
+        entries.computeIfPresent(key, (k, current) -> current.txId().equals(txId) ? null : current);
+    }
+
+    private record Stored(UUID txId, long expiresAt) {}
+}
@@ -0,0 +1,53 @@
+package com.example.payment.service;
+
+import com.example.common.exception.BackpressureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Janela limitada de envios aguardando ack do broker. Cheia, a requisição falha na hora
+ * com 503 + Retry-After em vez de enfileirar sem limite.
+ */
+@Component
+public class InFlightWindow {
+
+    private final int capacity;
+    private final long retryAfterSeconds;
+    private final Semaphore permits;
+    private final Counter rejected;
+
+    public InFlightWindow(@Value("${app.payment.in-flight.max:2000}") int capacity,
+                          @Value("${app.payment.in-flight.retry-after-seconds:1}") long retryAfterSeconds,
+                          MeterRegistry registry) {
+        this.capacity = capacity;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(capacity);
+        this.rejected = Counter.builder("payment.inflight.rejected")
+                .description("Requisições recusadas com a janela cheia")
+                .register(registry);
+        Gauge.builder("payment.inflight", this, InFlightWindow::inFlight)
+                .description("Envios aguardando ack do broker")
+                .register(registry);
+    }
+
+    /** Reserva uma vaga ou lança {@link BackpressureException}; a vaga deve ser devolvida com {@link #release()}. */
+    public void acquire() {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            throw new BackpressureException(retryAfterSeconds);
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int inFlight() {
+        return capacity - permits.availablePermits();
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.payment.service;
+
+import com.example.common.dto.PaymentRequest;
+import com.example.payment.dto.BatchItemResult;
+import com.example.payment.idempotency.IdempotencyCache;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestão em lote: lê o corpo (NDJSON ou array JSON) item a item com o parser de streaming do
+ * Jackson, valida e publica cada item direto no KafkaTemplate, e escreve uma linha NDJSON por item
+ * assim que o ack chega. Itens com clientTxId passam pelo {@link IdempotencyCache}. No máximo {@code maxPending} envios ficam em aberto, então a memória
+ * não cresce com o tamanho do lote.
+ */
+@Service
+public class PaymentBatchIngestor {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final PaymentService paymentService;
+    private final IdempotencyCache idempotencyCache;
+    private final int maxPending;
+    private final long ackTimeoutMs;
+
+    public PaymentBatchIngestor(ObjectMapper objectMapper,
+                                Validator validator,
+                                PaymentService paymentService,
+                                IdempotencyCache idempotencyCache,
+                                @Value("${app.payment.batch.max-pending:1000}") int maxPending,
+                                @Value("${app.payment.ack-timeout-ms:5000}") long ackTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.paymentService = paymentService;
+        this.idempotencyCache = idempotencyCache;
+        this.maxPending = maxPending;
+        this.ackTimeoutMs = ackTimeoutMs;
+    }
+
+    public void ingest(InputStream body, OutputStream out) throws IOException {
+        var pending = new ArrayDeque<Pending>(Math.min(maxPending, 1024));
+        try (JsonParser parser = objectMapper.getFactory().createParser(body);
+             SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            int index = 0;
+            try {
+                JsonToken token = parser.nextToken();
+                // array: itens dentro de [ ... ]; NDJSON: valores na raiz separados por espaço/quebra de linha
+                boolean array = token == JsonToken.START_ARRAY;
+                if (array) {
+                    token = parser.nextToken();
+                }
+                while (token != null && token != JsonToken.END_ARRAY) {
+                    submit(index, parser, pending);
+                    index++;
+                    drain(pending, writer, maxPending);
+                    token = parser.nextToken();
+                }
+            } catch (JsonProcessingException e) {
+                // corpo malformado: não há como ressincronizar o stream; os itens anteriores seguem valendo
+                drain(pending, writer, 0);
+                writer.write(BatchItemResult.rejected(index, List.of("JSON inválido: " + e.getOriginalMessage())));
+                return;
+            }
+            drain(pending, writer, 0);
+        }
+    }
+
+    private void submit(int index, JsonParser parser, ArrayDeque<Pending> pending) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            pending.add(Pending.rejected(index, List.of("item deve ser um objeto JSON")));
+            return;
+        }
+        // um item por vez em memória: árvore pequena, erros de tipo não quebram o parser
+        ObjectNode node = parser.readValueAsTree();
+        PaymentRequest request;
+        try {
+            request = objectMapper.treeToValue(node, PaymentRequest.class);
+        } catch (JsonProcessingException e) {
+            pending.add(Pending.rejected(index, List.of(e.getOriginalMessage())));
+            return;
+        }
+        var violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            pending.add(Pending.rejected(index, violations.stream()
+                    .map(PaymentBatchIngestor::describe)
+                    .toList()));
+            return;
+        }
+        CompletableFuture<UUID> txId = request.clientTxId() == null
+                ? publish(UUID.randomUUID(), request)
+                : idempotencyCache.execute(request.clientTxId(), id -> publish(id, request));
+        pending.add(new Pending(index, txId.orTimeout(ackTimeoutMs, TimeUnit.MILLISECONDS), null));
+    }
+
+    private CompletableFuture<UUID> publish(UUID txId, PaymentRequest request) {
+        return paymentService.publish(txId, request).thenApply(r -> txId);
+    }
+
+    /**
+     * Escreve os resultados já prontos, na ordem dos itens, e espera os envios mais antigos até
+     * restarem no máximo {@code keep} em aberto.
+     */
+    private static void drain(ArrayDeque<Pending> pending, SequenceWriter writer, int keep) throws IOException {
+        boolean wrote = false;
+        while (!pending.isEmpty() && (pending.size() > keep || pending.peek().isDone())) {
+            writer.write(pending.poll().result());
+            wrote = true;
+        }
+        if (wrote) {
+            writer.flush();
+        }
+    }
+
+    private static String describe(ConstraintViolation<?> violation) {
+        return violation.getPropertyPath() + ": " + violation.getMessage();
+    }
+
+    /** Item na ordem de saída: envio em andamento ou rejeição já decidida ({@code errors}). */
+    private record Pending(int index, CompletableFuture<UUID> txId, List<String> errors) {
+
+        static Pending rejected(int index, List<String> errors) {
+            return new Pending(index, null, errors);
+        }
+
+        boolean isDone() {
+            return txId == null || txId.isDone();
+        }
+
+        BatchItemResult result() {
+            if (errors != null) {
+                return BatchItemResult.rejected(index, errors);
+            }
+            try {
+                return BatchItemResult.accepted(index, txId.join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                return BatchItemResult.rejected(index, List.of("Falha ao enviar mensagem para Kafka: " + cause.getMessage()));
+            }
+        }
+    }
+}
@@ -1,33 +1,64 @@
 package com.example.payment.service;
 
 import com.example.common.event.PaymentEvent;
+import com.example.common.trace.StageTimers;
+import com.example.common.trace.TraceHeaders;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class PaymentProducerService {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentProducerService.class);
 
     private final String topic;
+    private final boolean keyByCustomer;
     private final KafkaTemplate<String, PaymentEvent> kafkaTemplate;
+    private final Timer ackTimer;
+    private final Timer producerAckStage;
 
     public PaymentProducerService(
             @Value("${app.kafka.topic}") String topic,
-            KafkaTemplate<String, PaymentEvent> kafkaTemplate
+            @Value("${app.kafka.partition-key:txId}") String partitionKey,
+            KafkaTemplate<String, PaymentEvent> kafkaTemplate,
+            MeterRegistry registry
     ) {
         this.topic = topic;
+        this.keyByCustomer = "customerId".equalsIgnoreCase(partitionKey);
         this.kafkaTemplate = kafkaTemplate;
+        this.ackTimer = Timer.builder("payment.kafka.ack")
+                .description("Tempo entre o send e o ack do broker")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+        this.producerAckStage = StageTimers.of(registry, "producer_ack");
     }
 
-    public void sendPaymentEvent(PaymentEvent event) {
-        String key = event.txId().toString();
-        kafkaTemplate.send(topic, key, event)
+    /** Publica o evento; o future completa com o ack do broker (ou com a falha de envio). */
+    public CompletableFuture<SendResult<String, PaymentEvent>> sendPaymentEvent(PaymentEvent event) {
+        // customerId: todas as transações de um cliente caem na mesma partição (ledger por partição no gateway)
+        String key = keyByCustomer ? event.customerId() : event.txId().toString();
+        var record = new ProducerRecord<String, PaymentEvent>(topic, key, event);
+        // aceite da API = createdAt do evento; os estágios seguintes medem a partir dele
+        long acceptedMicros = TraceHeaders.toMicros(event.createdAt());
+        TraceHeaders.traceId(record.headers(), UUID.randomUUID());
+        TraceHeaders.stamp(record.headers(), TraceHeaders.API_ACCEPT, acceptedMicros);
+        long start = System.nanoTime();
+        return kafkaTemplate.send(record)
                 .whenComplete((result, ex) -> {
                     if (ex == null) {
+                        ackTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        producerAckStage.record(TraceHeaders.nowMicros() - acceptedMicros, TimeUnit.MICROSECONDS);
                         log.info("Payment event sent: key={}, partition={}, offset={}",
                                 key,
                                 result.getRecordMetadata().partition(),
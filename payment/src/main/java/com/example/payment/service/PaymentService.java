@@ -3,24 +3,111 @@ package com.example.payment.service;
 import com.example.common.dto.PaymentRequest;
 import com.example.common.enuns.Status;
 import com.example.common.event.PaymentEvent;
+import com.example.payment.status.PaymentStatusService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class PaymentService {
 
     private final PaymentProducerService paymentProducerService;
+    private final InFlightWindow inFlightWindow;
+    private final PaymentStatusService paymentStatusService;
+    private final long ackTimeoutMs;
 
-    public PaymentService(PaymentProducerService paymentProducerService) {
+    public PaymentService(PaymentProducerService paymentProducerService,
+                          InFlightWindow inFlightWindow,
+                          PaymentStatusService paymentStatusService,
+                          @Value("${app.payment.ack-timeout-ms:5000}") long ackTimeoutMs) {
         this.paymentProducerService = paymentProducerService;
+        this.inFlightWindow = inFlightWindow;
+        this.paymentStatusService = paymentStatusService;
+        this.ackTimeoutMs = ackTimeoutMs;
     }
 
+    /**
+     * Registra o txId como PENDING no read model local; chamado na thread da requisição, antes do
+     * 202, para GET /payments/{txId} nunca responder 404 a quem acabou de receber o txId. Se o envio
+     * falhar, o PENDING é desfeito: o retry do cliente recebe outro txId e este nunca ficaria final.
+     */
+    public void accepted(UUID txId) {
+        paymentStatusService.pending(txId);
+    }
+
+    /**
+     * Envia no executor. {@code sent} completa no callback do envio (ack ou falha), para quem precisa
+     * saber do resultado sem prender a thread da requisição.
+     */
     @Async("taskExecutor")
-    public void processPaymentAsync(UUID txId, PaymentRequest request) {
-        PaymentEvent event = new PaymentEvent(
+    public void processPaymentAsync(UUID txId, PaymentRequest request, CompletableFuture<Void> sent) {
+        try {
+            send(txId, request).whenComplete((r, ex) -> {
+                if (ex == null) {
+                    sent.complete(null);
+                } else {
+                    sent.completeExceptionally(ex);
+                }
+            });
+        } catch (RuntimeException e) {
+            sent.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Envia na thread do chamador (o send do producer não bloqueia) e completa com o ack do broker.
+     * Lança {@link com.example.common.exception.BackpressureException} se a janela em voo estiver cheia.
+     */
+    public CompletableFuture<Void> processPaymentSync(UUID txId, PaymentRequest request) {
+        try {
+            inFlightWindow.acquire();
+        } catch (RuntimeException e) {
+            paymentStatusService.abandoned(txId);
+            throw e;
+        }
+        CompletableFuture<?> sent;
+        try {
+            sent = send(txId, request);
+        } catch (RuntimeException e) {
+            inFlightWindow.release();
+            throw e;
+        }
+        // a vaga só volta com o ack/falha real, não no timeout da resposta
+        sent.whenComplete((r, ex) -> inFlightWindow.release());
+        return sent.<Void>thenApply(r -> null)
+                .orTimeout(ackTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Publica direto na thread do chamador, sem janela nem hop pelo executor (usado pelo lote). */
+    public CompletableFuture<?> publish(UUID txId, PaymentRequest request) {
+        accepted(txId);
+        return send(txId, request);
+    }
+
+    /** Envia e desfaz o PENDING se o envio falhar, lançando ou no callback. */
+    private CompletableFuture<?> send(UUID txId, PaymentRequest request) {
+        CompletableFuture<?> sent;
+        try {
+            sent = paymentProducerService.sendPaymentEvent(toEvent(txId, request));
+        } catch (RuntimeException e) {
+            paymentStatusService.abandoned(txId);
+            throw e;
+        }
+        sent.whenComplete((r, ex) -> {
+            if (ex != null) {
+                paymentStatusService.abandoned(txId);
+            }
+        });
+        return sent;
+    }
+
+    private static PaymentEvent toEvent(UUID txId, PaymentRequest request) {
+        return new PaymentEvent(
                 txId,
                 Instant.now(),
                 request.merchantId(),
@@ -33,6 +120,5 @@ public class PaymentService {
                 request.cardHash(),
                 Status.PENDING
         );
-        paymentProducerService.sendPaymentEvent(event);
     }
 }
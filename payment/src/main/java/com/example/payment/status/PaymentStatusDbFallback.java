@@ -0,0 +1,50 @@
+package com.example.payment.status;
+
+import com.example.common.enuns.Status;
+import com.example.payment.dto.PaymentStatusResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Consulta payment_entity para txIds fora do read model (antes da subida da instância ou
+ * despejados). No máximo {@code maxConcurrent} consultas ao mesmo tempo: acima disso responde
+ * "desconhecido" em vez de enfileirar carga no banco primário. Só pagamentos autorizados são
+ * persistidos, então rejeições antigas não têm fallback.
+ */
+@Slf4j
+public class PaymentStatusDbFallback {
+
+    private static final String QUERY = "SELECT status, created_at FROM payment_entity WHERE tx_id = ? LIMIT 1";
+    private static final Status[] STATUSES = Status.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Semaphore permits;
+
+    public PaymentStatusDbFallback(JdbcTemplate jdbcTemplate, int maxConcurrent) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /** Status persistido ou {@code null} (ausente, banco indisponível ou limite atingido). */
+    public PaymentStatusResponse find(UUID txId) {
+        if (!permits.tryAcquire()) {
+            return null;
+        }
+        try {
+            List<PaymentStatusResponse> rows = jdbcTemplate.query(QUERY, (rs, i) -> new PaymentStatusResponse(
+                    txId, STATUSES[rs.getShort(1)], null, rs.getObject(2, Timestamp.class).toInstant()), txId);
+            return rows.isEmpty() ? null : rows.getFirst();
+        } catch (DataAccessException ex) {
+            log.warn("Fallback de status no banco falhou para txId={}: {}", txId, ex.getMessage());
+            return null;
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.payment.status;
+
+import com.example.common.event.PaymentEvent;
+import com.example.common.event.PaymentRejectedEvent;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+
+import java.util.List;
+
+/** Alimenta o read model com as saídas do gateway. */
+@RequiredArgsConstructor
+public class PaymentStatusListener {
+
+    private final PaymentStatusService paymentStatusService;
+
+    @KafkaListener(
+            id = "payment-status",
+            topics = {"${app.payment.status.persist-topic}", "${app.payment.status.rejected-topic}"},
+            groupId = "${app.payment.status.group-id}",
+            containerFactory = "paymentStatusListenerContainerFactory"
+    )
+    public void onEvents(List<ConsumerRecord<String, Object>> records) {
+        for (ConsumerRecord<String, Object> record : records) {
+            switch (record.value()) {
+                case PaymentEvent event -> paymentStatusService.authorized(event);
+                case PaymentRejectedEvent event -> paymentStatusService.rejected(event);
+                // ErrorHandlingDeserializer entrega null para payload ilegível: não há o que mostrar
+                case null, default -> { }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.payment.status;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.common.event.PaymentRejectedEvent;
+import com.example.payment.dto.PaymentStatusResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta e espera de status. Leitura vem do {@link PaymentStatusStore}; o banco só é tocado no
+ * miss e, mesmo assim, limitado pelo {@link PaymentStatusDbFallback}.
+ *
+ * <p>Quem espera (long-poll/SSE) por um txId ainda PENDING compartilha um future por txId, completado
+ * pelo listener quando o evento final chega. O future vive no máximo {@code maxWait} e o número de
+ * txIds em espera é limitado; acima do limite a resposta é o status atual, sem esperar.
+ */
+public class PaymentStatusService {
+
+    private final PaymentStatusStore store;
+    private final PaymentStatusDbFallback dbFallback;
+    private final Duration maxWait;
+    private final int maxWaiters;
+    private final ConcurrentHashMap<UUID, CompletableFuture<PaymentStatusResponse>> waiters = new ConcurrentHashMap<>();
+
+    /** @param dbFallback {@code null} desliga o fallback */
+    public PaymentStatusService(PaymentStatusStore store, PaymentStatusDbFallback dbFallback,
+                                Duration maxWait, int maxWaiters) {
+        this.store = store;
+        this.dbFallback = dbFallback;
+        this.maxWait = maxWait;
+        this.maxWaiters = maxWaiters;
+    }
+
+    /** A API aceitou o pagamento (202). */
+    public void pending(UUID txId) {
+        store.put(txId, Status.PENDING, null, Instant.now());
+    }
+
+    /** O envio do txId falhou: desfaz o PENDING, que nunca viraria final. */
+    public void abandoned(UUID txId) {
+        store.removePending(txId);
+        CompletableFuture<PaymentStatusResponse> waiting = waiters.remove(txId);
+        if (waiting != null) {
+            waiting.complete(null);
+        }
+    }
+
+    /** Evento de payments.persist.in. */
+    public void authorized(PaymentEvent event) {
+        update(event.txId(), Status.AUTHORIZED, null);
+    }
+
+    /** Evento de payments.rejected. */
+    public void rejected(PaymentRejectedEvent event) {
+        update(event.txId(), Status.REJECTED, event.code());
+    }
+
+    private void update(UUID txId, Status status, RejectCode code) {
+        store.put(txId, status, code, Instant.now());
+        CompletableFuture<PaymentStatusResponse> waiting = waiters.remove(txId);
+        if (waiting != null) {
+            waiting.complete(store.get(txId));
+        }
+    }
+
+    /** Status do read model, com fallback no banco; {@code null} se desconhecido. */
+    public PaymentStatusResponse find(UUID txId) {
+        PaymentStatusResponse current = store.get(txId);
+        if (current != null || dbFallback == null) {
+            return current;
+        }
+        PaymentStatusResponse persisted = dbFallback.find(txId);
+        if (persisted != null) {
+            store.put(txId, persisted.status(), persisted.code(), persisted.updatedAt());
+        }
+        return persisted;
+    }
+
+    /**
+     * Completa com o status final assim que ele chegar, ou com o status atual (possivelmente
+     * {@code null}) ao fim de {@code timeout}.
+     */
+    public CompletableFuture<PaymentStatusResponse> await(UUID txId, Duration timeout) {
+        PaymentStatusResponse current = find(txId);
+        if ((current != null && current.isFinal()) || timeout.isZero()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        if (waiters.size() >= maxWaiters && !waiters.containsKey(txId)) {
+            return CompletableFuture.completedFuture(current);
+        }
+        CompletableFuture<PaymentStatusResponse> shared = waiters.computeIfAbsent(txId, id -> {
+            var future = new CompletableFuture<PaymentStatusResponse>();
+            future.completeOnTimeout(null, maxWait.toMillis(), TimeUnit.MILLISECONDS)
+                    .whenComplete((s, ex) -> waiters.remove(id, future));
+            return future;
+        });
+        // o evento pode ter chegado entre a leitura e o registro da espera
+        PaymentStatusResponse raced = store.get(txId);
+        if (raced != null && raced.isFinal()) {
+            shared.complete(raced);
+        }
+        long waitMillis = Math.min(timeout.toMillis(), maxWait.toMillis());
+        return shared.copy()
+                .completeOnTimeout(null, waitMillis, TimeUnit.MILLISECONDS)
+                .thenApply(s -> s != null ? s : store.get(txId));
+    }
+}
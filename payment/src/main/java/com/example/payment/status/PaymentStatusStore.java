@@ -0,0 +1,208 @@
+package com.example.payment.status;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.enuns.Status;
+import com.example.payment.dto.PaymentStatusResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Read model txId -> status fora do heap: tabela associativa por conjunto (buckets de
+ * {@value #WAYS} slots de {@value #SLOT_BYTES} bytes) num ByteBuffer direto ou num arquivo mapeado
+ * em memória. O txId escolhe o bucket; bucket cheio despeja o slot de acesso mais antigo (LRU por
+ * bucket), então a memória é fixa e nenhum objeto por entrada vai para o GC.
+ *
+ * <p>Com arquivo, o conteúdo sobrevive ao restart. Um arquivo de outro tamanho é zerado.
+ *
+ * <pre>
+ * slot: msb(8) lsb(8) updatedAt ms(8) acesso(4) status(1) code+1(1) usado(1) -(1)
+ * </pre>
+ */
+public class PaymentStatusStore {
+
+    static final int WAYS = 8;
+    static final int SLOT_BYTES = 32;
+    private static final int MSB = 0;
+    private static final int LSB = 8;
+    private static final int UPDATED = 16;
+    private static final int ACCESS = 24;
+    private static final int STATUS = 28;
+    private static final int CODE = 29;
+    private static final int USED = 30;
+    private static final int MAX_STRIPES = 1024;
+    private static final Status[] STATUSES = Status.values();
+    private static final RejectCode[] CODES = RejectCode.values();
+
+    private final ByteBuffer table;
+    private final int bucketMask;
+    private final ReentrantLock[] stripes;
+    private final IntSupplier clock;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /** @param file arquivo mapeado; {@code null} para memória direta */
+    public PaymentStatusStore(int maxEntries, Path file, MeterRegistry registry) {
+        this(maxEntries, file, registry, PaymentStatusStore::millisClock);
+    }
+
+    PaymentStatusStore(int maxEntries, Path file, MeterRegistry registry, IntSupplier clock) {
+        this.clock = clock;
+        int wanted = (maxEntries + WAYS - 1) / WAYS;
+        int buckets = wanted <= 1 ? 1 : Integer.highestOneBit(wanted - 1) << 1;
+        long bytes = (long) buckets * WAYS * SLOT_BYTES;
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("max-entries acima do limite de um buffer: " + maxEntries);
+        }
+        this.table = file == null ? ByteBuffer.allocateDirect((int) bytes) : map(file, (int) bytes);
+        this.bucketMask = buckets - 1;
+        this.stripes = new ReentrantLock[Math.min(buckets, MAX_STRIPES)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.hits = Counter.builder("payment.status.store").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("payment.status.store").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("payment.status.store.evictions").register(registry);
+    }
+
+    private static ByteBuffer map(Path file, int bytes) {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (channel.size() != bytes) {
+                channel.truncate(0); // geometria diferente: os slots não valem mais
+            }
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao mapear " + file, e);
+        }
+    }
+
+    /** Status atual de {@code txId} ou {@code null}. */
+    public PaymentStatusResponse get(UUID txId) {
+        long msb = txId.getMostSignificantBits();
+        long lsb = txId.getLeastSignificantBits();
+        int bucket = bucket(msb, lsb);
+        ReentrantLock lock = stripes[bucket & (stripes.length - 1)];
+        lock.lock();
+        try {
+            int slot = find(bucket, msb, lsb);
+            if (slot < 0) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            table.putInt(slot + ACCESS, clock.getAsInt());
+            byte code = table.get(slot + CODE);
+            return new PaymentStatusResponse(txId, STATUSES[table.get(slot + STATUS)],
+                    code == 0 ? null : CODES[code - 1], Instant.ofEpochMilli(table.getLong(slot + UPDATED)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Grava o status; um estado final nunca volta para PENDING (eventos podem chegar depois do
+     * registro local do 202). Devolve {@code false} se o valor existente foi mantido.
+     */
+    public boolean put(UUID txId, Status status, RejectCode code, Instant updatedAt) {
+        long msb = txId.getMostSignificantBits();
+        long lsb = txId.getLeastSignificantBits();
+        int bucket = bucket(msb, lsb);
+        ReentrantLock lock = stripes[bucket & (stripes.length - 1)];
+        lock.lock();
+        try {
+            int slot = find(bucket, msb, lsb);
+            if (slot >= 0 && status == Status.PENDING && table.get(slot + STATUS) != Status.PENDING.ordinal()) {
+                return false;
+            }
+            if (slot < 0) {
+                slot = victim(bucket);
+            }
+            table.putLong(slot + MSB, msb);
+            table.putLong(slot + LSB, lsb);
+            table.putLong(slot + UPDATED, updatedAt.toEpochMilli());
+            table.putInt(slot + ACCESS, clock.getAsInt());
+            table.put(slot + STATUS, (byte) status.ordinal());
+            table.put(slot + CODE, (byte) (code == null ? 0 : code.ordinal() + 1));
+            table.put(slot + USED, (byte) 1);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Remove {@code txId} se ele ainda estiver PENDING; um status final nunca é apagado. */
+    public boolean removePending(UUID txId) {
+        long msb = txId.getMostSignificantBits();
+        long lsb = txId.getLeastSignificantBits();
+        int bucket = bucket(msb, lsb);
+        ReentrantLock lock = stripes[bucket & (stripes.length - 1)];
+        lock.lock();
+        try {
+            int slot = find(bucket, msb, lsb);
+            if (slot < 0 || table.get(slot + STATUS) != Status.PENDING.ordinal()) {
+                return false;
+            }
+            table.put(slot + USED, (byte) 0);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return (bucketMask + 1) * WAYS;
+    }
+
+    private int find(int bucket, long msb, long lsb) {
+        int base = bucket * WAYS * SLOT_BYTES;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way * SLOT_BYTES;
+            if (table.get(slot + USED) != 0 && table.getLong(slot + MSB) == msb && table.getLong(slot + LSB) == lsb) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /** Slot livre do bucket ou, se cheio, o de acesso mais antigo. */
+    private int victim(int bucket) {
+        int base = bucket * WAYS * SLOT_BYTES;
+        int oldest = base;
+        for (int way = 0; way < WAYS; way++) {
+            int slot = base + way * SLOT_BYTES;
+            if (table.get(slot + USED) == 0) {
+                return slot;
+            }
+            // comparação por diferença: o relógio em int dá a volta
+            if (table.getInt(slot + ACCESS) - table.getInt(oldest + ACCESS) < 0) {
+                oldest = slot;
+            }
+        }
+        evictions.increment();
+        return oldest;
+    }
+
+    private int bucket(long msb, long lsb) {
+        long h = msb ^ lsb;
+        h ^= h >>> 29;
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & bucketMask;
+    }
+
+    /** Relógio de acesso com ~1 ms de resolução; só a ordem relativa importa. */
+    private static int millisClock() {
+        return (int) (System.nanoTime() >>> 20);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.payment.controller;
+
+import com.example.common.dto.PaymentAcceptedResponse;
+import com.example.common.dto.PaymentRequest;
+import com.example.payment.idempotency.IdempotencyCache;
+import com.example.payment.service.PaymentBatchIngestor;
+import com.example.payment.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PaymentControllerTest {
+
+    private static final PaymentRequest REQUEST = new PaymentRequest("MERCH-001", "CUST-1", "TERM-0001", 1050,
+            "BRL", "CREDIT", "CHIP", "abc", null);
+
+    private final PaymentService paymentService = mock(PaymentService.class);
+
+    @Test
+    void asyncModeAnswersWithoutAFuture() {
+        Object response = controller("async").createPayment(null, REQUEST);
+
+        assertThat(response).isInstanceOfSatisfying(ResponseEntity.class,
+                r -> assertThat(r.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED));
+    }
+
+    @Test
+    void syncModeWaitsForTheAckAndRetriesGetTheSameTxId() {
+        var ack = new CompletableFuture<Void>();
+        when(paymentService.processPaymentSync(any(), any())).thenReturn(ack);
+        PaymentController controller = controller("sync");
+
+        Object first = controller.createPayment("key-1", REQUEST);
+        assertThat(first).isInstanceOf(CompletableFuture.class);
+        assertThat((CompletableFuture<?>) first).isNotDone();
+
+        ack.complete(null);
+        UUID txId = txId(((CompletableFuture<?>) first).join());
+        // retry da mesma chave com o ack já recebido: resposta direta, mesmo txId
+        assertThat(txId(controller.createPayment("key-1", REQUEST))).isEqualTo(txId);
+    }
+
+    private PaymentController controller(String ackMode) {
+        var cache = new IdempotencyCache(100, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        return new PaymentController(paymentService, mock(PaymentBatchIngestor.class), cache, ackMode);
+    }
+
+    private static UUID txId(Object response) {
+        return ((PaymentAcceptedResponse) ((ResponseEntity<?>) response).getBody()).txId();
+    }
+}
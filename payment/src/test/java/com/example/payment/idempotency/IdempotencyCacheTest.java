@@ -0,0 +1,77 @@
+package com.example.payment.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyCacheTest {
+
+    @Test
+    void coalescesInFlightDuplicatesOntoTheSameFuture() {
+        var cache = new IdempotencyCache(10, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        var ack = new CompletableFuture<UUID>();
+        var publishes = new AtomicInteger();
+
+        CompletableFuture<UUID> first = cache.execute("k", id -> {
+            publishes.incrementAndGet();
+            return ack.thenApply(v -> id);
+        });
+        CompletableFuture<UUID> retry = cache.execute("k", id -> {
+            publishes.incrementAndGet();
+            return CompletableFuture.completedFuture(id);
+        });
+
+        assertThat(retry).isSameAs(first).isNotDone();
+        ack.complete(null);
+        assertThat(first.join()).isEqualTo(retry.join());
+        assertThat(publishes).hasValue(1);
+    }
+
+    @Test
+    void failedPublishReleasesTheKey() {
+        var cache = new IdempotencyCache(10, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+
+        var failed = cache.execute("k", id -> CompletableFuture.failedFuture(new IllegalStateException("broker")));
+        assertThatThrownBy(failed::join).hasCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.execute("k", CompletableFuture::completedFuture).join()).isNotNull();
+    }
+
+    @Test
+    void asyncAckAnswersTheFirstCallerButDuplicatesWaitForTheSendCallback() {
+        var cache = new IdempotencyCache(10, Duration.ofMinutes(1), null, new SimpleMeterRegistry());
+        var send = new CompletableFuture<Void>();
+
+        CompletableFuture<UUID> first = cache.execute("k", id -> send.thenApply(v -> id), false);
+        CompletableFuture<UUID> retry = cache.execute("k", CompletableFuture::completedFuture, false);
+
+        assertThat(first).isCompleted();
+        assertThat(retry).isNotDone();
+        send.completeExceptionally(new IllegalStateException("broker"));
+        assertThatThrownBy(retry::join).hasCauseInstanceOf(IllegalStateException.class);
+        // envio falhou: a chave foi liberada e o próximo retry publica com txId novo
+        assertThat(cache.execute("k", CompletableFuture::completedFuture, false).join()).isNotEqualTo(first.join());
+    }
+
+    @Test
+    void evictsOldestAboveMaxSizeAndHonoursSharedStore() {
+        var store = new InMemoryIdempotencyStore();
+        var cache = new IdempotencyCache(2, Duration.ofMinutes(1), store, new SimpleMeterRegistry());
+        UUID a = cache.execute("a", CompletableFuture::completedFuture).join();
+        cache.execute("b", CompletableFuture::completedFuture).join();
+        cache.execute("c", CompletableFuture::completedFuture).join();
+
+        assertThat(cache.size()).isEqualTo(2);
+        // "a" saiu do cache local, mas o store compartilhado ainda devolve o txId original
+        assertThat(cache.execute("a", id -> {
+            throw new AssertionError("não deveria publicar de novo");
+        }).join()).isEqualTo(a);
+    }
+}
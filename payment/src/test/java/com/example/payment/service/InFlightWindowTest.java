@@ -0,0 +1,37 @@
+package com.example.payment.service;
+
+import com.example.common.exception.BackpressureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InFlightWindowTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InFlightWindow window = new InFlightWindow(2, 3, registry);
+
+    @Test
+    void rejectsWhenFullWithRetryAfterAndCountsTheRejection() {
+        window.acquire();
+        window.acquire();
+
+        assertThatThrownBy(window::acquire)
+                .isInstanceOfSatisfying(BackpressureException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(window.inFlight()).isEqualTo(2);
+        assertThat(registry.counter("payment.inflight.rejected").count()).isEqualTo(1);
+        assertThat(registry.get("payment.inflight").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void releaseReopensTheWindow() {
+        window.acquire();
+        window.acquire();
+        window.release();
+
+        window.acquire();
+        assertThat(window.inFlight()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.payment.service;
+
+import com.example.payment.idempotency.IdempotencyCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentBatchIngestorTest {
+
+    private static final String VALID = """
+            {"merchantId":"MERCH-001","customerId":"CUST-1","terminalId":"TERM-0001","amount":1050,\
+            "currency":"BRL","method":"CREDIT","entryMode":"CHIP","cardHash":"abc"}""";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final PaymentService paymentService = mock(PaymentService.class);
+    private final PaymentBatchIngestor ingestor = new PaymentBatchIngestor(mapper,
+            Validation.buildDefaultValidatorFactory().getValidator(), paymentService,
+            new IdempotencyCache(100, Duration.ofMinutes(1), null, new SimpleMeterRegistry()), 2, 1_000);
+
+    @Test
+    void ndjsonReportsOneLinePerItemInOrder() throws Exception {
+        when(paymentService.publish(any(), any()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(null))
+                .thenAnswer(inv -> CompletableFuture.failedFuture(new IllegalStateException("broker fora")))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(null));
+        String body = String.join("\n", VALID, VALID.replace("1050", "-1"), VALID, "[1]", "\"x\"", VALID);
+
+        List<JsonNode> lines = run(body);
+
+        assertThat(lines).extracting(l -> l.get("index").asInt()).containsExactly(0, 1, 2, 3, 4, 5);
+        assertThat(lines.get(0).has("txId")).isTrue();
+        assertThat(lines.get(1).get("errors").get(0).asText()).startsWith("amount");
+        assertThat(lines.get(2).get("errors").get(0).asText()).contains("broker fora");
+        assertThat(lines.get(3).has("errors")).isTrue();
+        assertThat(lines.get(4).has("errors")).isTrue();
+        assertThat(lines.get(5).has("txId")).isTrue();
+        verify(paymentService, times(3)).publish(any(), any());
+    }
+
+    @Test
+    void jsonArrayAndTruncatedBodyKeepPreviousItems() throws Exception {
+        when(paymentService.publish(any(), any())).thenAnswer(inv -> CompletableFuture.completedFuture(null));
+
+        List<JsonNode> lines = run("[" + VALID + "," + VALID + ", {\"merchantId\": ");
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0).has("txId")).isTrue();
+        assertThat(lines.get(1).has("txId")).isTrue();
+        assertThat(lines.get(2).get("index").asInt()).isEqualTo(2);
+        assertThat(lines.get(2).get("errors").get(0).asText()).startsWith("JSON inválido");
+    }
+
+    private List<JsonNode> run(String body) throws Exception {
+        var out = new ByteArrayOutputStream();
+        ingestor.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+}
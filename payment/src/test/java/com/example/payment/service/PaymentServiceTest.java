@@ -0,0 +1,97 @@
+package com.example.payment.service;
+
+import com.example.common.dto.PaymentRequest;
+import com.example.common.event.PaymentEvent;
+import com.example.common.exception.BackpressureException;
+import com.example.payment.status.PaymentStatusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Modo sync: 202 só com o ack, a vaga da janela presa até o ack ou a falha real. */
+class PaymentServiceTest {
+
+    private static final PaymentRequest REQUEST = new PaymentRequest("MERCH-001", "CUST-1", "TERM-0001", 1050,
+            "BRL", "CREDIT", "CHIP", "abc", null);
+
+    private final PaymentProducerService producer = mock(PaymentProducerService.class);
+    private final InFlightWindow window = new InFlightWindow(1, 1, new SimpleMeterRegistry());
+    private final PaymentStatusService status = mock(PaymentStatusService.class);
+    private final PaymentService service = new PaymentService(producer, window, status, 60_000);
+    /** Só para os testes de timeout: 50 ms não dão margem para stubbing e asserts antes do ack. */
+    private final PaymentService timingOut = new PaymentService(producer, window, status, 50);
+
+    @Test
+    void completesOnlyWithTheBrokerAckAndThenFreesTheSlot() {
+        var ack = new CompletableFuture<SendResult<String, PaymentEvent>>();
+        when(producer.sendPaymentEvent(any())).thenReturn(ack);
+
+        CompletableFuture<Void> accepted = service.processPaymentSync(UUID.randomUUID(), REQUEST);
+
+        assertThat(accepted).isNotDone();
+        assertThatThrownBy(() -> service.processPaymentSync(UUID.randomUUID(), REQUEST))
+                .isInstanceOf(BackpressureException.class);
+        ack.complete(null);
+        assertThat(accepted).isCompleted();
+        assertThat(window.inFlight()).isZero();
+    }
+
+    @Test
+    void ackTimeoutFailsTheRequestButKeepsTheSlotUntilTheSendEnds() {
+        var ack = new CompletableFuture<SendResult<String, PaymentEvent>>();
+        when(producer.sendPaymentEvent(any())).thenReturn(ack);
+
+        CompletableFuture<Void> accepted = timingOut.processPaymentSync(UUID.randomUUID(), REQUEST);
+
+        assertThatThrownBy(accepted::join).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(window.inFlight()).isEqualTo(1);
+        ack.completeExceptionally(new IllegalStateException("broker fora"));
+        assertThat(window.inFlight()).isZero();
+    }
+
+    @Test
+    void synchronousSendFailureReleasesTheSlot() {
+        when(producer.sendPaymentEvent(any())).thenThrow(new IllegalStateException("buffer cheio"));
+
+        assertThatThrownBy(() -> service.processPaymentSync(UUID.randomUUID(), REQUEST))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(window.inFlight()).isZero();
+    }
+
+    @Test
+    void failedSendUndoesThePendingStatusButATimeoutDoesNot() {
+        var ack = new CompletableFuture<SendResult<String, PaymentEvent>>();
+        when(producer.sendPaymentEvent(any())).thenReturn(ack);
+        UUID txId = UUID.randomUUID();
+
+        CompletableFuture<Void> accepted = timingOut.processPaymentSync(txId, REQUEST);
+        assertThatThrownBy(accepted::join).hasCauseInstanceOf(TimeoutException.class);
+        verify(status, never()).abandoned(txId);
+
+        ack.completeExceptionally(new IllegalStateException("broker fora"));
+        verify(status).abandoned(txId);
+    }
+
+    @Test
+    void backpressureUndoesThePendingStatus() {
+        when(producer.sendPaymentEvent(any())).thenReturn(new CompletableFuture<>());
+        service.processPaymentSync(UUID.randomUUID(), REQUEST);
+        UUID rejected = UUID.randomUUID();
+
+        assertThatThrownBy(() -> service.processPaymentSync(rejected, REQUEST))
+                .isInstanceOf(BackpressureException.class);
+        verify(status).abandoned(rejected);
+    }
+}
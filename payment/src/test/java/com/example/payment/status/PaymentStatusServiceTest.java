@@ -0,0 +1,66 @@
+package com.example.payment.status;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentRejectedEvent;
+import com.example.payment.dto.PaymentStatusResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentStatusServiceTest {
+
+    private final PaymentStatusService service = new PaymentStatusService(
+            new PaymentStatusStore(1_000, null, new SimpleMeterRegistry()), null, Duration.ofSeconds(30), 10);
+
+    @Test
+    void longPollCompletesWhenTheFinalEventArrives() {
+        UUID txId = UUID.randomUUID();
+        service.pending(txId);
+
+        CompletableFuture<PaymentStatusResponse> waiting = service.await(txId, Duration.ofSeconds(10));
+        assertThat(waiting).isNotDone();
+
+        service.rejected(new PaymentRejectedEvent(txId, "MERCH-1", "CUST-1", 100, Status.REJECTED,
+                RejectCode.INSUFFICIENT_FUNDS, "limite", null, Instant.now()));
+
+        assertThat(waiting.join().status()).isEqualTo(Status.REJECTED);
+        assertThat(waiting.join().code()).isEqualTo(RejectCode.INSUFFICIENT_FUNDS);
+    }
+
+    @Test
+    void longPollTimesOutWithTheCurrentStatus() {
+        UUID txId = UUID.randomUUID();
+        service.pending(txId);
+
+        PaymentStatusResponse last = service.await(txId, Duration.ofMillis(20)).join();
+
+        assertThat(last.status()).isEqualTo(Status.PENDING);
+    }
+
+    @Test
+    void unknownTxIdWithoutFallbackIsNull() {
+        assertThat(service.find(UUID.randomUUID())).isNull();
+    }
+
+    @Test
+    void abandonedRemovesOnlyAPendingStatus() {
+        UUID failed = UUID.randomUUID();
+        UUID rejected = UUID.randomUUID();
+        service.pending(failed);
+        service.rejected(new PaymentRejectedEvent(rejected, "MERCH-1", "CUST-1", 100, Status.REJECTED,
+                RejectCode.INSUFFICIENT_FUNDS, "limite", null, Instant.now()));
+
+        service.abandoned(failed);
+        service.abandoned(rejected);
+
+        assertThat(service.find(failed)).isNull();
+        assertThat(service.find(rejected).status()).isEqualTo(Status.REJECTED);
+    }
+}
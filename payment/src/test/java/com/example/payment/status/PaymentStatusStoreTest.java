@@ -0,0 +1,79 @@
+package com.example.payment.status;
+
+import com.example.common.enuns.RejectCode;
+import com.example.common.enuns.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentStatusStoreTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-16T12:00:00Z");
+
+    @Test
+    void storesAndReadsStatusWithRejectCode() {
+        var store = new PaymentStatusStore(1_000, null, new SimpleMeterRegistry());
+        UUID txId = UUID.randomUUID();
+
+        store.put(txId, Status.REJECTED, RejectCode.BLACKLISTED, NOW);
+
+        var status = store.get(txId);
+        assertThat(status.status()).isEqualTo(Status.REJECTED);
+        assertThat(status.code()).isEqualTo(RejectCode.BLACKLISTED);
+        assertThat(status.updatedAt()).isEqualTo(NOW);
+        assertThat(store.get(UUID.randomUUID())).isNull();
+    }
+
+    @Test
+    void finalStatusIsNotDowngradedToPending() {
+        var store = new PaymentStatusStore(1_000, null, new SimpleMeterRegistry());
+        UUID txId = UUID.randomUUID();
+
+        store.put(txId, Status.AUTHORIZED, null, NOW);
+
+        assertThat(store.put(txId, Status.PENDING, null, NOW.plusSeconds(1))).isFalse();
+        assertThat(store.get(txId).status()).isEqualTo(Status.AUTHORIZED);
+    }
+
+    @Test
+    void fullBucketEvictsTheLeastRecentlyAccessedEntry() {
+        var clock = new AtomicInteger();
+        // um único bucket: toda inserção disputa os mesmos WAYS slots
+        var store = new PaymentStatusStore(PaymentStatusStore.WAYS, null, new SimpleMeterRegistry(),
+                clock::incrementAndGet);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < PaymentStatusStore.WAYS; i++) {
+            UUID txId = UUID.randomUUID();
+            ids.add(txId);
+            store.put(txId, Status.PENDING, null, NOW);
+        }
+        store.get(ids.getFirst()); // o mais antigo volta a ser o mais recente
+
+        UUID newcomer = UUID.randomUUID();
+        store.put(newcomer, Status.PENDING, null, NOW);
+
+        assertThat(store.get(newcomer)).isNotNull();
+        assertThat(store.get(ids.getFirst())).isNotNull();
+        assertThat(store.get(ids.get(1))).isNull();
+    }
+
+    @Test
+    void mappedFileSurvivesReopen(@TempDir Path dir) {
+        Path file = dir.resolve("status.bin");
+        UUID txId = UUID.randomUUID();
+        new PaymentStatusStore(1_000, file, new SimpleMeterRegistry()).put(txId, Status.AUTHORIZED, null, NOW);
+
+        var reopened = new PaymentStatusStore(1_000, file, new SimpleMeterRegistry());
+
+        assertThat(reopened.get(txId).status()).isEqualTo(Status.AUTHORIZED);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.persister.config;
+
+import com.example.common.kafka.AdaptiveConcurrencyController;
+import com.example.common.kafka.ConcurrencyPolicy;
+import com.example.common.kafka.ConsumerLagMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Lag do persister-group em payments.persist.in e concorrência do listener principal ajustada por
+ * ele. As partições do tópico são do gateway (TopicConfig); aqui só a concorrência muda.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(AutoscaleProps.class)
+@ConditionalOnProperty(name = "app.kafka.autoscale.enabled", havingValue = "true", matchIfMissing = true)
+public class AutoscaleConfig {
+
+    /** Usa as props do Spring Kafka Admin já configuradas. */
+    @Bean(destroyMethod = "close")
+    public AdminClient adminClient(KafkaAdmin kafkaAdmin) {
+        return AdminClient.create(kafkaAdmin.getConfigurationProperties());
+    }
+
+    @Bean
+    public ConsumerLagMonitor persistLagMonitor(AdminClient adminClient, AutoscaleProps props, MeterRegistry registry,
+                                                @Value("${spring.kafka.consumer.group-id}") String groupId,
+                                                @Value("${app.kafka.topics.persist-in}") String topic) {
+        return new ConsumerLagMonitor(adminClient, groupId, List.of(topic), props.getTimeout(), registry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyController persistConcurrencyController(
+            ConsumerLagMonitor persistLagMonitor, AutoscaleProps props,
+            KafkaListenerEndpointRegistry listenerRegistry, MeterRegistry registry) {
+        var policy = new ConcurrencyPolicy(props.getMinConcurrency(), props.getMaxConcurrency(),
+                props.getScaleUpLag(), props.getScaleDownLag(), props.getMaxDrain(), props.getSamples(), 0);
+        return new AdaptiveConcurrencyController(persistLagMonitor, policy, listenerRegistry,
+                List.of("persist-main"), props.isAdjust(), null, registry);
+    }
+}
+
+@ConfigurationProperties(prefix = "app.kafka.autoscale")
+@Getter @Setter
+class AutoscaleProps {
+    private boolean enabled = true;
+    private boolean adjust = true;
+    private Duration interval = Duration.ofSeconds(15);
+    private Duration timeout = Duration.ofSeconds(5);
+    private int minConcurrency = 1;
+    private int maxConcurrency = 12;
+    private long scaleUpLag = 1_000;
+    private long scaleDownLag = 100;
+    private Duration maxDrain = Duration.ofSeconds(30);
+    private int samples = 3;
+}
@@ -0,0 +1,45 @@
+package com.example.persister.config;
+
+import com.example.persister.dedup.TxIdBloomFilter;
+import com.example.persister.dedup.TxIdDeduplicator;
+import com.example.persister.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(DedupProps.class)
+public class DedupConfig {
+
+    @Bean
+    public TxIdBloomFilter txIdBloomFilter(DedupProps props) {
+        return new TxIdBloomFilter(props.getShards(), props.getBitsPerShard(), props.getHashes(),
+                props.getWindow().toMillis());
+    }
+
+    @Bean
+    public TxIdDeduplicator txIdDeduplicator(TxIdBloomFilter filter, PaymentRepository paymentRepository,
+                                             DataSource dataSource, PlatformTransactionManager transactionManager,
+                                             MeterRegistry meterRegistry, DedupProps props) {
+        return new TxIdDeduplicator(filter, paymentRepository, dataSource, transactionManager, meterRegistry,
+                props.isEnabled(), props.getWindow());
+    }
+}
+
+@ConfigurationProperties(prefix = "app.persister.dedup")
+@Getter @Setter
+class DedupProps {
+    private boolean enabled = true;
+    private int shards = 16;
+    private int bitsPerShard = 1 << 22;
+    private int hashes = 5;
+    private Duration window = Duration.ofHours(1);
+}
@@ -1,19 +1,41 @@
 package com.example.persister.config;
 
 import com.example.common.event.PaymentAuthorizedEvent;
+import com.example.persister.consumer.PersisterConsumer;
+import com.example.persister.retry.RetryTier;
+import com.example.persister.retry.RetryTierRouter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListenerConfigurer;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.MethodKafkaListenerEndpoint;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
-import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.support.DefaultMessageHandlerMethodFactory;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.lang.reflect.Method;
+import java.util.List;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    // false no profile dlq-replay: só o replay consome
+    @Value("${spring.kafka.listener.auto-startup:true}")
+    private boolean autoStartup;
+
+    // inicial; com app.kafka.autoscale.adjust o AdaptiveConcurrencyController ajusta pelo lag
+    @Value("${app.persister.listener.concurrency:6}")
+    private int concurrency;
+
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, PaymentAuthorizedEvent> kafkaListenerContainerFactory(
             ConsumerFactory<String, PaymentAuthorizedEvent> consumerFactory,
@@ -21,18 +43,72 @@ public class KafkaConfig {
     ) {
         var factory = new ConcurrentKafkaListenerContainerFactory<String, PaymentAuthorizedEvent>();
         factory.setConsumerFactory(consumerFactory);
-        factory.setConcurrency(3);
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD); // sem ack manual
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true); // recebe o poll inteiro (max-poll-records)
+        // commita offsets só depois que o listener (e a transação) retornar
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         factory.setCommonErrorHandler(errorHandler);
+        factory.setAutoStartup(autoStartup);
         return factory;
     }
 
+    /** Tiers de retry: ack manual para devolver com nack(sleep) o que ainda não venceu. */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentAuthorizedEvent> retryKafkaListenerContainerFactory(
+            ConsumerFactory<String, PaymentAuthorizedEvent> consumerFactory,
+            DefaultErrorHandler errorHandler
+    ) {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, PaymentAuthorizedEvent>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(1);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(errorHandler);
+        factory.setAutoStartup(autoStartup);
+        return factory;
+    }
+
+    /**
+     * Um endpoint de {@link PersisterConsumer#consumeRetry} por tier. Num container só, os tópicos e
+     * partições de todos os tiers dividiriam o consumidor e o nack(sleep) do tier de 1 min seguraria
+     * também o de 5 s; assim cada tier espera só pelo próprio vencimento.
+     */
+    @Bean
+    public KafkaListenerConfigurer retryTierListeners(
+            PersisterConsumer persisterConsumer,
+            RetryTierRouter retryTierRouter,
+            ConcurrentKafkaListenerContainerFactory<String, PaymentAuthorizedEvent> retryKafkaListenerContainerFactory,
+            @Value("${spring.kafka.consumer.group-id}") String groupId
+    ) {
+        Method consumeRetry = ReflectionUtils.findMethod(PersisterConsumer.class, "consumeRetry", List.class, Acknowledgment.class);
+        var handlerMethodFactory = new DefaultMessageHandlerMethodFactory();
+        handlerMethodFactory.afterPropertiesSet();
+        return registrar -> {
+            for (RetryTier tier : retryTierRouter.tiers()) {
+                var endpoint = new MethodKafkaListenerEndpoint<String, PaymentAuthorizedEvent>();
+                endpoint.setId("persist-retry-" + tier.topic());
+                endpoint.setGroupId(groupId);
+                endpoint.setTopics(tier.topic());
+                endpoint.setBean(persisterConsumer);
+                endpoint.setMethod(consumeRetry);
+                endpoint.setMessageHandlerMethodFactory(handlerMethodFactory);
+                endpoint.setBatchListener(true);
+                registrar.registerEndpoint(endpoint, retryKafkaListenerContainerFactory);
+            }
+        };
+    }
+
+    /**
+     * Registro venenoso (BatchListenerFailedException) não é retentado no lugar: o prefixo do lote
+     * é commitado e ele segue na hora para o próximo tier, sem travar a partição.
+     * Qualquer outra exceção (banco fora) retenta o lote inteiro com backoff sem limite.
+     */
     @Bean
-    public DefaultErrorHandler errorHandler() {
-        var backoff = new ExponentialBackOffWithMaxRetries(5);
-        backoff.setInitialInterval(1_000L);
-        backoff.setMultiplier(2.0);
+    public DefaultErrorHandler errorHandler(DeadLetterPublishingRecoverer deadLetterPublishingRecoverer) {
+        var backoff = new ExponentialBackOff(1_000L, 2.0);
         backoff.setMaxInterval(30_000L);
-        return new DefaultErrorHandler(backoff);
+        var handler = new DefaultErrorHandler(deadLetterPublishingRecoverer, backoff);
+        handler.setBackOffFunction((record, ex) -> new FixedBackOff(0L, 0L));
+        return handler;
     }
 }
@@ -0,0 +1,37 @@
+package com.example.persister.config;
+
+import com.example.persister.partition.PaymentPartitionMaintainer;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(PartitionProps.class)
+@ConditionalOnProperty(name = "app.persister.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionConfig {
+
+    @Bean
+    public PaymentPartitionMaintainer paymentPartitionMaintainer(JdbcTemplate jdbcTemplate, PartitionProps props) {
+        return new PaymentPartitionMaintainer(jdbcTemplate, props.getPremakeDays(), props.getRetention(),
+                props.isDropExpired());
+    }
+}
+
+@ConfigurationProperties(prefix = "app.persister.partitions")
+@Getter @Setter
+class PartitionProps {
+    private boolean enabled = true;
+    private int premakeDays = 7;
+    private Duration retention = Duration.ofDays(90);
+    private boolean dropExpired = true;
+    private Duration maintenanceInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,91 @@
+package com.example.persister.config;
+
+import com.example.common.event.PaymentEvent;
+import com.example.common.serde.PaymentEventSerializer;
+import com.example.persister.retry.RetryTier;
+import com.example.persister.retry.RetryTierRouter;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(RetryProps.class)
+public class RetryConfig {
+
+    @Bean
+    public RetryTierRouter retryTierRouter(RetryProps props,
+                                           @Value("${app.kafka.topics.persist-in}") String mainTopic,
+                                           @Value("${app.kafka.topics.dlq}") String dlqTopic) {
+        return new RetryTierRouter(mainTopic, dlqTopic, props.getTiers());
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics retryTopics(RetryProps props, @Value("${app.kafka.topics.dlq}") String dlqTopic) {
+        var topics = new ArrayList<NewTopic>();
+        for (RetryTier tier : props.getTiers()) {
+            topics.add(TopicBuilder.name(tier.topic()).partitions(props.getPartitions()).replicas(1).build());
+        }
+        topics.add(TopicBuilder.name(dlqTopic).partitions(props.getDlqPartitions()).replicas(1).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(NewTopic[]::new));
+    }
+
+    /**
+     * Producer só para retry/DLQ. Eventos desserializados voltam pelo serializer do common
+     * (re-carimba x-wire-format); payload ilegível é republicado como os bytes originais.
+     */
+    @Bean
+    public ProducerFactory<String, Object> retryProducerFactory(KafkaProperties kafkaProperties) {
+        Map<String, Object> configs = kafkaProperties.buildProducerProperties(null);
+        configs.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        Map<Class<?>, Serializer<?>> delegates = new LinkedHashMap<>();
+        delegates.put(byte[].class, new ByteArraySerializer());
+        delegates.put(PaymentEvent.class, new PaymentEventSerializer());
+        var valueSerializer = new DelegatingByTypeSerializer(delegates, true);
+        valueSerializer.configure(configs, false);
+        return new DefaultKafkaProducerFactory<>(configs, new StringSerializer(), valueSerializer);
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> retryKafkaTemplate(ProducerFactory<String, Object> retryProducerFactory) {
+        return new KafkaTemplate<>(retryProducerFactory);
+    }
+
+    /** Publica o registro que falhou no próximo tier (ou na DLQ) com os headers kafka_dlt-* da falha. */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(KafkaTemplate<String, Object> retryKafkaTemplate,
+                                                                       RetryTierRouter retryTierRouter) {
+        var recoverer = new DeadLetterPublishingRecoverer(retryKafkaTemplate, retryTierRouter::resolve);
+        recoverer.setHeadersFunction(retryTierRouter::retryHeaders);
+        return recoverer;
+    }
+}
+
+@ConfigurationProperties(prefix = "app.persister.retry")
+@Getter @Setter
+class RetryProps {
+    private int partitions = 6;
+    private int dlqPartitions = 3;
+    private List<RetryTier> tiers = new ArrayList<>();
+}
@@ -0,0 +1,48 @@
+package com.example.persister.consumer;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.persister.entity.PaymentEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneOffset;
+
+/** Evento autorizado -> linha de payment_entity, com o próprio evento em JSON como payload. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentEntityMapper {
+
+    private final ObjectMapper objectMapper;
+
+    public PaymentEntity toEntity(PaymentEvent e) {
+        PaymentEntity entity = buildEntity(e);
+        entity.setPayload(serialize(e));
+        return entity;
+    }
+
+    public PaymentEntity buildEntity(PaymentEvent e) {
+        var entity = new PaymentEntity();
+        entity.setTxId(e.txId());
+        entity.setMerchantId(e.merchantId());
+        entity.setCustomerId(e.customerId());
+        entity.setAmount(e.amount());
+        entity.setStatus(Status.AUTHORIZED);
+        // PaymentEvent tem createdAt; use como createdAt (ou authorizedAt lógico)
+        entity.setCreatedAt(e.createdAt().atOffset(ZoneOffset.UTC));
+        return entity;
+    }
+
+    public String serialize(Object o) {
+        try {
+            return objectMapper.writeValueAsString(o);
+        } catch (JsonProcessingException ex) {
+            log.error("Falha ao serializar payload", ex);
+            return "{}";
+        }
+    }
+}
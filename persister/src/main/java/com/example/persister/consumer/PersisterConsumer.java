@@ -2,85 +2,209 @@ package com.example.persister.consumer;
 
 import com.example.common.enuns.Status;
 import com.example.common.event.PaymentEvent;
+import com.example.common.trace.StageTimers;
+import com.example.common.trace.TraceHeaders;
+import com.example.persister.dedup.TxIdDeduplicator;
 import com.example.persister.entity.PaymentEntity;
-import com.example.persister.repository.PaymentRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.example.persister.repository.PaymentBatchWriter;
+import com.example.persister.retry.RetryTierRouter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Persiste lotes do tópico principal e dos tiers de retry. Falha não transitória isola o lote
+ * registro a registro; o primeiro venenoso sai por BatchListenerFailedException e o error handler
+ * o publica no próximo tier (ou na DLQ) sem bloquear os demais.
+ */
 @Slf4j
-@Transactional
 @Component
-@RequiredArgsConstructor
 public class PersisterConsumer {
 
-    private final PaymentRepository paymentRepository;
-    private final ObjectMapper objectMapper;
+    private final PaymentBatchWriter paymentBatchWriter;
+    private final TxIdDeduplicator txIdDeduplicator;
+    private final PaymentEntityMapper paymentEntityMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final RetryTierRouter retryTierRouter;
+    private final Timer commitStage;
+    private final Timer e2eStage;
+    private final Timer retryCommitStage;
+    private final Timer retryE2eStage;
+
+    public PersisterConsumer(PaymentBatchWriter paymentBatchWriter,
+                             TxIdDeduplicator txIdDeduplicator,
+                             PaymentEntityMapper paymentEntityMapper,
+                             TransactionTemplate transactionTemplate,
+                             RetryTierRouter retryTierRouter,
+                             MeterRegistry meterRegistry) {
+        this.paymentBatchWriter = paymentBatchWriter;
+        this.txIdDeduplicator = txIdDeduplicator;
+        this.paymentEntityMapper = paymentEntityMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.retryTierRouter = retryTierRouter;
+        this.commitStage = StageTimers.of(meterRegistry, "persister_commit");
+        this.e2eStage = StageTimers.of(meterRegistry, "e2e");
+        // o atraso do tier domina a latência de quem passou pelo retry: histograma à parte
+        this.retryCommitStage = StageTimers.of(meterRegistry, "persister_commit_retry");
+        this.retryE2eStage = StageTimers.of(meterRegistry, "e2e_retry");
+    }
 
     @KafkaListener(
+            id = "persist-main",
             topics = "${app.kafka.topics.persist-in}",
             groupId = "${spring.kafka.consumer.group-id}",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeAuthorized(final PaymentEvent event) {
-        if (!isAuthorized(event)) {
-            log.debug("Ignorando evento não autorizado txId={} status={}", event.txId(), event.status());
-            return;
+    public void consumeAuthorized(final List<ConsumerRecord<String, PaymentEvent>> records) {
+        persist(records, false);
+    }
+
+    /**
+     * Cada tier tem atraso fixo, então na partição os registros chegam em ordem de vencimento:
+     * persiste o prefixo vencido e devolve o resto com nack(sleep). Registrado um container por
+     * tier ({@code KafkaConfig#retryTierListeners}): o nack pausa só o consumidor daquele tier.
+     */
+    public void consumeRetry(final List<ConsumerRecord<String, PaymentEvent>> records, final Acknowledgment ack) {
+        long now = System.currentTimeMillis();
+        int due = 0;
+        while (due < records.size() && retryTierRouter.dueAt(records.get(due)) <= now) {
+            due++;
         }
-        if (isDuplicate(event)) {
-            log.warn("Evento duplicado (txId={}). Ignorando.", event.txId());
-            return;
+        persist(records.subList(0, due), true);
+        if (due < records.size()) {
+            ack.nack(due, Duration.ofMillis(retryTierRouter.dueAt(records.get(due)) - now));
+        } else {
+            ack.acknowledge();
         }
-
-        PaymentEntity entity = buildEntity(event);
-        entity.setPayload(serialize(event));
-        saveSafely(entity, event.txId().toString());
     }
 
-    // ----- helpers -----
-    private boolean isAuthorized(PaymentEvent e) {
-        return e.status() == Status.AUTHORIZED;
+    private void persist(List<ConsumerRecord<String, PaymentEvent>> records, boolean retry) {
+        long start = System.nanoTime();
+        // ErrorHandlingDeserializer entrega null quando o payload não desserializa: o lote vai até ele
+        int readable = 0;
+        while (readable < records.size() && records.get(readable).value() != null) {
+            readable++;
+        }
+        List<ConsumerRecord<String, PaymentEvent>> head = records.subList(0, readable);
+        Map<UUID, PaymentEntity> batch = toBatch(head);
+        int written;
+        try {
+            written = write(batch);
+            committed(head, retry);
+        } catch (DataAccessException ex) {
+            if (isTransient(ex)) {
+                throw ex; // banco indisponível: o error handler segura o lote com backoff
+            }
+            log.warn("Falha ao gravar lote de {} registros ({}). Isolando registro a registro.",
+                    head.size(), ex.getMessage());
+            written = writeOneByOne(head, retry);
+        }
+        if (written > 0) {
+            long elapsedNanos = Math.max(1, System.nanoTime() - start);
+            log.info("Lote persistido ({}): {} registros recebidos, {} gravados em {} ms ({} rows/s)",
+                    paymentBatchWriter.mode(), records.size(), written, elapsedNanos / 1_000_000,
+                    written * 1_000_000_000L / elapsedNanos);
+        }
+        if (readable < records.size()) {
+            ConsumerRecord<String, PaymentEvent> poison = records.get(readable);
+            log.warn("Registro sem payload válido partition={} offset={}. Enviando para a DLQ.",
+                    poison.partition(), poison.offset());
+            throw new BatchListenerFailedException("Payload ilegível", readable);
+        }
     }
 
-    private boolean isDuplicate(PaymentEvent e) {
-        return paymentRepository.existsByTxId(e.txId());
+    private int writeOneByOne(List<ConsumerRecord<String, PaymentEvent>> records, boolean retry) {
+        int written = 0;
+        for (int i = 0; i < records.size(); i++) {
+            try {
+                written += write(toBatch(records.subList(i, i + 1)));
+                committed(records.subList(i, i + 1), retry);
+            } catch (DataAccessException ex) {
+                if (isTransient(ex)) {
+                    throw ex;
+                }
+                // o que veio antes já foi gravado; este vai para o próximo tier e o resto é relido
+                throw new BatchListenerFailedException("Falha ao gravar registro: " + ex.getMessage(), ex, i);
+            }
+        }
+        return written;
     }
 
-    private PaymentEntity buildEntity(PaymentEvent e) {
-        var entity = new PaymentEntity();
-        entity.setTxId(e.txId());
-        entity.setMerchantId(e.merchantId());
-        entity.setCustomerId(e.customerId());
-        entity.setAmount(e.amount());
-        entity.setStatus(Status.AUTHORIZED);
-        // PaymentEvent tem createdAt; use como createdAt (ou authorizedAt lógico)
-        entity.setCreatedAt(e.createdAt().atOffset(ZoneOffset.UTC));
-        return entity;
+    private int write(Map<UUID, PaymentEntity> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            txIdDeduplicator.dropPersisted(batch);
+            if (!batch.isEmpty()) {
+                paymentBatchWriter.insertIgnoringDuplicates(new ArrayList<>(batch.values()));
+            }
+        });
+        txIdDeduplicator.recordPersisted(batch.keySet());
+        return batch.size();
     }
 
-    private String serialize(Object o) {
-        try {
-            return objectMapper.writeValueAsString(o);
-        } catch (JsonProcessingException ex) {
-            log.error("Falha ao serializar payload", ex);
-            return "{}";
+    /**
+     * Estágios persister_commit (vs. decisão do gateway) e e2e (vs. aceite da API); registros vindos
+     * de um tier de retry vão para persister_commit_retry e e2e_retry.
+     */
+    private void committed(List<ConsumerRecord<String, PaymentEvent>> records, boolean retry) {
+        Timer commit = retry ? retryCommitStage : commitStage;
+        Timer e2e = retry ? retryE2eStage : e2eStage;
+        long now = TraceHeaders.nowMicros();
+        for (ConsumerRecord<String, PaymentEvent> record : records) {
+            long decided = TraceHeaders.read(record.headers(), TraceHeaders.GATEWAY_DECIDE);
+            if (decided > 0) {
+                commit.record(now - decided, TimeUnit.MICROSECONDS);
+            }
+            long accepted = TraceHeaders.read(record.headers(), TraceHeaders.API_ACCEPT);
+            if (accepted > 0) {
+                e2e.record(now - accepted, TimeUnit.MICROSECONDS);
+            }
         }
     }
 
-    private void saveSafely(PaymentEntity entity, String txId) {
-        try {
-            paymentRepository.save(entity);
-            log.info("Pagamento autorizado persistido (txId={})", txId);
-        } catch (DataIntegrityViolationException dup) {
-            log.warn("Conflito de unicidade ao persistir txId={} (duplicado concorrente). Ignorando.", txId);
+    private Map<UUID, PaymentEntity> toBatch(List<ConsumerRecord<String, PaymentEvent>> records) {
+        // LinkedHashMap: descarta duplicados dentro do próprio poll mantendo a ordem
+        Map<UUID, PaymentEntity> batch = new LinkedHashMap<>(records.size() * 2);
+        for (ConsumerRecord<String, PaymentEvent> record : records) {
+            PaymentEvent event = record.value();
+            if (!isAuthorized(event)) {
+                log.debug("Ignorando evento não autorizado txId={} status={}", event.txId(), event.status());
+                continue;
+            }
+            if (batch.containsKey(event.txId())) {
+                log.debug("Evento duplicado no mesmo lote (txId={}). Ignorando.", event.txId());
+                continue;
+            }
+            batch.put(event.txId(), paymentEntityMapper.toEntity(event));
         }
+        return batch;
+    }
+
+    // ----- helpers -----
+    private static boolean isTransient(DataAccessException ex) {
+        return ex instanceof TransientDataAccessException
+                || ex instanceof RecoverableDataAccessException
+                || ex instanceof DataAccessResourceFailureException;
+    }
+
+    private boolean isAuthorized(PaymentEvent e) {
+        return e.status() == Status.AUTHORIZED;
     }
 }
@@ -0,0 +1,116 @@
+package com.example.persister.dedup;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter de txIds recentes, fatiado em shards e com janela de tempo.
+ * Cada shard mantém duas gerações (atual e anterior); quando a janela expira a atual
+ * vira anterior e uma nova é criada, então um txId fica visível entre 1 e 2 janelas.
+ * Escritas usam CAS em AtomicLongArray: nenhum lock no caminho quente.
+ */
+public class TxIdBloomFilter {
+
+    private final Shard[] shards;
+    private final int shardShift;
+    private final int bitsPerShard;
+    private final int hashes;
+    private final long windowNanos;
+
+    public TxIdBloomFilter(int shardCount, int bitsPerShard, int hashes, long windowMillis) {
+        if (Integer.bitCount(shardCount) != 1 || Integer.bitCount(bitsPerShard) != 1 || bitsPerShard < 64) {
+            throw new IllegalArgumentException("shards e bits por shard devem ser potências de 2 (bits >= 64)");
+        }
+        this.bitsPerShard = bitsPerShard;
+        this.hashes = hashes;
+        this.windowNanos = windowMillis * 1_000_000L;
+        this.shardShift = 64 - Integer.numberOfTrailingZeros(shardCount);
+        this.shards = new Shard[shardCount];
+        long now = System.nanoTime();
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(bitsPerShard, now);
+        }
+    }
+
+    public void put(UUID txId) {
+        long h1 = mix(txId.getMostSignificantBits() ^ Long.rotateLeft(txId.getLeastSignificantBits(), 32));
+        long h2 = mix(txId.getLeastSignificantBits()) | 1L;
+        Shard shard = shardFor(h1);
+        AtomicLongArray bits = shard.current(windowNanos, bitsPerShard);
+        int mask = bitsPerShard - 1;
+        for (int i = 0; i < hashes; i++) {
+            setBit(bits, (int) ((h1 + i * h2) & mask));
+        }
+    }
+
+    /** false = certamente não visto na janela; true = talvez visto (consultar o banco). */
+    public boolean mightContain(UUID txId) {
+        long h1 = mix(txId.getMostSignificantBits() ^ Long.rotateLeft(txId.getLeastSignificantBits(), 32));
+        long h2 = mix(txId.getLeastSignificantBits()) | 1L;
+        Shard shard = shardFor(h1);
+        AtomicLongArray current = shard.current(windowNanos, bitsPerShard);
+        AtomicLongArray previous = shard.previous;
+        return contains(current, h1, h2) || (previous != null && contains(previous, h1, h2));
+    }
+
+    private boolean contains(AtomicLongArray bits, long h1, long h2) {
+        int mask = bitsPerShard - 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) ((h1 + i * h2) & mask);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Shard shardFor(long h1) {
+        return shards.length == 1 ? shards[0] : shards[(int) (h1 >>> shardShift)];
+    }
+
+    private static void setBit(AtomicLongArray bits, int bit) {
+        int word = bit >>> 6;
+        long mask = 1L << bit;
+        long cur;
+        while (((cur = bits.get(word)) & mask) == 0) {
+            if (bits.compareAndSet(word, cur, cur | mask)) {
+                return;
+            }
+        }
+    }
+
+    // finalizador do SplitMix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Shard {
+        private volatile AtomicLongArray current;
+        private volatile AtomicLongArray previous;
+        private volatile long startedAt;
+
+        Shard(int bits, long now) {
+            this.current = new AtomicLongArray(bits >>> 6);
+            this.startedAt = now;
+        }
+
+        AtomicLongArray current(long windowNanos, int bits) {
+            if (System.nanoTime() - startedAt >= windowNanos) {
+                rotate(windowNanos, bits);
+            }
+            return current;
+        }
+
+        private synchronized void rotate(long windowNanos, int bits) {
+            long now = System.nanoTime();
+            if (now - startedAt < windowNanos) {
+                return; // outra thread já rotacionou
+            }
+            previous = current;
+            current = new AtomicLongArray(bits >>> 6);
+            startedAt = now;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.persister.dedup;
+
+import com.example.persister.entity.PaymentEntity;
+import com.example.persister.repository.PaymentRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Filtra txIds já persistidos antes da escrita. O banco só é consultado (em lote) para os
+ * txIds que o Bloom filter marca como "talvez vistos"; o resto segue direto para o INSERT.
+ * Criado em {@link com.example.persister.config.DedupConfig}.
+ */
+@Slf4j
+public class TxIdDeduplicator implements InitializingBean {
+
+    private static final String WARMUP_QUERY = "SELECT tx_id FROM payment_entity WHERE created_at >= ?";
+
+    private final TxIdBloomFilter filter;
+    private final PaymentRepository paymentRepository;
+    private final DataSource dataSource;
+    private final PlatformTransactionManager transactionManager;
+    private final boolean enabled;
+    private final Duration window;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public TxIdDeduplicator(TxIdBloomFilter filter,
+                            PaymentRepository paymentRepository,
+                            DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            boolean enabled,
+                            Duration window) {
+        this.filter = filter;
+        this.paymentRepository = paymentRepository;
+        this.dataSource = dataSource;
+        this.transactionManager = transactionManager;
+        this.enabled = enabled;
+        this.window = window;
+        FunctionCounter.builder("persister.dedup.filter", hits, LongAdder::sum)
+                .tag("result", "hit").description("txIds marcados como talvez vistos").register(meterRegistry);
+        FunctionCounter.builder("persister.dedup.filter", misses, LongAdder::sum)
+                .tag("result", "miss").description("txIds certamente novos").register(meterRegistry);
+        FunctionCounter.builder("persister.dedup.filter", falsePositives, LongAdder::sum)
+                .tag("result", "false_positive").description("talvez vistos que não estavam no banco").register(meterRegistry);
+    }
+
+    /** Remove do lote os txIds que já estão no banco. */
+    public void dropPersisted(Map<UUID, PaymentEntity> batch) {
+        if (!enabled) {
+            return; // ON CONFLICT continua garantindo a unicidade
+        }
+        List<UUID> maybeSeen = new ArrayList<>();
+        OffsetDateTime from = null;
+        OffsetDateTime to = null;
+        for (PaymentEntity entity : batch.values()) {
+            if (filter.mightContain(entity.getTxId())) {
+                maybeSeen.add(entity.getTxId());
+                OffsetDateTime createdAt = entity.getCreatedAt();
+                from = from == null || createdAt.isBefore(from) ? createdAt : from;
+                to = to == null || createdAt.isAfter(to) ? createdAt : to;
+            }
+        }
+        hits.add(maybeSeen.size());
+        misses.add(batch.size() - maybeSeen.size());
+        if (maybeSeen.isEmpty()) {
+            return;
+        }
+        // createdAt é o mesmo em toda reentrega do txId: só as partições do intervalo do lote contam
+        List<UUID> existing = paymentRepository.findExistingTxIds(maybeSeen, from, to);
+        falsePositives.add(maybeSeen.size() - existing.size());
+        existing.forEach(batch::remove);
+        if (!existing.isEmpty()) {
+            log.warn("{} eventos duplicados já persistidos. Ignorando.", existing.size());
+        }
+    }
+
+    /** Registra txIds gravados; chamado após a escrita do lote. */
+    public void recordPersisted(Collection<UUID> txIds) {
+        if (enabled) {
+            txIds.forEach(filter::put);
+        }
+    }
+
+    /** Aquece o filtro com os txIds da última janela antes dos listeners começarem. */
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        var counter = new LongAdder();
+        try {
+            var jdbc = new JdbcTemplate(dataSource);
+            jdbc.setFetchSize(10_000); // cursor no servidor: exige transação (autocommit off)
+            var tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(status -> jdbc.query(WARMUP_QUERY,
+                    (RowCallbackHandler) rs -> {
+                        filter.put(rs.getObject(1, UUID.class));
+                        counter.increment();
+                    },
+                    OffsetDateTime.now().minus(window)));
+            log.info("Filtro de txId aquecido com {} registros em {} ms",
+                    counter.sum(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            // sem aquecimento o filtro só gera mais consultas "talvez visto"; não impede a subida
+            log.warn("Falha ao aquecer filtro de txId: {}", ex.getMessage());
+        }
+    }
+}
@@ -11,7 +11,11 @@ import org.hibernate.type.SqlTypes;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+/** Tabela particionada por createdAt; o schema vem de db/migration (ddl-auto=none). */
 @Entity
+@Table(name = "payment_entity",
+        uniqueConstraints = @UniqueConstraint(name = "ux_payment_entity_tx_id", columnNames = {"txId", "createdAt"}),
+        indexes = @Index(name = "ix_payment_entity_merchant_created", columnList = "merchantId, createdAt"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -0,0 +1,81 @@
+package com.example.persister.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Mantém as partições diárias de payment_entity (funções criadas em V1): garante as de ontem até
+ * {@code premakeDays} à frente e desanexa (e opcionalmente apaga) as mais antigas que a retenção.
+ * Apagar uma partição inteira não gera DELETE, nem bloat, nem vacuum no resto da tabela.
+ *
+ * <p>Roda na subida, antes dos listeners, para o INSERT nunca cair na partição default: se nem as
+ * partições de hoje em diante puderem ser criadas, a subida falha. Nas rodadas agendadas uma falha
+ * só é registrada; o que cair na default nesse meio tempo é movido quando o dia for criado (V2).
+ */
+@Slf4j
+public class PaymentPartitionMaintainer implements InitializingBean {
+
+    private static final String ENSURE = "SELECT payment_entity_ensure_partitions(?, ?)";
+    private static final String EXPIRE = "SELECT payment_entity_expire_partitions(?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int premakeDays;
+    private final Duration retention;
+    private final boolean dropExpired;
+
+    public PaymentPartitionMaintainer(JdbcTemplate jdbcTemplate, int premakeDays, Duration retention,
+                                      boolean dropExpired) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.premakeDays = premakeDays;
+        this.retention = retention;
+        this.dropExpired = dropExpired;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        ensure(today);
+        try {
+            expire(today);
+        } catch (RuntimeException ex) {
+            // retenção atrasada não afeta a ingestão
+            log.error("Falha ao expirar partições de payment_entity", ex);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.persister.partitions.maintenance-interval:PT1H}",
+            initialDelayString = "${app.persister.partitions.maintenance-interval:PT1H}")
+    public void maintain() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        try {
+            ensure(today);
+            expire(today);
+        } catch (RuntimeException ex) {
+            // com partições futuras já criadas, uma falha pontual não afeta a ingestão
+            log.error("Falha na manutenção das partições de payment_entity", ex);
+        }
+    }
+
+    private void ensure(LocalDate today) {
+        List<String> created = jdbcTemplate.queryForList(ENSURE, String.class,
+                today.minusDays(1), today.plusDays(premakeDays));
+        if (!created.isEmpty()) {
+            log.info("Partições criadas: {}", created);
+        }
+    }
+
+    private void expire(LocalDate today) {
+        LocalDate cutoff = today.minusDays(retention.toDays());
+        List<String> expired = jdbcTemplate.queryForList(EXPIRE, String.class, cutoff, dropExpired);
+        if (!expired.isEmpty()) {
+            log.info("Partições anteriores a {} {}: {}", cutoff, dropExpired ? "apagadas" : "desanexadas", expired);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.persister.repository;
+
+import com.example.persister.entity.PaymentEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Escrita em lote via JDBC. Com reWriteBatchedInserts=true o driver reescreve o batch
+ * em INSERTs multi-linha; duplicados são descartados pelo índice único (tx_id, created_at).
+ */
+@Repository
+@ConditionalOnProperty(name = "app.persister.write-mode", havingValue = "jdbc", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PaymentBatchRepository implements PaymentBatchWriter {
+
+    private static final String INSERT_IGNORE_DUPLICATES = """
+            INSERT INTO payment_entity
+                (tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?::json, ?, ?, ?)
+            ON CONFLICT (tx_id, created_at) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertIgnoringDuplicates(List<PaymentEntity> entities) {
+        jdbcTemplate.batchUpdate(INSERT_IGNORE_DUPLICATES, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PaymentEntity e = entities.get(i);
+                ps.setObject(1, e.getTxId());
+                ps.setString(2, e.getMerchantId());
+                ps.setString(3, e.getCustomerId());
+                ps.setLong(4, e.getAmount());
+                ps.setShort(5, (short) e.getStatus().ordinal()); // enum mapeado como ORDINAL pelo Hibernate
+                ps.setString(6, e.getPayload());
+                ps.setObject(7, e.getAuthorizedAt());
+                ps.setObject(8, e.getCreatedAt());
+                ps.setObject(9, e.getUpdatedAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entities.size();
+            }
+        });
+    }
+
+    @Override
+    public String mode() {
+        return "jdbc";
+    }
+}
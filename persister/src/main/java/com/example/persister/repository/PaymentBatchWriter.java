@@ -0,0 +1,15 @@
+package com.example.persister.repository;
+
+import com.example.persister.entity.PaymentEntity;
+
+import java.util.List;
+
+/** Estratégia de escrita de um lote de pagamentos; selecionada por app.persister.write-mode. */
+public interface PaymentBatchWriter {
+
+    /** Grava o lote ignorando txIds já existentes; roda dentro da transação do chamador. */
+    void insertIgnoringDuplicates(List<PaymentEntity> entities);
+
+    /** Nome do modo, usado nos logs de vazão. */
+    String mode();
+}
@@ -0,0 +1,165 @@
+package com.example.persister.repository;
+
+import com.example.persister.entity.PaymentEntity;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ingestão via COPY binário do PostgreSQL: o lote é transmitido para uma tabela de staging
+ * e depois mesclado em payment_entity com um único INSERT ... SELECT ... ON CONFLICT DO NOTHING.
+ * Pensado para drenar backlog (replay do tópico desde o início).
+ */
+@Repository
+@ConditionalOnProperty(name = "app.persister.write-mode", havingValue = "copy")
+@RequiredArgsConstructor
+public class PaymentCopyRepository implements PaymentBatchWriter {
+
+    // TEMP não gera WAL (como UNLOGGED) e é privada da sessão: listeners concorrentes não se misturam.
+    private static final String CREATE_STAGING = """
+            CREATE TEMP TABLE IF NOT EXISTS payment_staging (
+                tx_id         uuid,
+                merchant_id   text,
+                customer_id   text,
+                amount        bigint,
+                status        smallint,
+                payload       json,
+                authorized_at timestamptz,
+                created_at    timestamptz,
+                updated_at    timestamptz
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_STAGING = """
+            COPY payment_staging
+                (tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at)
+            FROM STDIN (FORMAT BINARY)
+            """;
+
+    private static final String MERGE_STAGING = """
+            INSERT INTO payment_entity
+                (tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at)
+            SELECT tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at
+            FROM payment_staging
+            ON CONFLICT (tx_id, created_at) DO NOTHING
+            """;
+
+    private static final byte[] COPY_SIGNATURE = "PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1);
+    private static final short FIELD_COUNT = 9;
+    // timestamptz binário = micros desde 2000-01-01T00:00:00Z
+    private static final long PG_EPOCH_SECONDS = 946_684_800L;
+    private static final int COPY_BUFFER_BYTES = 1 << 16;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertIgnoringDuplicates(List<PaymentEntity> entities) {
+        jdbcTemplate.execute(CREATE_STAGING);
+        copyIntoStaging(entities);
+        jdbcTemplate.update(MERGE_STAGING);
+    }
+
+    @Override
+    public String mode() {
+        return "copy";
+    }
+
+    private void copyIntoStaging(List<PaymentEntity> entities) {
+        // mesma conexão da transação corrente (ligada pelo JpaTransactionManager)
+        Connection con = DataSourceUtils.getConnection(dataSource);
+        try {
+            PGConnection pg = con.unwrap(PGConnection.class);
+            try (var out = new DataOutputStream(new BufferedOutputStream(
+                    new PGCopyOutputStream(pg, COPY_STAGING, COPY_BUFFER_BYTES), COPY_BUFFER_BYTES))) {
+                out.write(COPY_SIGNATURE);
+                out.writeInt(0); // flags
+                out.writeInt(0); // tamanho da extensão do header
+                for (PaymentEntity e : entities) {
+                    writeRow(out, e);
+                }
+                out.writeShort(-1); // trailer
+            }
+        } catch (SQLException ex) {
+            throw translate(ex);
+        } catch (IOException ex) {
+            // PGCopyOutputStream embrulha o erro do servidor (linha inválida, violação...) num IOException
+            if (ex.getCause() instanceof SQLException sql) {
+                throw translate(sql);
+            }
+            throw new DataAccessResourceFailureException("Falha ao transmitir lote via COPY", ex);
+        } finally {
+            DataSourceUtils.releaseConnection(con, dataSource);
+        }
+    }
+
+    /**
+     * Mesma tradução do JdbcTemplate (códigos de erro / SQLState): violação de dado vira
+     * DataIntegrityViolationException e cai no isolamento registro a registro do consumidor, e só
+     * falha de conexão é tratada como transitória.
+     */
+    private DataAccessException translate(SQLException ex) {
+        DataAccessException translated = jdbcTemplate.getExceptionTranslator()
+                .translate("COPY payment_staging", COPY_STAGING, ex);
+        return translated != null ? translated : new UncategorizedSQLException("COPY payment_staging", COPY_STAGING, ex);
+    }
+
+    private static void writeRow(DataOutputStream out, PaymentEntity e) throws IOException {
+        out.writeShort(FIELD_COUNT);
+        writeUuid(out, e.getTxId());
+        writeText(out, e.getMerchantId());
+        writeText(out, e.getCustomerId());
+        out.writeInt(8);
+        out.writeLong(e.getAmount());
+        out.writeInt(2);
+        out.writeShort(e.getStatus().ordinal()); // enum mapeado como ORDINAL pelo Hibernate
+        writeText(out, e.getPayload()); // json binário = texto UTF-8
+        writeTimestamp(out, e.getAuthorizedAt());
+        writeTimestamp(out, e.getCreatedAt());
+        writeTimestamp(out, e.getUpdatedAt());
+    }
+
+    private static void writeUuid(DataOutputStream out, UUID uuid) throws IOException {
+        out.writeInt(16);
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeTimestamp(DataOutputStream out, OffsetDateTime value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        long micros = (value.toEpochSecond() - PG_EPOCH_SECONDS) * 1_000_000L + value.getNano() / 1_000;
+        out.writeInt(8);
+        out.writeLong(micros);
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.persister.repository;
 
 import com.example.persister.entity.PaymentEntity;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 public interface PaymentRepository extends JpaRepository<PaymentEntity, Long> {
-    boolean existsByTxId(UUID txId);
+
+    /** O intervalo de createdAt do lote restringe a consulta às partições que podem conter os txIds. */
+    @Query("select p.txId from PaymentEntity p where p.txId in :txIds and p.createdAt between :from and :to")
+    List<UUID> findExistingTxIds(@Param("txIds") Collection<UUID> txIds,
+                                 @Param("from") OffsetDateTime from,
+                                 @Param("to") OffsetDateTime to);
 
 }
@@ -0,0 +1,163 @@
+package com.example.persister.retry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Reinjeta em lote o que está na DLQ: lê do offset commitado do grupo de replay até o fim
+ * observado na subida, republica chave/valor/headers originais no tópico de origem (ou no
+ * configurado) sem os headers de falha e commita a cada poll depois do flush.
+ * Uso: {@code --spring.profiles.active=dlq-replay}.
+ */
+@Slf4j
+@Component
+@Profile("dlq-replay")
+public class DlqReplayRunner implements ApplicationRunner {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final KafkaProperties kafkaProperties;
+    private final String dlqTopic;
+    private final String mainTopic;
+    private final String targetTopic;
+    private final String groupId;
+    private final long maxRecords;
+
+    public DlqReplayRunner(KafkaProperties kafkaProperties,
+                           @Value("${app.kafka.topics.dlq}") String dlqTopic,
+                           @Value("${app.kafka.topics.persist-in}") String mainTopic,
+                           @Value("${app.persister.dlq-replay.target-topic:}") String targetTopic,
+                           @Value("${app.persister.dlq-replay.group-id:persister-dlq-replay}") String groupId,
+                           @Value("${app.persister.dlq-replay.max-records:0}") long maxRecords) {
+        this.kafkaProperties = kafkaProperties;
+        this.dlqTopic = dlqTopic;
+        this.mainTopic = mainTopic;
+        this.targetTopic = targetTopic;
+        this.groupId = groupId;
+        this.maxRecords = maxRecords;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Map<String, Object> consumerProps = kafkaProperties.buildConsumerProperties(null);
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        consumerProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Map<String, Object> producerProps = kafkaProperties.buildProducerProperties(null);
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+
+        long start = System.nanoTime();
+        Map<String, Long> perTarget = new TreeMap<>();
+        long replayed = 0;
+        try (var consumer = new KafkaConsumer<byte[], byte[]>(consumerProps);
+             var producer = new KafkaProducer<byte[], byte[]>(producerProps)) {
+            List<TopicPartition> partitions = consumer.partitionsFor(dlqTopic).stream()
+                    .map(p -> new TopicPartition(p.topic(), p.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            // fim fixado na subida: o que cair na DLQ durante o replay fica para a próxima execução
+            Map<TopicPartition, Long> end = new HashMap<>(consumer.endOffsets(partitions));
+
+            while (!caughtUp(consumer, end) && (maxRecords <= 0 || replayed < maxRecords)) {
+                ConsumerRecords<byte[], byte[]> records = consumer.poll(POLL_TIMEOUT);
+                List<Future<RecordMetadata>> sends = new ArrayList<>(records.count());
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<byte[], byte[]> record : records) {
+                    var tp = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= end.get(tp) || (maxRecords > 0 && replayed >= maxRecords)) {
+                        continue;
+                    }
+                    String target = targetOf(record);
+                    sends.add(producer.send(new ProducerRecord<>(target, null, record.key(), record.value(),
+                            replayHeaders(record))));
+                    offsets.put(tp, new OffsetAndMetadata(record.offset() + 1));
+                    perTarget.merge(target, 1L, Long::sum);
+                    replayed++;
+                }
+                if (sends.isEmpty()) {
+                    continue;
+                }
+                producer.flush();
+                for (Future<RecordMetadata> send : sends) {
+                    send.get(); // falha de envio aborta antes do commit: nada é perdido, no máximo duplicado
+                }
+                // o que passou do max-records não entra no commit: é relido na próxima execução
+                consumer.commitSync(offsets);
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Falha ao republicar registro da DLQ", ex.getCause());
+        }
+        log.info("Replay da DLQ {}: {} registros em {} ms, por destino {}",
+                dlqTopic, replayed, (System.nanoTime() - start) / 1_000_000, perTarget);
+    }
+
+    private boolean caughtUp(KafkaConsumer<byte[], byte[]> consumer, Map<TopicPartition, Long> end) {
+        for (Map.Entry<TopicPartition, Long> e : end.entrySet()) {
+            if (consumer.position(e.getKey()) < e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String targetOf(ConsumerRecord<byte[], byte[]> record) {
+        if (!targetTopic.isBlank()) {
+            return targetTopic;
+        }
+        // a cada tier o recoverer acrescenta um kafka_dlt-original-topic: o primeiro é a origem real
+        for (Header original : record.headers().headers(KafkaHeaders.DLT_ORIGINAL_TOPIC)) {
+            return new String(original.value(), StandardCharsets.UTF_8);
+        }
+        return mainTopic;
+    }
+
+    /** Mantém headers de negócio (x-wire-format, tipo JSON); descarta os de falha e de retry. */
+    private static RecordHeaders replayHeaders(ConsumerRecord<byte[], byte[]> record) {
+        var headers = new RecordHeaders();
+        for (Header h : record.headers()) {
+            String key = h.key();
+            if (key.startsWith("kafka_dlt-")
+                    || key.equals(RetryTierRouter.DUE_AT_HEADER)
+                    || key.equals(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER)
+                    || key.equals(SerializationUtils.KEY_DESERIALIZER_EXCEPTION_HEADER)) {
+                continue;
+            }
+            headers.add(h);
+        }
+        return headers;
+    }
+}
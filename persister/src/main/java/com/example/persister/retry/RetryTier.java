@@ -0,0 +1,7 @@
+package com.example.persister.retry;
+
+import java.time.Duration;
+
+/** Tópico de retry e o atraso mínimo antes de reprocessar o que cai nele. */
+public record RetryTier(String topic, Duration delay) {
+}
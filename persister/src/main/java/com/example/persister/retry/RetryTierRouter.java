@@ -0,0 +1,80 @@
+package com.example.persister.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Encadeia tópico principal -> tiers de retry -> DLQ. Usado como destination resolver e
+ * headers function do DeadLetterPublishingRecoverer: quem falha em um tier vai para o próximo,
+ * com o header {@value #DUE_AT_HEADER} marcando quando pode ser reprocessado.
+ */
+public class RetryTierRouter {
+
+    public static final String DUE_AT_HEADER = "x-retry-due-at";
+
+    private final String mainTopic;
+    private final String dlqTopic;
+    private final List<RetryTier> tiers;
+
+    public RetryTierRouter(String mainTopic, String dlqTopic, List<RetryTier> tiers) {
+        if (tiers.isEmpty()) {
+            throw new IllegalArgumentException("app.persister.retry.tiers precisa de ao menos um tier");
+        }
+        this.mainTopic = mainTopic;
+        this.dlqTopic = dlqTopic;
+        this.tiers = List.copyOf(tiers);
+    }
+
+    public List<RetryTier> tiers() {
+        return tiers;
+    }
+
+    /** Próximo destino do registro que falhou; payload ilegível vai direto para a DLQ. */
+    public String nextTopic(ConsumerRecord<?, ?> record) {
+        if (record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+            return dlqTopic;
+        }
+        if (record.topic().equals(mainTopic)) {
+            return tiers.get(0).topic();
+        }
+        for (int i = 0; i < tiers.size() - 1; i++) {
+            if (tiers.get(i).topic().equals(record.topic())) {
+                return tiers.get(i + 1).topic();
+            }
+        }
+        return dlqTopic;
+    }
+
+    public TopicPartition resolve(ConsumerRecord<?, ?> record, Exception ex) {
+        // partição negativa: o producer escolhe pela chave (mesma ordem por txId/cliente)
+        return new TopicPartition(nextTopic(record), -1);
+    }
+
+    public Headers retryHeaders(ConsumerRecord<?, ?> record, Exception ex) {
+        var headers = new RecordHeaders();
+        String next = nextTopic(record);
+        for (RetryTier tier : tiers) {
+            if (tier.topic().equals(next)) {
+                long dueAt = System.currentTimeMillis() + tier.delay().toMillis();
+                headers.add(DUE_AT_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(dueAt).array());
+            }
+        }
+        return headers;
+    }
+
+    /** Epoch millis a partir do qual o registro pode ser reprocessado (0 sem header). */
+    public long dueAt(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(DUE_AT_HEADER);
+        if (header == null || header.value().length != Long.BYTES) {
+            return 0L;
+        }
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+}
@@ -0,0 +1,110 @@
+-- payment_entity particionada por created_at (uma partição por dia UTC).
+-- Unicidade e PK precisam conter a chave de partição: (tx_id, created_at) e (id, created_at).
+-- created_at vem do PaymentEvent e é o mesmo em toda reentrega do txId, então
+-- ON CONFLICT (tx_id, created_at) deduplica como o antigo índice único de tx_id.
+
+-- Tabela criada antes pelo ddl-auto=update: sai do caminho e é copiada no fim.
+DO $$
+BEGIN
+    IF to_regclass('payment_entity') IS NOT NULL
+       AND (SELECT relkind FROM pg_class WHERE oid = 'payment_entity'::regclass) = 'r' THEN
+        ALTER TABLE payment_entity RENAME TO payment_entity_legacy;
+        ALTER INDEX IF EXISTS payment_entity_pkey RENAME TO payment_entity_legacy_pkey;
+        ALTER INDEX IF EXISTS ux_payment_entity_tx_id RENAME TO ux_payment_entity_legacy_tx_id;
+        ALTER SEQUENCE IF EXISTS payment_entity_id_seq RENAME TO payment_entity_legacy_id_seq;
+    END IF;
+END $$;
+
+CREATE SEQUENCE payment_entity_id_seq;
+
+CREATE TABLE payment_entity (
+    id            bigint                   NOT NULL DEFAULT nextval('payment_entity_id_seq'),
+    tx_id         uuid                     NOT NULL,
+    merchant_id   varchar(255),
+    customer_id   varchar(255),
+    amount        bigint                   NOT NULL,
+    status        smallint,
+    payload       jsonb,
+    authorized_at timestamp(6) with time zone,
+    created_at    timestamp(6) with time zone NOT NULL,
+    updated_at    timestamp(6) with time zone,
+    CONSTRAINT payment_entity_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT ux_payment_entity_tx_id UNIQUE (tx_id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE payment_entity_id_seq OWNED BY payment_entity.id;
+
+-- índices do pai são criados em cada partição (as existentes e as futuras)
+CREATE INDEX ix_payment_entity_merchant_created ON payment_entity (merchant_id, created_at);
+
+-- rede de segurança para eventos fora das partições criadas; deve ficar vazia
+CREATE TABLE payment_entity_default PARTITION OF payment_entity DEFAULT;
+
+-- Cria as partições diárias de first_day até last_day (inclusive) que ainda não existem.
+CREATE FUNCTION payment_entity_ensure_partitions(first_day date, last_day date)
+RETURNS SETOF text
+LANGUAGE plpgsql AS $$
+DECLARE
+    d    date;
+    part text;
+BEGIN
+    FOR d IN SELECT generate_series(first_day, last_day, interval '1 day')::date LOOP
+        part := 'payment_entity_p' || to_char(d, 'YYYYMMDD');
+        IF to_regclass(part) IS NULL THEN
+            EXECUTE format(
+                'CREATE TABLE %I PARTITION OF payment_entity FOR VALUES FROM (%L) TO (%L)',
+                part,
+                d::timestamp AT TIME ZONE 'UTC',
+                (d + 1)::timestamp AT TIME ZONE 'UTC');
+            RETURN NEXT part;
+        END IF;
+    END LOOP;
+END $$;
+
+-- Desanexa as partições diárias inteiramente anteriores a cutoff e, se drop_expired, apaga.
+-- DETACH sem CONCURRENTLY (não roda em função): segura o lock do pai só pelo tempo do ALTER.
+CREATE FUNCTION payment_entity_expire_partitions(cutoff date, drop_expired boolean)
+RETURNS SETOF text
+LANGUAGE plpgsql AS $$
+DECLARE
+    part text;
+BEGIN
+    FOR part IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'payment_entity'::regclass
+          AND c.relname ~ '^payment_entity_p[0-9]{8}$'
+          AND to_date(substring(c.relname FROM 17), 'YYYYMMDD') < cutoff
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE payment_entity DETACH PARTITION %I', part);
+        IF drop_expired THEN
+            EXECUTE format('DROP TABLE %I', part);
+        END IF;
+        RETURN NEXT part;
+    END LOOP;
+END $$;
+
+-- Cópia do legado para as partições do período dele (grandes volumes: migrar fora do horário).
+DO $$
+DECLARE
+    oldest date;
+BEGIN
+    IF to_regclass('payment_entity_legacy') IS NULL THEN
+        RETURN;
+    END IF;
+    SELECT (min(created_at) AT TIME ZONE 'UTC')::date INTO oldest FROM payment_entity_legacy;
+    IF oldest IS NOT NULL THEN
+        PERFORM payment_entity_ensure_partitions(oldest, (now() AT TIME ZONE 'UTC')::date);
+    END IF;
+    INSERT INTO payment_entity
+        (id, tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at)
+    SELECT id, tx_id, merchant_id, customer_id, amount, status, payload::jsonb, authorized_at,
+           coalesce(created_at, now()), updated_at
+    FROM payment_entity_legacy
+    WHERE tx_id IS NOT NULL
+    ON CONFLICT DO NOTHING;
+    PERFORM setval('payment_entity_id_seq', greatest((SELECT max(id) FROM payment_entity), 1));
+    DROP TABLE payment_entity_legacy;
+END $$;
@@ -0,0 +1,39 @@
+-- Se a manutenção ficar parada, os INSERTs de um dia sem partição caem em payment_entity_default
+-- e o CREATE ... PARTITION OF daquele dia passa a falhar (a default teria linhas do intervalo).
+-- Agora, ao criar o dia, a default sai do caminho, as linhas do dia vão para a partição nova
+-- e ela volta; tudo na transação da chamada.
+CREATE OR REPLACE FUNCTION payment_entity_ensure_partitions(first_day date, last_day date)
+RETURNS SETOF text
+LANGUAGE plpgsql AS $$
+DECLARE
+    d    date;
+    part text;
+    lo   timestamptz;
+    hi   timestamptz;
+BEGIN
+    FOR d IN SELECT generate_series(first_day, last_day, interval '1 day')::date LOOP
+        part := 'payment_entity_p' || to_char(d, 'YYYYMMDD');
+        IF to_regclass(part) IS NULL THEN
+            lo := d::timestamp AT TIME ZONE 'UTC';
+            hi := (d + 1)::timestamp AT TIME ZONE 'UTC';
+            IF EXISTS (SELECT 1 FROM payment_entity_default WHERE created_at >= lo AND created_at < hi) THEN
+                RAISE WARNING 'payment_entity_default tem linhas de %: movendo para %', d, part;
+                ALTER TABLE payment_entity DETACH PARTITION payment_entity_default;
+                EXECUTE format('CREATE TABLE %I PARTITION OF payment_entity FOR VALUES FROM (%L) TO (%L)',
+                               part, lo, hi);
+                INSERT INTO payment_entity
+                    (id, tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at)
+                SELECT id, tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at
+                FROM payment_entity_default
+                WHERE created_at >= lo AND created_at < hi
+                ON CONFLICT DO NOTHING;
+                DELETE FROM payment_entity_default WHERE created_at >= lo AND created_at < hi;
+                ALTER TABLE payment_entity ATTACH PARTITION payment_entity_default DEFAULT;
+            ELSE
+                EXECUTE format('CREATE TABLE %I PARTITION OF payment_entity FOR VALUES FROM (%L) TO (%L)',
+                               part, lo, hi);
+            END IF;
+            RETURN NEXT part;
+        END IF;
+    END LOOP;
+END $$;
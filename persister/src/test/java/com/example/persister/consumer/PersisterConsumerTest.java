@@ -0,0 +1,121 @@
+package com.example.persister.consumer;
+
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.persister.dedup.TxIdDeduplicator;
+import com.example.persister.entity.PaymentEntity;
+import com.example.persister.repository.PaymentBatchWriter;
+import com.example.persister.retry.RetryTierRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PersisterConsumerTest {
+
+	private final PaymentBatchWriter writer = mock(PaymentBatchWriter.class);
+	private final PaymentEntityMapper mapper = mock(PaymentEntityMapper.class);
+	private final List<List<UUID>> inserts = new ArrayList<>();
+
+	private final PersisterConsumer consumer = new PersisterConsumer(writer, mock(TxIdDeduplicator.class), mapper,
+			new TransactionTemplate(mock(PlatformTransactionManager.class)), mock(RetryTierRouter.class),
+			new SimpleMeterRegistry());
+
+	PersisterConsumerTest() {
+		when(mapper.toEntity(any())).thenAnswer(inv -> {
+			var entity = new PaymentEntity();
+			entity.setTxId(inv.<PaymentEvent>getArgument(0).txId());
+			return entity;
+		});
+		when(writer.mode()).thenReturn("mock");
+	}
+
+	@Test
+	void writesTheReadablePrefixAndReportsTheUnreadableRecord() {
+		var records = List.of(record(0), record(1), unreadable(2), record(3));
+		failingOn(null);
+
+		assertThatThrownBy(() -> consumer.consumeAuthorized(records))
+				.isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(2));
+
+		assertThat(inserts).containsExactly(txIds(records.get(0), records.get(1)));
+	}
+
+	@Test
+	void nonTransientFailureIsolatesTheBatchAndReportsThePoisonRow() {
+		var records = List.of(record(0), record(1), record(2));
+		failingOn(records.get(1).value().txId());
+
+		assertThatThrownBy(() -> consumer.consumeAuthorized(records))
+				.isInstanceOfSatisfying(BatchListenerFailedException.class, e -> assertThat(e.getIndex()).isEqualTo(1));
+
+		// o lote inteiro, depois um a um até o venenoso; o que vem depois dele é relido
+		assertThat(inserts).containsExactly(
+				txIds(records.get(0), records.get(1), records.get(2)),
+				txIds(records.get(0)),
+				txIds(records.get(1)));
+	}
+
+	@Test
+	void transientFailureIsRethrownWithoutIsolating() {
+		var records = List.of(record(0), record(1));
+		var timeout = new QueryTimeoutException("banco lento");
+		doAnswer(inv -> {
+			inserts.add(entityTxIds(inv.getArgument(0)));
+			throw timeout;
+		}).when(writer).insertIgnoringDuplicates(anyList());
+
+		assertThatThrownBy(() -> consumer.consumeAuthorized(records)).isSameAs(timeout);
+
+		assertThat(inserts).hasSize(1);
+	}
+
+	/** Grava tudo, exceto lotes que contenham {@code poison} (violação não transitória). */
+	private void failingOn(UUID poison) {
+		doAnswer(inv -> {
+			List<UUID> txIds = entityTxIds(inv.getArgument(0));
+			inserts.add(txIds);
+			if (txIds.contains(poison)) {
+				throw new DataIntegrityViolationException("check constraint");
+			}
+			return null;
+		}).when(writer).insertIgnoringDuplicates(anyList());
+	}
+
+	private static List<UUID> entityTxIds(List<PaymentEntity> entities) {
+		return entities.stream().map(PaymentEntity::getTxId).toList();
+	}
+
+	@SafeVarargs
+	private static List<UUID> txIds(ConsumerRecord<String, PaymentEvent>... records) {
+		return Arrays.stream(records).map(r -> r.value().txId()).toList();
+	}
+
+	private static ConsumerRecord<String, PaymentEvent> record(long offset) {
+		var event = new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-1", "CUST-1", "TERM-1",
+				100, "BRL", "CREDIT", "CHIP", "card", Status.AUTHORIZED);
+		return new ConsumerRecord<>("payments.persist.in", 0, offset, "CUST-1", event);
+	}
+
+	private static ConsumerRecord<String, PaymentEvent> unreadable(long offset) {
+		return new ConsumerRecord<>("payments.persist.in", 0, offset, "CUST-1", null);
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.persister.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TxIdBloomFilterTest {
+
+	@Test
+	void reportsEveryInsertedTxIdAsMaybeSeen() {
+		var filter = new TxIdBloomFilter(4, 1 << 16, 5, 60_000);
+		List<UUID> inserted = new ArrayList<>();
+		for (int i = 0; i < 2_000; i++) {
+			UUID txId = UUID.randomUUID();
+			filter.put(txId);
+			inserted.add(txId);
+		}
+
+		assertThat(inserted).allMatch(filter::mightContain);
+	}
+
+	@Test
+	void keepsFalsePositiveRateLowForUnseenTxIds() {
+		var filter = new TxIdBloomFilter(4, 1 << 16, 5, 60_000);
+		for (int i = 0; i < 2_000; i++) {
+			filter.put(UUID.randomUUID());
+		}
+
+		long falsePositives = 0;
+		for (int i = 0; i < 10_000; i++) {
+			if (filter.mightContain(UUID.randomUUID())) {
+				falsePositives++;
+			}
+		}
+		assertThat(falsePositives).isLessThan(100);
+	}
+
+	@Test
+	void forgetsTxIdsAfterTwoWindows() throws InterruptedException {
+		var filter = new TxIdBloomFilter(1, 1 << 12, 3, 50);
+		UUID txId = UUID.randomUUID();
+		filter.put(txId);
+
+		Thread.sleep(60);
+		assertThat(filter.mightContain(txId)).isTrue(); // ainda na geração anterior
+		Thread.sleep(60);
+		assertThat(filter.mightContain(txId)).isFalse();
+	}
+}
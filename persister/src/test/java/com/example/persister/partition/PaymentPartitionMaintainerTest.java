@@ -0,0 +1,105 @@
+package com.example.persister.partition;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PaymentPartitionMaintainerTest {
+
+	@Container
+	static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void migrate() {
+		var dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+		Flyway.configure().dataSource(dataSource).cleanDisabled(false).load().clean();
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbc = new JdbcTemplate(dataSource);
+	}
+
+	@Test
+	void startupCreatesYesterdayThroughPremakeDaysOnce() {
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		new PaymentPartitionMaintainer(jdbc, 2, Duration.ofDays(90), true).afterPropertiesSet();
+
+		assertThat(partitions()).contains(
+				partition(today.minusDays(1)), partition(today), partition(today.plusDays(1)), partition(today.plusDays(2)));
+		assertThat(ensure(today, today.plusDays(2))).isEmpty();
+	}
+
+	@Test
+	void rowsStrandedInTheDefaultMoveToTheDayWhenItIsCreated() {
+		LocalDate day = LocalDate.now(ZoneOffset.UTC).plusDays(30);
+		insert(day);
+		assertThat(jdbc.queryForObject("SELECT count(*) FROM payment_entity_default", Long.class)).isEqualTo(1);
+
+		assertThat(ensure(day, day)).containsExactly(partition(day));
+
+		assertThat(jdbc.queryForObject("SELECT count(*) FROM payment_entity_default", Long.class)).isZero();
+		assertThat(jdbc.queryForObject("SELECT count(*) FROM " + partition(day), Long.class)).isEqualTo(1);
+		// a default voltou: um dia ainda sem partição continua tendo para onde ir
+		insert(day.plusDays(1));
+		assertThat(jdbc.queryForObject("SELECT count(*) FROM payment_entity_default", Long.class)).isEqualTo(1);
+	}
+
+	@Test
+	void expiredPartitionsAreDetachedAndDropped() {
+		LocalDate today = LocalDate.now(ZoneOffset.UTC);
+		ensure(today.minusDays(5), today);
+
+		new PaymentPartitionMaintainer(jdbc, 0, Duration.ofDays(2), true).afterPropertiesSet();
+
+		assertThat(partitions()).doesNotContain(partition(today.minusDays(5)), partition(today.minusDays(3)))
+				.contains(partition(today.minusDays(2)), partition(today));
+		assertThat(jdbc.queryForObject("SELECT to_regclass(?)::text", String.class, partition(today.minusDays(5)))).isNull();
+	}
+
+	@Test
+	void startupFailsWhenPartitionsCannotBeCreated() {
+		jdbc.execute("DROP FUNCTION payment_entity_ensure_partitions(date, date)");
+		var maintainer = new PaymentPartitionMaintainer(jdbc, 2, Duration.ofDays(90), true);
+
+		assertThatThrownBy(maintainer::afterPropertiesSet).isInstanceOf(DataAccessException.class);
+		// agendada, a mesma falha só é registrada
+		maintainer.maintain();
+	}
+
+	private List<String> ensure(LocalDate from, LocalDate to) {
+		return jdbc.queryForList("SELECT payment_entity_ensure_partitions(?, ?)", String.class,
+				Date.valueOf(from), Date.valueOf(to));
+	}
+
+	private List<String> partitions() {
+		return jdbc.queryForList("""
+				SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+				WHERE i.inhparent = 'payment_entity'::regclass""", String.class);
+	}
+
+	private void insert(LocalDate day) {
+		jdbc.update("INSERT INTO payment_entity (tx_id, amount, created_at) VALUES (?, 100, ?::timestamptz)",
+				UUID.randomUUID(), day + "T12:00:00Z");
+	}
+
+	private static String partition(LocalDate day) {
+		return "payment_entity_p" + day.toString().replace("-", "");
+	}
+}
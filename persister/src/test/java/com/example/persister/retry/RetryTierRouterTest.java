@@ -0,0 +1,48 @@
+package com.example.persister.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryTierRouterTest {
+
+	private final RetryTierRouter router = new RetryTierRouter("persist.in", "dlq", List.of(
+			new RetryTier("retry.5s", Duration.ofSeconds(5)),
+			new RetryTier("retry.1m", Duration.ofMinutes(1))));
+
+	@Test
+	void walksMainTopicThroughTiersToDlq() {
+		assertThat(router.nextTopic(record("persist.in"))).isEqualTo("retry.5s");
+		assertThat(router.nextTopic(record("retry.5s"))).isEqualTo("retry.1m");
+		assertThat(router.nextTopic(record("retry.1m"))).isEqualTo("dlq");
+	}
+
+	@Test
+	void sendsUnreadablePayloadStraightToDlq() {
+		var record = record("persist.in");
+		record.headers().add(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, new byte[0]);
+
+		assertThat(router.nextTopic(record)).isEqualTo("dlq");
+	}
+
+	@Test
+	void stampsDueTimeOfTheNextTier() {
+		long before = System.currentTimeMillis();
+		var failed = record("retry.5s");
+		var forwarded = record("retry.1m");
+		router.retryHeaders(failed, new IllegalStateException()).forEach(forwarded.headers()::add);
+
+		assertThat(router.dueAt(forwarded)).isBetween(before + 60_000, System.currentTimeMillis() + 60_000);
+		assertThat(router.retryHeaders(record("retry.1m"), new IllegalStateException())).isEmpty();
+		assertThat(router.dueAt(record("retry.5s"))).isZero();
+	}
+
+	private static ConsumerRecord<String, String> record(String topic) {
+		return new ConsumerRecord<>(topic, 0, 0L, "key", "value");
+	}
+}
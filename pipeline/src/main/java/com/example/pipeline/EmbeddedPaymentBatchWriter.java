@@ -0,0 +1,83 @@
+package com.example.pipeline;
+
+import com.example.persister.entity.PaymentEntity;
+import com.example.persister.repository.PaymentBatchWriter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * payment_entity no H2 embutido. Mesmas colunas e mesma unicidade (tx_id, created_at) da migração
+ * do persister, mas sem partições nem jsonb. O INSERT ... ON CONFLICT do Postgres vira um MERGE
+ * que só insere quando não há linha com a chave.
+ */
+public class EmbeddedPaymentBatchWriter implements PaymentBatchWriter {
+
+    private static final String SCHEMA = """
+            CREATE TABLE IF NOT EXISTS payment_entity (
+                id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+                tx_id         UUID NOT NULL,
+                merchant_id   VARCHAR(255),
+                customer_id   VARCHAR(255),
+                amount        BIGINT NOT NULL,
+                status        SMALLINT,
+                payload       CHARACTER LARGE OBJECT,
+                authorized_at TIMESTAMP(6) WITH TIME ZONE,
+                created_at    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+                updated_at    TIMESTAMP(6) WITH TIME ZONE,
+                CONSTRAINT payment_entity_pkey PRIMARY KEY (id, created_at),
+                CONSTRAINT ux_payment_entity_tx_id UNIQUE (tx_id, created_at)
+            )
+            """;
+
+    private static final String INSERT_IGNORE_DUPLICATES = """
+            MERGE INTO payment_entity t
+            USING (SELECT CAST(? AS UUID) AS tx_id, CAST(? AS TIMESTAMP(6) WITH TIME ZONE) AS created_at) k
+            ON t.tx_id = k.tx_id AND t.created_at = k.created_at
+            WHEN NOT MATCHED THEN INSERT
+                (tx_id, merchant_id, customer_id, amount, status, payload, authorized_at, created_at, updated_at)
+            VALUES (k.tx_id, ?, ?, ?, ?, ?, ?, k.created_at, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EmbeddedPaymentBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createSchema() {
+        jdbcTemplate.execute(SCHEMA);
+    }
+
+    @Override
+    public void insertIgnoringDuplicates(List<PaymentEntity> entities) {
+        jdbcTemplate.batchUpdate(INSERT_IGNORE_DUPLICATES, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                PaymentEntity e = entities.get(i);
+                ps.setObject(1, e.getTxId());
+                ps.setObject(2, e.getCreatedAt());
+                ps.setString(3, e.getMerchantId());
+                ps.setString(4, e.getCustomerId());
+                ps.setLong(5, e.getAmount());
+                ps.setShort(6, (short) e.getStatus().ordinal());
+                ps.setString(7, e.getPayload());
+                ps.setObject(8, e.getAuthorizedAt());
+                ps.setObject(9, e.getUpdatedAt());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entities.size();
+            }
+        });
+    }
+
+    @Override
+    public String mode() {
+        return "h2";
+    }
+}
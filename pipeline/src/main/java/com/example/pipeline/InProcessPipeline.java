@@ -0,0 +1,182 @@
+package com.example.pipeline;
+
+import com.example.common.dto.PaymentRequest;
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.common.pipeline.BatchFailedException;
+import com.example.common.pipeline.EventTransport;
+import com.example.common.trace.TraceHeaders;
+import com.example.gateway.authorization.AuthorizationDecision;
+import com.example.gateway.authorization.AuthorizationEngine;
+import com.example.persister.consumer.PaymentEntityMapper;
+import com.example.persister.entity.PaymentEntity;
+import com.example.persister.repository.PaymentBatchWriter;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * API -> authorize-in -> gateway -> persist-in -> persister num só processo. Os tópicos viram
+ * {@link EventTransport}s e cada estágio chama o mesmo código dos serviços: o motor de regras do
+ * gateway e o mapper e o {@link PaymentBatchWriter} do persister.
+ *
+ * <p>O backpressure segue o dos serviços. Quando a partição do gateway está cheia, {@link #submit}
+ * espera até {@code maxBlock} e então falha, como o 503 da API. O gateway, com persist-in cheio,
+ * para de consumir, como a partição pausada. Rejeições só entram na contagem: não há consumidor de
+ * payments.rejected aqui.
+ */
+public class InProcessPipeline implements AutoCloseable {
+
+    private final EventTransport<PaymentEvent> authorizeIn;
+    private final EventTransport<PaymentEvent> persistIn;
+    private final AuthorizationEngine engine;
+    private final PaymentEntityMapper mapper;
+    private final PaymentBatchWriter writer;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder backpressured = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder persisted = new LongAdder();
+    private final Recorder decision = new Recorder(3);
+    private final Recorder e2e = new Recorder(3);
+
+    /**
+     * @param writer {@code null} = descarta os autorizados depois do mapeamento (sem banco)
+     */
+    public InProcessPipeline(EventTransport<PaymentEvent> authorizeIn, EventTransport<PaymentEvent> persistIn,
+                             AuthorizationEngine engine, PaymentEntityMapper mapper,
+                             PaymentBatchWriter writer, TransactionTemplate transactionTemplate) {
+        this.authorizeIn = authorizeIn;
+        this.persistIn = persistIn;
+        this.engine = engine;
+        this.mapper = mapper;
+        this.writer = writer;
+        this.transactionTemplate = transactionTemplate;
+        persistIn.subscribe(this::persist);
+        authorizeIn.subscribe(this::authorize);
+    }
+
+    /** Estágio da API: monta o PaymentEvent como o PaymentService e publica com a chave txId. */
+    public CompletableFuture<Void> submit(UUID txId, PaymentRequest request) {
+        PaymentEvent event = new PaymentEvent(txId, Instant.now(), request.merchantId(), request.customerId(),
+                request.terminalId(), request.amount(), request.currency(), request.method(),
+                request.entryMode(), request.cardHash(), Status.PENDING);
+        CompletableFuture<Void> sent = authorizeIn.send(txId.toString(), event);
+        if (sent.isCompletedExceptionally()) {
+            backpressured.increment();
+        } else {
+            accepted.increment();
+        }
+        return sent;
+    }
+
+    /**
+     * Estágio do gateway: decide e repassa o autorizado; confirma a reserva depois do repasse. Uma
+     * falha vira {@link BatchFailedException} com a posição do evento, para a reentrega não reservar
+     * nem repassar de novo os que já foram concluídos.
+     */
+    private void authorize(int partition, List<PaymentEvent> batch) throws InterruptedException {
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                authorize(partition, batch.get(i));
+            } catch (RuntimeException e) {
+                throw new BatchFailedException(i, e);
+            }
+        }
+    }
+
+    private void authorize(int partition, PaymentEvent event) throws InterruptedException {
+        AuthorizationDecision result = engine.decide(event, partition);
+        if (result.approved()) {
+            try {
+                persistIn.put(event.txId().toString(), withStatus(event, Status.AUTHORIZED));
+            } catch (InterruptedException | RuntimeException e) {
+                engine.rollback(event, partition, result);
+                throw e;
+            }
+        } else {
+            rejected.increment();
+        }
+        engine.confirm(event, partition, result);
+        decision.recordValue(sinceCreated(event));
+    }
+
+    /** Estágio do persister: lote sem txIds repetidos, uma transação por lote. */
+    private void persist(int partition, List<PaymentEvent> batch) {
+        Map<UUID, PaymentEntity> entities = new LinkedHashMap<>(batch.size() * 2);
+        for (PaymentEvent event : batch) {
+            entities.putIfAbsent(event.txId(), mapper.toEntity(event));
+        }
+        if (writer != null) {
+            transactionTemplate.executeWithoutResult(
+                    status -> writer.insertIgnoringDuplicates(new ArrayList<>(entities.values())));
+        }
+        persisted.add(entities.size());
+        for (PaymentEvent event : batch) {
+            e2e.recordValue(sinceCreated(event));
+        }
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long backpressured() {
+        return backpressured.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long persisted() {
+        return persisted.sum();
+    }
+
+    /** Aceite até a decisão do gateway (µs) desde a última chamada. */
+    public Histogram decisionInterval() {
+        return decision.getIntervalHistogram();
+    }
+
+    /** Aceite até o commit do persister (µs) desde a última chamada. */
+    public Histogram e2eInterval() {
+        return e2e.getIntervalHistogram();
+    }
+
+    /** Chamar depois de parar os produtores: escoa authorize-in e depois persist-in. */
+    @Override
+    public void close() {
+        authorizeIn.close();
+        persistIn.close();
+    }
+
+    private static long sinceCreated(PaymentEvent event) {
+        return Math.max(0, TraceHeaders.nowMicros() - TraceHeaders.toMicros(event.createdAt()));
+    }
+
+    private static PaymentEvent withStatus(PaymentEvent event, Status status) {
+        return new PaymentEvent(
+                event.txId(),
+                event.createdAt(),
+                event.merchantId(),
+                event.customerId(),
+                event.terminalId(),
+                event.amount(),
+                event.currency(),
+                event.method(),
+                event.entryMode(),
+                event.cardHash(),
+                status
+        );
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.pipeline;
+
+import com.example.common.dto.PaymentRequest;
+import com.example.common.event.PaymentEvent;
+import com.example.common.pipeline.RingTransport;
+import com.example.gateway.authorization.AuthorizationRulesLoader;
+import com.example.gateway.authorization.CustomerLedger;
+import com.example.gateway.authorization.RuleBasedAuthorizationEngine;
+import com.example.persister.config.JacksonConfig;
+import com.example.persister.consumer.PaymentEntityMapper;
+import com.example.persister.partition.PaymentPartitionMaintainer;
+import com.example.persister.repository.PaymentBatchRepository;
+import com.example.persister.repository.PaymentBatchWriter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Vazão do pipeline sem broker: produtores chamam o estágio da API em laço (ou na taxa de
+ * {@code --rate}) por aquecimento + medição e o resultado sai no stdout.
+ *
+ * <pre>
+ * java -jar target/pipeline.jar --seconds 30 --partitions 6 --db h2
+ * java -jar target/pipeline.jar --db none --producers 8
+ * </pre>
+ */
+public class PipelineMain {
+
+    public static void main(String[] args) throws Exception {
+        PipelineOptions options = PipelineOptions.parse(args);
+        HikariDataSource dataSource = options.db().equals("none") ? null : dataSource(options);
+        try {
+            var ledger = new CustomerLedger(options.ledgerCapacity());
+            var engine = new RuleBasedAuthorizationEngine(
+                    new AuthorizationRulesLoader(Path.of(options.rulesFile())), partition -> ledger);
+            PaymentBatchWriter writer = dataSource == null ? null : writer(options, dataSource);
+            TransactionTemplate transactions = dataSource == null ? null
+                    : new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            var authorizeIn = transport("authorize-in", options);
+            var persistIn = transport("persist-in", options);
+            try (var pipeline = new InProcessPipeline(authorizeIn, persistIn, engine,
+                    new PaymentEntityMapper(new JacksonConfig().objectMapper()), writer, transactions)) {
+                run(pipeline, options.warmup(), options);
+                pipeline.decisionInterval();
+                pipeline.e2eInterval();
+                long rejected = pipeline.rejected();
+                long persisted = pipeline.persisted();
+                long backpressured = pipeline.backpressured();
+                run(pipeline, options.duration(), options);
+                double seconds = options.duration().toMillis() / 1000.0;
+                long doneRejected = pipeline.rejected() - rejected;
+                long donePersisted = pipeline.persisted() - persisted;
+                System.out.printf(Locale.ROOT,
+                        "db=%s partições=%d | concluídos=%d (persistidos=%d rejeitados=%d) backpressure=%d | TPS=%.0f%n",
+                        options.db(), options.partitions(), donePersisted + doneRejected, donePersisted,
+                        doneRejected, pipeline.backpressured() - backpressured,
+                        (donePersisted + doneRejected) / seconds);
+                print("decisão", pipeline.decisionInterval());
+                print("e2e", pipeline.e2eInterval());
+            }
+            System.out.printf(Locale.ROOT, "lotes descartados: authorize-in=%d persist-in=%d%n",
+                    authorizeIn.failed(), persistIn.failed());
+        } finally {
+            if (dataSource != null) {
+                dataSource.close();
+            }
+        }
+    }
+
+    /** Produtores até o fim da fase; com {@code --rate}, cada um segue a própria agenda. */
+    private static void run(InProcessPipeline pipeline, Duration phase, PipelineOptions options)
+            throws InterruptedException {
+        if (phase.isZero()) {
+            return;
+        }
+        long end = System.nanoTime() + phase.toNanos();
+        long intervalNanos = options.rate() > 0 ? 1_000_000_000L * options.producers() / options.rate() : 0;
+        List<Thread> producers = new ArrayList<>(options.producers());
+        for (int p = 0; p < options.producers(); p++) {
+            var random = new SplittableRandom(p);
+            producers.add(Thread.ofPlatform().name("producer-" + p).start(() -> {
+                long next = System.nanoTime();
+                while (next - end < 0) {
+                    pipeline.submit(UUID.randomUUID(), request(random, options.customers()));
+                    if (intervalNanos > 0) {
+                        next += intervalNanos;
+                        LockSupport.parkNanos(next - System.nanoTime());
+                    } else {
+                        next = System.nanoTime();
+                    }
+                }
+            }));
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+    }
+
+    private static PaymentRequest request(SplittableRandom random, int customers) {
+        return new PaymentRequest("MERCH-" + random.nextInt(1_000), "CUST-" + random.nextInt(customers),
+                "TERM-" + random.nextInt(1_000), random.nextLong(1, 50_000), "BRL", "CREDIT", "CHIP",
+                UUID.randomUUID().toString(), null);
+    }
+
+    private static RingTransport<PaymentEvent> transport(String name, PipelineOptions options) {
+        return new RingTransport<>(name, options.partitions(), options.ringSize(), options.maxBatch(),
+                options.maxBlock());
+    }
+
+    private static HikariDataSource dataSource(PipelineOptions options) {
+        var dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(options.jdbcUrl());
+        dataSource.setUsername(options.dbUser());
+        dataSource.setPassword(options.dbPassword());
+        // uma conexão por consumidor de persist-in
+        dataSource.setMaximumPoolSize(options.partitions());
+        return dataSource;
+    }
+
+    /** H2: cria a tabela. Postgres: migrações do persister (Flyway) e partições diárias. */
+    private static PaymentBatchWriter writer(PipelineOptions options, HikariDataSource dataSource) {
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        if (options.db().equals("h2")) {
+            var writer = new EmbeddedPaymentBatchWriter(jdbcTemplate);
+            writer.createSchema();
+            return writer;
+        }
+        Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("0").load().migrate();
+        new PaymentPartitionMaintainer(jdbcTemplate, 7, Duration.ofDays(90), false).maintain();
+        return new PaymentBatchRepository(jdbcTemplate);
+    }
+
+    private static void print(String stage, Histogram micros) {
+        if (micros.getTotalCount() == 0) {
+            return;
+        }
+        System.out.printf(Locale.ROOT, "  %s: p50=%d µs p99=%d µs p99.9=%d µs máx=%d µs%n", stage,
+                micros.getValueAtPercentile(50), micros.getValueAtPercentile(99),
+                micros.getValueAtPercentile(99.9), micros.getMaxValue());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.pipeline;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Argumentos da linha de comando ({@code --chave valor} ou {@code --chave=valor}), no formato do
+ * loadgen.
+ *
+ * @param rate       pagamentos/s somando os produtores; 0 = o mais rápido que o backpressure deixar
+ * @param partitions partições de cada transporte (uma thread consumidora por partição e estágio)
+ * @param ringSize   slots por partição (potência de 2)
+ * @param maxBlock   espera do envio da API por espaço antes de responder com backpressure
+ * @param db         {@code h2} (embutido), {@code postgres} (schema do persister via Flyway) ou
+ *                   {@code none} (descarta: mede só o pipeline)
+ */
+public record PipelineOptions(
+        int rate,
+        int producers,
+        Duration duration,
+        Duration warmup,
+        int partitions,
+        int ringSize,
+        int maxBatch,
+        Duration maxBlock,
+        int customers,
+        String rulesFile,
+        int ledgerCapacity,
+        String db,
+        String jdbcUrl,
+        String dbUser,
+        String dbPassword) {
+
+    public static PipelineOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inesperado: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.put(arg.substring(2), args[++i]);
+            } else {
+                values.put(arg.substring(2), "true");
+            }
+        }
+        String db = values.getOrDefault("db", "h2");
+        String defaultUrl = switch (db) {
+            case "h2" -> "jdbc:h2:mem:payments;DB_CLOSE_DELAY=-1";
+            case "postgres" -> "jdbc:postgresql://localhost:5432/sd_payments_db?reWriteBatchedInserts=true";
+            case "none" -> "";
+            default -> throw new IllegalArgumentException("--db deve ser h2, postgres ou none: " + db);
+        };
+        return new PipelineOptions(
+                Integer.parseInt(values.getOrDefault("rate", "0")),
+                Integer.parseInt(values.getOrDefault("producers", "4")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("seconds", "30"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup-s", "5"))),
+                Integer.parseInt(values.getOrDefault("partitions", "6")),
+                Integer.parseInt(values.getOrDefault("ring-size", "8192")),
+                Integer.parseInt(values.getOrDefault("max-batch", "500")),
+                Duration.ofMillis(Long.parseLong(values.getOrDefault("max-block-ms", "1000"))),
+                Integer.parseInt(values.getOrDefault("customers", "10000")),
+                values.getOrDefault("rules", "config/authorization-rules.txt"),
+                Integer.parseInt(values.getOrDefault("ledger-capacity", "1048576")),
+                db,
+                values.getOrDefault("jdbc-url", defaultUrl),
+                values.getOrDefault("db-user", db.equals("postgres") ? "user" : "sa"),
+                values.getOrDefault("db-password", db.equals("postgres") ? "password" : ""));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.pipeline;
+
+import com.example.common.dto.PaymentRequest;
+import com.example.common.enuns.Status;
+import com.example.common.event.PaymentEvent;
+import com.example.common.pipeline.RingTransport;
+import com.example.gateway.authorization.CustomerLedger;
+import com.example.gateway.authorization.RuleBasedAuthorizationEngine;
+import com.example.gateway.authorization.RuleSet;
+import com.example.persister.config.JacksonConfig;
+import com.example.persister.consumer.PaymentEntityMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InProcessPipelineTest {
+
+    @Test
+    void authorizesAndPersistsIntoTheEmbeddedDatabase() {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:pipeline-test;DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        var writer = new EmbeddedPaymentBatchWriter(jdbcTemplate);
+        writer.createSchema();
+        RuleSet rules = RuleSet.builder().blacklistCard("stolen").build();
+        var ledger = new CustomerLedger(1 << 10);
+        var pipeline = new InProcessPipeline(
+                new RingTransport<PaymentEvent>("authorize-in", 2, 64, 16, Duration.ofSeconds(10)),
+                new RingTransport<PaymentEvent>("persist-in", 2, 64, 16, Duration.ofSeconds(10)),
+                new RuleBasedAuthorizationEngine(() -> rules, partition -> ledger),
+                new PaymentEntityMapper(new JacksonConfig().objectMapper()),
+                writer, new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+
+        for (int i = 0; i < 1_000; i++) {
+            pipeline.submit(UUID.randomUUID(), request("card-" + i)).join();
+        }
+        pipeline.submit(UUID.randomUUID(), request("stolen")).join();
+        pipeline.close();
+
+        assertThat(pipeline.accepted()).isEqualTo(1_001);
+        assertThat(pipeline.rejected()).isEqualTo(1);
+        assertThat(pipeline.persisted()).isEqualTo(1_000);
+        assertThat(pipeline.e2eInterval().getTotalCount()).isEqualTo(1_000);
+        assertThat(count(jdbcTemplate)).isEqualTo(1_000);
+    }
+
+    @Test
+    void embeddedWriterIgnoresRedeliveredRows() {
+        var jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:writer-test;DB_CLOSE_DELAY=-1", "sa", ""));
+        var writer = new EmbeddedPaymentBatchWriter(jdbcTemplate);
+        writer.createSchema();
+        var mapper = new PaymentEntityMapper(new JacksonConfig().objectMapper());
+        PaymentEvent event = new PaymentEvent(UUID.randomUUID(), Instant.now(), "MERCH-1", "CUST-1", "TERM-1",
+                100, "BRL", "CREDIT", "CHIP", "card", Status.AUTHORIZED);
+
+        writer.insertIgnoringDuplicates(List.of(mapper.toEntity(event)));
+        writer.insertIgnoringDuplicates(List.of(mapper.toEntity(event)));
+
+        assertThat(count(jdbcTemplate)).isEqualTo(1);
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM payment_entity", Long.class);
+    }
+
+    private static PaymentRequest request(String cardHash) {
+        return new PaymentRequest("MERCH-1", "CUST-1", "TERM-1", 100, "BRL", "CREDIT", "CHIP", cardHash, null);
+    }
+}